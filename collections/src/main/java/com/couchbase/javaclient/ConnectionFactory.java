@@ -23,16 +23,25 @@ public class ConnectionFactory {
 	private Cluster cluster;
 	private Bucket bucket;
 	private Collection collection;
+	private Duration kvTimeout;
 
 	public ConnectionFactory(String clusterName, String username, String password, boolean secureConnection, boolean capella,String bucketName, String scopeName,
 			String collectionName, Level logLevel) {
+		this(clusterName, username, password, secureConnection, capella, bucketName, scopeName, collectionName,
+				logLevel, Duration.ofSeconds(60));
+	}
+
+	public ConnectionFactory(String clusterName, String username, String password, boolean secureConnection, boolean capella,String bucketName, String scopeName,
+			String collectionName, Level logLevel, Duration kvTimeout) {
 		log.setLevel(logLevel);
+		this.kvTimeout = kvTimeout;
 		this.setCluster(connectCluster(clusterName, username, password, secureConnection,capella));
 		this.setBucket(connectBucket(cluster, bucketName));
 		this.setCollection(connectCollection(bucket, scopeName, collectionName));
 	}
 
 	private Bucket connectBucket(Cluster cluster, String bucketName) {
+		Bucket bucket = null;
 		try {
 			bucket = cluster.bucket(bucketName);
 			// TODO: Enable again when JVMCBC-1147 fixed
@@ -50,7 +59,7 @@ public class ConnectionFactory {
 				environment = ClusterEnvironment.builder()
 						.compressionConfig(CompressionConfig.create().enable(true))
 						.timeoutConfig(TimeoutConfig
-								.kvTimeout(Duration.ofSeconds(60))
+								.kvTimeout(kvTimeout)
 								.queryTimeout(Duration.ofSeconds(100))
 								.searchTimeout(Duration.ofSeconds(100))
 								.analyticsTimeout(Duration.ofSeconds(100)))
@@ -69,7 +78,7 @@ public class ConnectionFactory {
 				environment = ClusterEnvironment.builder()
 						.compressionConfig(CompressionConfig.create().enable(true))
 						.timeoutConfig(TimeoutConfig
-								.kvTimeout(Duration.ofSeconds(60))
+								.kvTimeout(kvTimeout)
 								.queryTimeout(Duration.ofSeconds(100))
 								.searchTimeout(Duration.ofSeconds(100))
 								.analyticsTimeout(Duration.ofSeconds(100)))
@@ -81,7 +90,7 @@ public class ConnectionFactory {
 				environment = ClusterEnvironment.builder()
 						.compressionConfig(CompressionConfig.create().enable(true))
 						.timeoutConfig(TimeoutConfig
-								.kvTimeout(Duration.ofSeconds(60))
+								.kvTimeout(kvTimeout)
 								.queryTimeout(Duration.ofSeconds(100))
 								.searchTimeout(Duration.ofSeconds(100))
 								.analyticsTimeout(Duration.ofSeconds(100)))
@@ -134,6 +143,20 @@ public class ConnectionFactory {
 		return bucket;
 	}
 
+	/**
+	 * Bucket of another workload on the same cluster connection.
+	 */
+	public Bucket getBucket(String bucketName) {
+		return bucketName.equals(bucket.name()) ? bucket : connectBucket(cluster, bucketName);
+	}
+
+	/**
+	 * Collection of another workload on the same cluster connection.
+	 */
+	public Collection getCollection(String bucketName, String scopeName, String collectionName) {
+		return connectCollection(getBucket(bucketName), scopeName, collectionName);
+	}
+
 	public Cluster getCluster() {
 		return cluster;
 	}
@@ -1,30 +1,45 @@
 package com.couchbase.javaclient;
 
+import java.io.File;
+import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import com.couchbase.client.java.Bucket;
 import com.couchbase.client.java.Cluster;
 import com.couchbase.client.java.Collection;
+import com.couchbase.javaclient.coordinator.WorkerLink;
+import com.couchbase.javaclient.doc.Binary;
+import com.couchbase.javaclient.doc.DocGenerator;
 import com.couchbase.javaclient.doc.DocSpec;
 import com.couchbase.javaclient.doc.DocSpecBuilder;
+import com.couchbase.javaclient.doc.HierarchicalVector;
 import com.couchbase.javaclient.reactive.DocCreate;
 import com.couchbase.javaclient.reactive.DocDelete;
+import com.couchbase.javaclient.reactive.DocMixedLoad;
 import com.couchbase.javaclient.reactive.DocRetrieve;
+import com.couchbase.javaclient.reactive.DocTimeline;
 import com.couchbase.javaclient.reactive.DocUpdate;
 
 import com.couchbase.javaclient.utils.FileUtils;
+import com.couchbase.javaclient.utils.StatsListener;
 import net.sourceforge.argparse4j.ArgumentParsers;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import net.sourceforge.argparse4j.inf.Namespace;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
-import reactor.util.annotation.Nullable;
 
 public class DocOperations {
 
@@ -42,6 +57,8 @@ public class DocOperations {
 		parser.addArgument("-b", "--bucket").setDefault("default").help("Name of existing Couchbase bucket");
 		parser.addArgument("-s", "--scope").setDefault("_default").help("Name of existing scope");
 		parser.addArgument("-c", "--collection").setDefault("default").help("Name of existing collection");
+		parser.addArgument("-kt", "--kv_timeout").type(Integer.class).setDefault(60000)
+				.help("KV operation timeout in milliseconds");
 
 		// Operation params
 		parser.addArgument("-n", "--num_ops").type(Integer.class).setDefault(1000).help("Number of operations");
@@ -53,18 +70,70 @@ public class DocOperations {
 				.help("Percentage of deletes out of num_ops");
 		parser.addArgument("-pr", "--percent_read").type(Integer.class).setDefault(0)
 				.help("Percentage of reads out of num_ops");
-		parser.addArgument("-l", "--load_pattern").choices("uniform", "sparse", "dense").setDefault("uniform")
-				.help("uniform, sparse, dense");
+		parser.addArgument("-mx", "--mixed").type(Boolean.class).setDefault(Boolean.FALSE)
+				.help("if true, interleave creates, reads, updates and deletes per op according to the percentages");
+		parser.addArgument("-ed", "--existing_docs").type(Integer.class).setDefault(0)
+				.help("Number of docs already loaded from start_seq_num, targeted by mixed reads, updates and deletes");
+		parser.addArgument("-iw", "--inflight_window").type(Integer.class).setDefault(128)
+				.help("Max number of in-flight operations of a mixed load");
+		parser.addArgument("-ad", "--adaptive").type(Boolean.class).setDefault(Boolean.FALSE)
+				.help("if true, adapt the in-flight ops between 1 and inflight_window: grow while latency is under "
+						+ "latency_target, halve on timeouts and temporary failures");
+		parser.addArgument("-lt", "--latency_target").type(Integer.class).setDefault(20)
+				.help("Latency target in milliseconds of --adaptive");
+		parser.addArgument("-mr", "--max_retries").type(Integer.class).setDefault(5)
+				.help("Retries of an op failing with a temporary failure, timeout or locked doc");
+		parser.addArgument("-rb", "--retry_backoff").type(Integer.class).setDefault(10)
+				.help("Milliseconds before the first retry, doubling with jitter on every retry");
+		parser.addArgument("-car", "--cas_retries").type(Integer.class).setDefault(10)
+				.help("Times an update that lost a CAS race to another writer reads the doc again before it fails");
+		parser.addArgument("-dl", "--dead_letter_file").setDefault("")
+				.help("Append the ops that failed after all retries to this file");
+		parser.addArgument("-ops", "--ops_per_sec").type(Integer.class).setDefault(0)
+				.help("Target ops/sec of an open-loop mixed load, latency is measured from the intended send time");
+		parser.addArgument("-cr", "--create_rate").type(Integer.class).setDefault(0)
+				.help("Target creates/sec, open loop");
+		parser.addArgument("-rr", "--read_rate").type(Integer.class).setDefault(0).help("Target reads/sec, open loop");
+		parser.addArgument("-ur", "--update_rate").type(Integer.class).setDefault(0)
+				.help("Target updates/sec, open loop");
+		parser.addArgument("-dr", "--delete_rate").type(Integer.class).setDefault(0)
+				.help("Target deletes/sec, open loop");
+		parser.addArgument("-l", "--load_pattern")
+				.choices("uniform", "sparse", "dense", "random", "zipfian", "hotspot", "latest", "sequential")
+				.setDefault("uniform")
+				.help("Key access distribution of reads and updates: uniform, sparse, dense (every key once), "
+						+ "random (uniform with replacement), zipfian (scrambled), hotspot, latest, sequential");
+		parser.addArgument("-hs", "--hot_set_fraction").type(Double.class).setDefault(0.2)
+				.help("Fraction of keys that are hot with --load_pattern hotspot");
+		parser.addArgument("-ho", "--hot_op_fraction").type(Double.class).setDefault(0.8)
+				.help("Fraction of ops that go to the hot keys with --load_pattern hotspot");
+		parser.addArgument("-eng", "--engine").choices("reactive", "platform", "virtual").setDefault("reactive")
+				.help("Execution backend: reactive API on a bounded elastic scheduler, blocking API on a fixed pool of "
+						+ "num_threads platform threads, or blocking API on a virtual thread per op (Java 21+)");
 		parser.addArgument("-nt", "--num_threads").type(Integer.class).setDefault(4)
 				.help("Max number of threads per operation type");
 		parser.addArgument("-sd", "--shuffle_docs").type(Boolean.class).setDefault(Boolean.FALSE)
 				.help("if true, shuffle docs, else operate sequentially");
+		parser.addArgument("-ss", "--shuffle_seed").type(Long.class).setDefault(1L)
+				.help("Seed of the shuffled doc order, same seed gives the same order");
 		parser.addArgument("-ac", "--all_collections").type(Boolean.class).setDefault(Boolean.FALSE)
 				.help("if true, all collections will be exercised");
 		parser.addArgument("-lf", "--loop_forever").type(Boolean.class).setDefault(Boolean.FALSE)
-				.help("if true, loop forever");
+				.help("if true, loop forever. Deprecated, use --duration for soaks");
 		parser.addArgument("-li", "--loop_interval").type(Integer.class).setDefault(30)
 				.help("Sleep interval between loops in seconds");
+		parser.addArgument("-du", "--duration").type(Integer.class).setDefault(0)
+				.help("Keep a constant mixed load for this many seconds instead of num_ops");
+		parser.addArgument("-rp", "--ramp").type(Integer.class).setDefault(0)
+				.help("Seconds to move an open-loop rate linearly from the previous phase's rate, 0 at the start of "
+						+ "a run, to the target rate");
+		parser.addArgument("-ri", "--report_interval").type(Integer.class).setDefault(10)
+				.help("Seconds between interval stats of a mixed load, 0 to disable");
+		parser.addArgument("-co", "--coordinator").setDefault("")
+				.help("host:port of a Coordinator to take the shard, start time and report interval from, "
+						+ "and to send the stats to. Implies a mixed load");
+		parser.addArgument("-wp", "--workload_profile").setDefault("")
+				.help("JSON file of named workloads to run concurrently over one connection, see README");
 
 		// Doc params
 		parser.addArgument("-txn", "--useTransactions").type(Boolean.class).setDefault(Boolean.FALSE)
@@ -74,12 +143,50 @@ public class DocOperations {
 		parser.addArgument("-dpx", "--prefix").setDefault("doc_").help("Doc id prefix");
 		parser.addArgument("-dsx", "--suffix").setDefault("").help("Doc id suffix");
 		parser.addArgument("-dt", "--template").setDefault("Person").help("JSON document template");
+		parser.addArgument("-tf", "--template_file").setDefault("")
+				.help("Comma separated schema files of doc templates, usable by name with --template");
+		parser.addArgument("-dp", "--doc_pool_size").type(Integer.class).setDefault(0)
+				.help("Pre-generate this many bodies per template and reuse them for creates, 0 to generate every doc");
+		parser.addArgument("-dpf", "--doc_pool_fields").setDefault("")
+				.help("Comma separated extra fields set on every pooled doc as name:id|counter|time, the template's own "
+						+ "id fields are always set");
+		parser.addArgument("-rj", "--raw_json").type(Boolean.class).setDefault(Boolean.FALSE)
+				.help("Stream created docs straight to JSON bytes and store them as is, skipping the JsonObject tree");
+		parser.addArgument("-rs", "--run_seed").type(Long.class).setDefault(0L)
+				.help("Generate every doc from this seed, its id and mutation version so it can be rebuilt, 0 for random docs");
+		parser.addArgument("-vd", "--vector_dimension").type(Integer.class)
+				.setDefault(HierarchicalVector.DEFAULT_DIMENSION).help("Dimension of the HierarchicalVector vectors");
+		parser.addArgument("-vc", "--vectors_per_doc").type(Integer.class)
+				.setDefault(HierarchicalVector.DEFAULT_VECTORS_PER_DOC).help("Vectors per HierarchicalVector doc");
+		parser.addArgument("-vn", "--vector_nesting").type(Integer.class).setDefault(1)
+				.help("Array levels around the teams holding HierarchicalVector vectors, 1 for a plain array");
+		parser.addArgument("-ve", "--vector_encoding").choices("array", "base64").setDefault("array")
+				.help("HierarchicalVector vectors as JSON number arrays or base64 of little-endian float32");
+		parser.addArgument("-bmin", "--binary_min_size").type(Integer.class).setDefault(100)
+				.help("Smallest Binary payload in bytes");
+		parser.addArgument("-bmax", "--binary_max_size").type(Integer.class).setDefault(0)
+				.help("Largest Binary payload in bytes, 0 for the doc size");
+		parser.addArgument("-bf", "--binary_fill").choices(Binary.FILL_TEXT, Binary.FILL_RANDOM).setDefault("")
+				.help("Binary payloads of lowercase letters and digits or incompressible random bytes, "
+						+ Binary.FILL_TEXT + " when not set. Ignored with --compression_ratio, whose filler is used instead");
+		parser.addArgument("-bpm", "--binary_pool_mb").type(Integer.class).setDefault(64)
+				.help("Memory of the pre-cut Binary payloads shared by all ops, the more memory the more distinct payloads");
+		parser.addArgument("-cmr", "--compression_ratio").type(Double.class).setDefault(0.0)
+				.help("Snappy compression ratio to make Person, Hierarchical and Binary docs for, 0 for their natural ratio");
 		parser.addArgument("-de", "--expiry").type(Integer.class).setDefault(0).help("Document expiry in seconds");
 		parser.addArgument("-ds", "--size").type(Integer.class).setDefault(500).help("Document size in bytes");
 		parser.addArgument("-st", "--start").type(Integer.class).setDefault(0).help("Starting documents operations index");
 		parser.addArgument("-en", "--end").type(Integer.class).setDefault(0).help("Ending documents operations index");
+		parser.addArgument("-ns", "--num_shards").type(Integer.class).setDefault(1)
+				.help("Split the key space into this many disjoint shards, one per loader process");
+		parser.addArgument("-si", "--shard_index").type(Integer.class).setDefault(0)
+				.help("Shard of the key space this process works on, 0 to num_shards - 1");
 		parser.addArgument("-fu", "--fields_to_update").type(String.class).setDefault("")
 				.help("Comma separated list of fields to update.");
+		parser.addArgument("-um", "--update_mode").choices(DocGenerator.UPDATE_FULL, DocGenerator.UPDATE_SUBDOC)
+				.setDefault(DocGenerator.UPDATE_FULL)
+				.help("full reads each doc and writes it back whole, subdoc sends only the changed fields with "
+						+ "sub-document mutations, without the read");
 		parser.addArgument("-ln", "--language").type(String.class).setDefault("en").help("Locale for wiki datased");
 		parser.addArgument("-es", "--elastic_sync").type(Boolean.class).setDefault(Boolean.FALSE)
 				.help("If true, then syncronize cb data with elastic bucket");
@@ -102,14 +209,14 @@ public class DocOperations {
 
 		try {
 			Namespace ns = parser.parseArgs(args);
-			run(ns);
+			run(parser, args, ns);
 		} catch (ArgumentParserException e) {
 			log.error(e);
 			parser.handleError(e);
 		}
 	}
 
-	private static void run(Namespace ns) {
+	private static void run(ArgumentParser parser, String[] args, Namespace ns) {
 		String logLevel = ns.getString("log_level");
 		Logger.getRootLogger().setLevel(Level.toLevel(logLevel, Level.INFO));
 		
@@ -121,36 +228,40 @@ public class DocOperations {
 		String scopeName = ns.getString("scope");
 		String collectionName = ns.getString("collection");
 
-		String fieldsToUpdateStr = ns.getString("fields_to_update");
-		String lang = ns.getString("language");
-		String docTemplate = ns.getString("template");
-		String preparedDataFile = FileUtils.getDataFilePrepared(docTemplate, lang);
-		List<String> fieldsToUpdate = Arrays.asList(fieldsToUpdateStr.split(","));
 		boolean capella =  ns.getBoolean("capella");
 		log.info("Capella:"+capella);
 		ConnectionFactory connection = new ConnectionFactory(clusterName, username, password, secureConnection, capella, bucketName, scopeName,
-				collectionName, Level.toLevel(logLevel, Level.INFO));
+				collectionName, Level.toLevel(logLevel, Level.INFO), Duration.ofMillis(ns.getInt("kv_timeout")));
 		Cluster cluster = connection.getCluster();
 		Bucket bucket = connection.getBucket();
 		Collection collection = connection.getCollection();
 
-		DocSpec dSpec = new DocSpecBuilder().numOps(ns.getInt("num_ops")).percentCreate(ns.getInt("percent_create"))
-				.percentUpdate(ns.getInt("percent_update")).percentDelete(ns.getInt("percent_delete"))
-				.startSeqNum(ns.getInt("start_seq_num")).prefix(ns.getString("prefix")).suffix(ns.getString("suffix")).template(ns.getString("template"))
-				.expiry(ns.getInt("expiry")).size(ns.getInt("size")).start(ns.getInt("start")).end(ns.getInt("end"))
-				.dataFile(preparedDataFile).shuffleDocs(ns.getBoolean("shuffle_docs"))
-				.setElasticSync(ns.getBoolean("elastic_sync")).setElasticIP(ns.getString("elastic_host"))
-				.setElasticPort(ns.getString("elastic_port")).setElasticIndex(ns.getString("elastic_index"))
-				.setElasticLogin(ns.getString("elastic_login"))
-				.setElasticPassword(ns.getString("elastic_password")).setOutput(ns.getBoolean("output"), logLevel)
-				.fieldsToUpdate(fieldsToUpdate)
-				.setUseTransactions(ns.getBoolean("useTransactions")).buildDocSpec();
+		if (!ns.getString("workload_profile").isEmpty()) {
+			boolean ok = runProfile(parser, args, ns, connection);
+			connection.close();
+			System.exit(ok ? 0 : 1);
+		}
 
-		if (ns.getBoolean("loop_forever")) {
-			log.info("Loop forever");
+		DocSpec dSpec = buildDocSpec(ns, "");
+
+		WorkerLink coordinator = null;
+		if (!ns.getString("coordinator").isEmpty()) {
+			try {
+				coordinator = WorkerLink.connect(ns.getString("coordinator"));
+				coordinator.awaitStart(dSpec);
+			} catch (Exception e) {
+				log.error("Could not join coordinator " + ns.getString("coordinator"), e);
+				connection.close();
+				System.exit(1);
+			}
+		}
+
+		if (ns.getBoolean("loop_forever") && dSpec.get_duration() <= 0) {
+			log.warn("Loop forever is deprecated, use --duration for a constant load without gaps");
 			while (true) {
 				try {
-					spawnTasks(dSpec, ns.getBoolean("all_collections"),cluster, bucket, collection, ns.getInt("num_threads"));
+					spawnTasks(dSpec, ns.getBoolean("all_collections"), ns.getBoolean("mixed"), cluster, bucket,
+							collection, ns.getInt("num_threads"), coordinator);
 					TimeUnit.SECONDS.sleep(ns.getInt("loop_interval"));
 				} catch (Exception e) {
 					log.error(e);
@@ -158,19 +269,146 @@ public class DocOperations {
 			}
 		} else {
 			try {
-				spawnTasks(dSpec, ns.getBoolean("all_collections"), cluster,bucket, collection, ns.getInt("num_threads"));
+				spawnTasks(dSpec, ns.getBoolean("all_collections"), ns.getBoolean("mixed"), cluster, bucket, collection,
+						ns.getInt("num_threads"), coordinator);
 			} catch (Exception e) {
 				log.error(e);
 				connection.close();
 				System.exit(1);
 			}
 		}
+		if (coordinator != null) {
+			try {
+				coordinator.close();
+			} catch (Exception e) {
+				log.warn("Could not close coordinator connection", e);
+			}
+		}
 		connection.close();
 		System.exit(0);
 	}
 
-	private static void spawnTasks(DocSpec dSpec, Boolean all_collections, Cluster cluster,
-								   Bucket bucket, Collection collection, int nThreads) {
+	private static DocSpec buildDocSpec(Namespace ns, String workload) {
+		String logLevel = ns.getString("log_level");
+		String fieldsToUpdateStr = ns.getString("fields_to_update");
+		String lang = ns.getString("language");
+		String docTemplate = ns.getString("template");
+		String preparedDataFile = FileUtils.getDataFilePrepared(docTemplate, lang);
+		List<String> fieldsToUpdate = Arrays.asList(fieldsToUpdateStr.split(","));
+		String binaryFill = ns.getString("binary_fill");
+		if (!binaryFill.isEmpty() && ns.getDouble("compression_ratio") > 0) {
+			log.warn("--binary_fill " + binaryFill + " is ignored with --compression_ratio, Binary payloads are filler made for the ratio");
+		}
+		return new DocSpecBuilder().workload(workload).numOps(ns.getInt("num_ops"))
+				.percentCreate(ns.getInt("percent_create"))
+				.percentUpdate(ns.getInt("percent_update")).percentDelete(ns.getInt("percent_delete"))
+				.percentRead(ns.getInt("percent_read")).existingDocs(ns.getInt("existing_docs"))
+				.inflightWindow(ns.getInt("inflight_window"))
+				.adaptive(ns.getBoolean("adaptive"), ns.getInt("latency_target"))
+				.retries(ns.getInt("max_retries"), ns.getInt("retry_backoff")).casRetries(ns.getInt("cas_retries"))
+				.deadLetterFile(ns.getString("dead_letter_file")).opsPerSec(ns.getInt("ops_per_sec"))
+				.opRates(ns.getInt("create_rate"), ns.getInt("read_rate"), ns.getInt("update_rate"),
+						ns.getInt("delete_rate"))
+				.duration(ns.getInt("duration")).reportInterval(ns.getInt("report_interval"))
+				.ramp(ns.getInt("ramp")).loadPattern(ns.getString("load_pattern"))
+				.hotspot(ns.getDouble("hot_set_fraction"), ns.getDouble("hot_op_fraction"))
+				.startSeqNum(ns.getInt("start_seq_num")).prefix(ns.getString("prefix")).suffix(ns.getString("suffix")).template(ns.getString("template"))
+				.templateFile(ns.getString("template_file"))
+				.docPool(ns.getInt("doc_pool_size"), ns.getString("doc_pool_fields")).rawJson(ns.getBoolean("raw_json")).runSeed(ns.getLong("run_seed"))
+				.vectors(ns.getInt("vector_dimension"), ns.getInt("vectors_per_doc"), ns.getInt("vector_nesting"),
+						ns.getString("vector_encoding"))
+				.binary(ns.getInt("binary_min_size"), ns.getInt("binary_max_size"),
+						binaryFill.isEmpty() ? Binary.FILL_TEXT : binaryFill,
+						ns.getInt("binary_pool_mb"))
+				.compressionRatio(ns.getDouble("compression_ratio"))
+				.expiry(ns.getInt("expiry")).size(ns.getInt("size")).start(ns.getInt("start")).end(ns.getInt("end"))
+				.shard(ns.getInt("shard_index"), ns.getInt("num_shards")).engine(ns.getString("engine"))
+				.dataFile(preparedDataFile).shuffleDocs(ns.getBoolean("shuffle_docs"))
+				.shuffleSeed(ns.getLong("shuffle_seed"))
+				.setElasticSync(ns.getBoolean("elastic_sync")).setElasticIP(ns.getString("elastic_host"))
+				.setElasticPort(ns.getString("elastic_port")).setElasticIndex(ns.getString("elastic_index"))
+				.setElasticLogin(ns.getString("elastic_login"))
+				.setElasticPassword(ns.getString("elastic_password")).setOutput(ns.getBoolean("output"), logLevel)
+				.fieldsToUpdate(fieldsToUpdate).updateMode(ns.getString("update_mode"))
+				.setUseTransactions(ns.getBoolean("useTransactions")).buildDocSpec();
+	}
+
+	/**
+	 * Runs every workload of the profile concurrently over the one connection.
+	 *
+	 * @return true if all workloads completed
+	 */
+	private static boolean runProfile(ArgumentParser parser, String[] args, Namespace ns, ConnectionFactory connection) {
+		if (!ns.getString("coordinator").isEmpty()) {
+			log.error("--coordinator can not be combined with --workload_profile");
+			return false;
+		}
+		List<Workload> workloads;
+		try {
+			workloads = Workload.fromProfile(new File(ns.getString("workload_profile")), parser, args);
+		} catch (ArgumentParserException | IOException | IllegalArgumentException e) {
+			log.error("Invalid workload profile " + ns.getString("workload_profile") + ": " + e.getMessage());
+			return false;
+		}
+		if (ns.getBoolean("loop_forever")) {
+			log.warn("Loop forever is ignored with a workload profile, use duration");
+		}
+		Cluster cluster = connection.getCluster();
+		ExecutorService pool = Executors.newFixedThreadPool(workloads.size());
+		Map<String, Future<?>> running = new LinkedHashMap<>();
+		for (Workload workload : workloads) {
+			Namespace wns = workload.ns();
+			DocSpec dSpec = buildDocSpec(wns, workload.name());
+			Bucket bucket = connection.getBucket(wns.getString("bucket"));
+			Collection collection = connection.getCollection(wns.getString("bucket"), wns.getString("scope"),
+					wns.getString("collection"));
+			log.info("Workload " + workload.name() + " on " + collection.bucketName() + "." + collection.scopeName()
+					+ "." + collection.name());
+			if (workload.phases().isEmpty()) {
+				running.put(workload.name(), pool.submit(() -> spawnTasks(dSpec, wns.getBoolean("all_collections"),
+						wns.getBoolean("mixed"), cluster, bucket, collection, wns.getInt("num_threads"), null)));
+				continue;
+			}
+			List<DocSpec> phases = new ArrayList<>();
+			for (Workload phase : workload.phases()) {
+				phases.add(buildDocSpec(phase.ns(), workload.name() + "/" + phase.name()));
+			}
+			DocTimeline timeline = wns.getBoolean("all_collections")
+					? new DocTimeline(workload.name(), phases, cluster, bucket, wns.getInt("num_threads"))
+					: new DocTimeline(workload.name(), phases, cluster, collection, wns.getInt("num_threads"));
+			running.put(workload.name(), pool.submit(timeline));
+		}
+		pool.shutdown();
+		boolean ok = true;
+		for (Map.Entry<String, Future<?>> workload : running.entrySet()) {
+			try {
+				workload.getValue().get();
+				log.info("Workload " + workload.getKey() + " done");
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} catch (ExecutionException e) {
+				log.error("Workload " + workload.getKey() + " failed", e.getCause());
+				ok = false;
+			}
+		}
+		return ok;
+	}
+
+	private static void spawnTasks(DocSpec dSpec, Boolean all_collections, Boolean mixed, Cluster cluster,
+								   Bucket bucket, Collection collection, int nThreads, StatsListener listener) {
+		// Rate targeted, duration based and coordinated loads always go through the mixed load scheduler
+		if (mixed || dSpec.isRateTargeted() || dSpec.get_duration() > 0 || listener != null) {
+			ForkJoinPool pool = new ForkJoinPool();
+			DocMixedLoad load = all_collections
+					? new DocMixedLoad(dSpec, cluster, bucket, nThreads)
+					: new DocMixedLoad(dSpec, cluster, collection, nThreads);
+			ForkJoinTask<String> mixedLoad = ForkJoinTask.adapt(load.setStatsListener(listener));
+			log.info("Invoke mixed load");
+			pool.invoke(mixedLoad);
+			pool.shutdownNow();
+			return;
+		}
 		ForkJoinTask<String> create = null;
 		ForkJoinTask<String> update = null;
 		ForkJoinTask<String> delete = null;
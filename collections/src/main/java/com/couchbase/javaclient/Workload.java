@@ -0,0 +1,154 @@
+package com.couchbase.javaclient;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+/**
+ * One named workload of a workload profile file. A profile is a JSON file such as
+ *
+ * <pre>
+ * {
+ *   "defaults": { "duration": 600, "report_interval": 10 },
+ *   "workloads": [
+ *     { "name": "users", "collection": "users", "template": "Person", "ops_per_sec": 5000,
+ *       "percent_read": 80, "percent_update": 20, "existing_docs": 100000 },
+ *     { "name": "orders", "scope": "shop", "collection": "orders", "template": "Hierarchical",
+ *       "percent_create": 100, "inflight_window": 256 },
+ *     { "name": "daily", "collection": "events", "percent_read": 70, "percent_create": 30,
+ *       "phases": [
+ *         { "name": "warmup", "duration": 60, "ops_per_sec": 1000 },
+ *         { "name": "spike", "duration": 300, "ops_per_sec": 20000, "ramp": 30, "load_pattern": "hotspot" },
+ *         { "name": "cooldown", "duration": 120, "ops_per_sec": 500, "ramp": 60 }
+ *       ] }
+ *   ]
+ * }
+ * </pre>
+ *
+ * Keys are the long command line option names. Each workload is parsed like a command line made of the
+ * process arguments, then the defaults, then its own keys, so later values win. The connection is shared
+ * by all workloads and can only be given on the command line.
+ *
+ * A workload with phases runs them one after the other, each phase adding its own keys on top of the
+ * workload's. The target collection and threads belong to the workload and can't change per phase.
+ */
+public class Workload {
+
+	private static final Set<String> SHARED = new HashSet<>(Arrays.asList("cluster", "username", "password",
+			"secure", "capella", "kv_timeout", "log_level", "coordinator", "workload_profile", "loop_forever",
+			"loop_interval"));
+	private static final Set<String> PER_WORKLOAD = new HashSet<>(Arrays.asList("bucket", "scope", "collection",
+			"all_collections", "num_threads", "engine", "phases"));
+
+	private final String name;
+	private final Namespace ns;
+	private final List<Workload> phases;
+
+	Workload(String name, Namespace ns, List<Workload> phases) {
+		this.name = name;
+		this.ns = ns;
+		this.phases = phases;
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public Namespace ns() {
+		return ns;
+	}
+
+	/**
+	 * @return the phases to run in order, empty for a single phase workload
+	 */
+	public List<Workload> phases() {
+		return phases;
+	}
+
+	public static List<Workload> fromProfile(File profile, ArgumentParser parser, String[] args)
+			throws IOException, ArgumentParserException {
+		JsonNode root = new ObjectMapper().readTree(profile);
+		JsonNode workloads = root == null ? null : root.get("workloads");
+		if (workloads == null || !workloads.isArray() || workloads.size() == 0) {
+			throw new IllegalArgumentException("No workloads in " + profile);
+		}
+		List<String> defaults = toArgs(root.get("defaults"), "defaults");
+		List<Workload> result = new ArrayList<>();
+		Set<String> names = new HashSet<>();
+		for (JsonNode workload : workloads) {
+			String name = workload.has("name") ? workload.get("name").asText() : "workload-" + result.size();
+			if (!names.add(name)) {
+				throw new IllegalArgumentException("Duplicate workload name " + name + " in " + profile);
+			}
+			List<String> workloadArgs = new ArrayList<>(Arrays.asList(args));
+			workloadArgs.addAll(defaults);
+			workloadArgs.addAll(toArgs(workload, name));
+			List<Workload> phases = new ArrayList<>();
+			JsonNode phaseNodes = workload.get("phases");
+			if (phaseNodes != null) {
+				if (!phaseNodes.isArray() || phaseNodes.size() == 0) {
+					throw new IllegalArgumentException("phases of " + name + " must be a non empty list");
+				}
+				for (JsonNode phase : phaseNodes) {
+					String phaseName = phase.has("name") ? phase.get("name").asText() : "phase-" + phases.size();
+					phase.fieldNames().forEachRemaining(key -> {
+						if (PER_WORKLOAD.contains(key)) {
+							throw new IllegalArgumentException(key + " of " + name + "/" + phaseName
+									+ " can only be set for the whole workload");
+						}
+					});
+					List<String> phaseArgs = new ArrayList<>(workloadArgs);
+					phaseArgs.addAll(toArgs(phase, name + "/" + phaseName));
+					phases.add(new Workload(phaseName, parser.parseArgs(phaseArgs.toArray(new String[0])),
+							new ArrayList<>()));
+				}
+			}
+			result.add(new Workload(name, parser.parseArgs(workloadArgs.toArray(new String[0])), phases));
+		}
+		return result;
+	}
+
+	private static List<String> toArgs(JsonNode options, String name) {
+		List<String> args = new ArrayList<>();
+		if (options == null) {
+			return args;
+		}
+		Iterator<Map.Entry<String, JsonNode>> fields = options.fields();
+		while (fields.hasNext()) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			String key = field.getKey();
+			JsonNode value = field.getValue();
+			if ("name".equals(key) || "phases".equals(key)) {
+				continue;
+			}
+			if (SHARED.contains(key)) {
+				throw new IllegalArgumentException(
+						key + " of " + name + " is shared by all workloads, give it on the command line");
+			}
+			args.add("--" + key);
+			if (value.isArray()) {
+				// fields_to_update
+				List<String> items = new ArrayList<>();
+				value.forEach(item -> items.add(item.asText()));
+				args.add(String.join(",", items));
+			} else if (value.isValueNode()) {
+				args.add(value.asText());
+			} else {
+				throw new IllegalArgumentException("Unsupported value of " + key + " in " + name + ": " + value);
+			}
+		}
+		return args;
+	}
+}
@@ -0,0 +1,214 @@
+package com.couchbase.javaclient.coordinator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.couchbase.javaclient.utils.StatsSnapshot;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+import org.apache.log4j.Logger;
+
+/**
+ * Drives one workload from many DocOperations processes started with
+ * --coordinator host:port.
+ *
+ * Waits for --num_workers workers to connect, gives each a disjoint shard of
+ * the key space and one shared start time, then merges the interval and final
+ * stats they send back into a single report.
+ *
+ * Protocol, one line of text per message:
+ * <pre>
+ * worker      -> coordinator  HELLO name
+ * coordinator -> worker       ASSIGN shardIndex numShards startAtEpochMillis reportIntervalSeconds
+ * worker      -> coordinator  INTERVAL index stats
+ * worker      -> coordinator  TOTAL stats
+ * </pre>
+ * where stats is a {@link StatsSnapshot#encode()} line.
+ */
+public class Coordinator {
+
+	private final static Logger log = Logger.getLogger(Coordinator.class);
+
+	static final String HELLO = "HELLO";
+	static final String ASSIGN = "ASSIGN";
+	static final String INTERVAL = "INTERVAL";
+	static final String TOTAL = "TOTAL";
+
+	private final int numWorkers;
+	private final int startDelay;
+	private final int reportInterval;
+	// Interval index to the stats merged so far, guarded by this
+	private final Map<Long, Merged> intervals = new TreeMap<>();
+	private final Merged total = new Merged();
+	// Per worker, the last interval it reported, or Long.MAX_VALUE once it is gone
+	private final long[] reported;
+
+	public Coordinator(int _numWorkers, int _startDelay, int _reportInterval) {
+		numWorkers = _numWorkers;
+		startDelay = _startDelay;
+		reportInterval = _reportInterval;
+		reported = new long[numWorkers];
+		Arrays.fill(reported, -1);
+	}
+
+	public static void main(String[] args) {
+		log.info("Input args: " + Arrays.asList(args));
+		ArgumentParser parser = ArgumentParsers.newFor("Couchbase Java SDK Client Coordinator").build()
+				.defaultHelp(true).description("Coordinates DocOperations workers started with --coordinator");
+		parser.addArgument("-p", "--port").type(Integer.class).setDefault(7070).help("Port to listen on for workers");
+		parser.addArgument("-w", "--num_workers").type(Integer.class).required(true)
+				.help("Number of workers to wait for, each gets one shard of the key space");
+		parser.addArgument("-sd", "--start_delay").type(Integer.class).setDefault(5)
+				.help("Seconds between the last worker joining and the shared start");
+		parser.addArgument("-ri", "--report_interval").type(Integer.class).setDefault(10)
+				.help("Seconds between merged interval stats, 0 to disable");
+		try {
+			Namespace ns = parser.parseArgs(args);
+			Coordinator coordinator = new Coordinator(ns.getInt("num_workers"), ns.getInt("start_delay"),
+					ns.getInt("report_interval"));
+			try (ServerSocket server = new ServerSocket(ns.getInt("port"))) {
+				coordinator.run(server);
+			} catch (IOException | InterruptedException e) {
+				log.error(e);
+				System.exit(1);
+			}
+		} catch (ArgumentParserException e) {
+			log.error(e);
+			parser.handleError(e);
+		}
+	}
+
+	public void run(ServerSocket server) throws IOException, InterruptedException {
+		log.info("Waiting for " + numWorkers + " workers on port " + server.getLocalPort());
+		List<Socket> workers = new ArrayList<>();
+		List<BufferedReader> readers = new ArrayList<>();
+		try {
+			while (workers.size() < numWorkers) {
+				Socket socket = server.accept();
+				BufferedReader in = new BufferedReader(
+						new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				String hello = in.readLine();
+				if (hello == null || !hello.startsWith(HELLO)) {
+					log.warn("Ignoring connection from " + socket.getRemoteSocketAddress() + ": " + hello);
+					socket.close();
+					continue;
+				}
+				workers.add(socket);
+				readers.add(in);
+				log.info("Worker " + (workers.size() - 1) + " joined: " + hello.substring(HELLO.length()).trim()
+						+ " (" + workers.size() + "/" + numWorkers + ")");
+			}
+			long startAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(startDelay);
+			for (int i = 0; i < numWorkers; i++) {
+				PrintWriter out = new PrintWriter(workers.get(i).getOutputStream(), true);
+				out.println(String.join(" ", ASSIGN, Integer.toString(i), Integer.toString(numWorkers),
+						Long.toString(startAt), Integer.toString(reportInterval)));
+			}
+			log.info("Workers start in " + startDelay + " sec");
+
+			ExecutorService listeners = Executors.newFixedThreadPool(numWorkers);
+			for (int i = 0; i < numWorkers; i++) {
+				final int worker = i;
+				final BufferedReader in = readers.get(i);
+				listeners.submit(() -> listen(worker, in));
+			}
+			listeners.shutdown();
+			while (!listeners.awaitTermination(1, TimeUnit.MINUTES)) {
+				log.debug("Waiting for workers to finish");
+			}
+		} finally {
+			for (Socket socket : workers) {
+				socket.close();
+			}
+		}
+		synchronized (this) {
+			if (total.workers > 0) {
+				total.snapshot.report("Cluster (" + total.workers + " workers)", log);
+			}
+		}
+	}
+
+	private void listen(int worker, BufferedReader in) {
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.startsWith(INTERVAL)) {
+					String[] fields = line.split(" ", 3);
+					onInterval(worker, Long.parseLong(fields[1]), StatsSnapshot.decode(fields[2]));
+				} else if (line.startsWith(TOTAL)) {
+					onTotal(StatsSnapshot.decode(line.substring(TOTAL.length())));
+				} else {
+					log.warn("Worker " + worker + " sent unknown message: " + line);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			log.error("Worker " + worker + " failed", e);
+		} finally {
+			log.info("Worker " + worker + " finished");
+			onWorkerGone(worker);
+		}
+	}
+
+	private synchronized void onInterval(int worker, long index, StatsSnapshot snapshot) {
+		intervals.computeIfAbsent(index, i -> new Merged()).add(snapshot);
+		reported[worker] = index;
+		flushIntervals();
+	}
+
+	private synchronized void onTotal(StatsSnapshot snapshot) {
+		total.add(snapshot);
+	}
+
+	private synchronized void onWorkerGone(int worker) {
+		reported[worker] = Long.MAX_VALUE;
+		flushIntervals();
+	}
+
+	/**
+	 * Logs, in order, the intervals every running worker has reported. Workers
+	 * that finished early no longer hold an interval back.
+	 */
+	private void flushIntervals() {
+		long complete = Long.MAX_VALUE;
+		for (long index : reported) {
+			complete = Math.min(complete, index);
+		}
+		Iterator<Map.Entry<Long, Merged>> it = intervals.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Long, Merged> entry = it.next();
+			Merged merged = entry.getValue();
+			if (entry.getKey() > complete) {
+				return;
+			}
+			log.info(String.format("Cluster [%ds] %d workers%s", (entry.getKey() + 1) * reportInterval,
+					merged.workers, merged.snapshot.describe()));
+			it.remove();
+		}
+	}
+
+	private static final class Merged {
+		private StatsSnapshot snapshot;
+		private int workers;
+
+		void add(StatsSnapshot other) {
+			snapshot = snapshot == null ? other : snapshot.add(other);
+			workers++;
+		}
+	}
+}
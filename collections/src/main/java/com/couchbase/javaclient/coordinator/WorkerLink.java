@@ -0,0 +1,88 @@
+package com.couchbase.javaclient.coordinator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import com.couchbase.javaclient.doc.DocSpec;
+import com.couchbase.javaclient.utils.StatsListener;
+import com.couchbase.javaclient.utils.StatsSnapshot;
+import org.apache.log4j.Logger;
+
+/**
+ * Worker side of the {@link Coordinator} connection: takes the shard
+ * assignment and start time, then forwards the workload stats.
+ */
+public class WorkerLink implements StatsListener, Closeable {
+
+	private final static Logger log = Logger.getLogger(WorkerLink.class);
+
+	private final Socket socket;
+	private final BufferedReader in;
+	private final PrintWriter out;
+
+	private WorkerLink(Socket _socket) throws IOException {
+		socket = _socket;
+		in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+		out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+	}
+
+	/**
+	 * @param hostPort coordinator address as host:port
+	 */
+	public static WorkerLink connect(String hostPort) throws IOException {
+		int colon = hostPort.lastIndexOf(':');
+		if (colon < 0) {
+			throw new IllegalArgumentException("Coordinator address must be host:port, got " + hostPort);
+		}
+		WorkerLink link = new WorkerLink(
+				new Socket(hostPort.substring(0, colon), Integer.parseInt(hostPort.substring(colon + 1))));
+		link.out.println(Coordinator.HELLO + " " + ManagementFactory.getRuntimeMXBean().getName());
+		log.info("Joined coordinator " + hostPort);
+		return link;
+	}
+
+	/**
+	 * Blocks until every worker has joined, applies the shard and report
+	 * interval given by the coordinator to the DocSpec, then sleeps until the
+	 * shared start time.
+	 */
+	public void awaitStart(DocSpec ds) throws IOException, InterruptedException {
+		String line = in.readLine();
+		if (line == null || !line.startsWith(Coordinator.ASSIGN)) {
+			throw new IOException("Expected assignment from coordinator, got " + line);
+		}
+		String[] fields = line.split(" ");
+		ds.set_shard_index(Integer.parseInt(fields[1]));
+		ds.set_num_shards(Integer.parseInt(fields[2]));
+		long startAt = Long.parseLong(fields[3]);
+		ds.set_report_interval(Integer.parseInt(fields[4]));
+		log.info("Assigned shard " + ds.get_shard_index() + " of " + ds.get_num_shards() + ", starting in "
+				+ Math.max(0, startAt - System.currentTimeMillis()) + " ms");
+		long wait;
+		while ((wait = startAt - System.currentTimeMillis()) > 0) {
+			Thread.sleep(wait);
+		}
+	}
+
+	@Override
+	public synchronized void interval(long index, StatsSnapshot snapshot) {
+		out.println(Coordinator.INTERVAL + " " + index + " " + snapshot.encode());
+	}
+
+	@Override
+	public synchronized void total(StatsSnapshot snapshot) {
+		out.println(Coordinator.TOTAL + " " + snapshot.encode());
+	}
+
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+}
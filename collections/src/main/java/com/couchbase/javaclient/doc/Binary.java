@@ -1,13 +1,128 @@
 package com.couchbase.javaclient.doc;
 
-import com.couchbase.client.java.json.JsonObject;
-import com.github.javafaker.Faker;
-import java.util.List;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
+import com.github.javafaker.service.RandomService;
+
+/**
+ * Payloads of the Binary template.
+ *
+ * One large buffer is filled once, then cut into payloads of lengths drawn from
+ * the size range at random offsets, as many as fit in the pool memory, so a
+ * larger pool gives more distinct payloads. An op
+ * takes a random payload as is: nothing is allocated or copied per op, the
+ * bytes are only read by the SDK. The payloads are shared by every loader of a
+ * spec.
+ *
+ * With a compression ratio the buffer is compressible filler instead, made for
+ * the ratio on payloads of the average size.
+ */
 public class Binary {
-	public static byte[] createBinaryObject(Faker faker, int docsize) {
-		return (faker.lorem().characters(100, docsize)).getBytes(StandardCharsets.UTF_8);
+
+	public static final String FILL_TEXT = "text";
+	public static final String FILL_RANDOM = "random";
+
+	// Buffer the payloads are cut from, at least this or twice the largest payload
+	private static final int MIN_BUFFER_BYTES = 4 * 1024 * 1024;
+	// Array header and reference of a payload, counted in the pool memory
+	private static final int PAYLOAD_OVERHEAD = 24;
+	private static final byte[] TEXT = "abcdefghijklmnopqrstuvwxyz0123456789".getBytes(StandardCharsets.US_ASCII);
+
+	private static final ConcurrentHashMap<String, Binary> pools = new ConcurrentHashMap<>();
+	// Pool of each spec, so an op doesn't build the key of its params
+	private static final ConcurrentHashMap<DocSpec, Binary> specPools = new ConcurrentHashMap<>();
+
+	private final byte[][] payloads;
+
+	/**
+	 * @param fill {@value #FILL_TEXT} for lowercase letters and digits, {@value #FILL_RANDOM} for incompressible bytes
+	 * @param poolBytes memory the payloads may take, at least one payload is cut
+	 * @param seed seed of the contents, offsets and lengths
+	 * @param compression filler made for a compression ratio instead of fill, or null
+	 */
+	public Binary(int minSize, int maxSize, String fill, long poolBytes, long seed, Compression compression) {
+		if (minSize <= 0 || maxSize < minSize) {
+			throw new IllegalArgumentException("Invalid binary size range " + minSize + ".." + maxSize);
+		}
+		SplittableRandom random = new SplittableRandom(seed);
+		int bufferSize = Math.max(MIN_BUFFER_BYTES, 2 * maxSize);
+		byte[] buffer;
+		if (compression != null) {
+			int average = Math.max(Compression.CHUNK, (minSize + maxSize) / 2);
+			compression.calibrate(sample -> compression.filler(new RandomService(new Random(sample)), average)
+					.getBytes(StandardCharsets.US_ASCII), average);
+			buffer = compression.filler(new RandomService(new Random(random.nextLong())), bufferSize)
+					.getBytes(StandardCharsets.US_ASCII);
+		} else {
+			buffer = new byte[bufferSize];
+			fill(buffer, fill, random);
+		}
+
+		long average = ((long) minSize + maxSize) / 2;
+		int count = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, poolBytes / (average + PAYLOAD_OVERHEAD)));
+		payloads = new byte[count][];
+		for (int i = 0; i < count; i++) {
+			int length = minSize + random.nextInt(maxSize - minSize + 1);
+			int offset = random.nextInt(buffer.length - length + 1);
+			payloads[i] = Arrays.copyOfRange(buffer, offset, offset + length);
+			if (compression != null) {
+				compression.record(payloads[i]);
+			}
+		}
+	}
+
+	/**
+	 * A payload for the next op, not to be modified.
+	 */
+	public byte[] next() {
+		return payloads[ThreadLocalRandom.current().nextInt(payloads.length)];
+	}
+
+	public int size() {
+		return payloads.length;
+	}
+
+	/**
+	 * The payload of the next op of the spec, from the pool built for its binary
+	 * params on first use. A run seed makes the pool contents the same every run.
+	 */
+	public static byte[] payload(DocSpec ds) {
+		Binary pool = specPools.get(ds);
+		if (pool == null) {
+			pool = specPools.computeIfAbsent(ds, Binary::of);
+		}
+		return pool.next();
+	}
+
+	private static Binary of(DocSpec ds) {
+		int maxSize = ds.get_binary_max_size() > 0 ? ds.get_binary_max_size() : ds.get_size();
+		int minSize = Math.min(ds.get_binary_min_size(), maxSize);
+		long poolBytes = ds.get_binary_pool_mb() * 1024L * 1024L;
+		String key = minSize + ":" + maxSize + ":" + ds.get_binary_fill() + ":" + poolBytes + ":" + ds.get_run_seed() + ":"
+				+ ds.get_compression_ratio();
+		return pools.computeIfAbsent(key, k -> new Binary(minSize, maxSize, ds.get_binary_fill(), poolBytes,
+				ds.get_run_seed() != 0 ? ds.get_run_seed() : ThreadLocalRandom.current().nextLong(), Compression.of(ds)));
 	}
 
-}
\ No newline at end of file
+	private static void fill(byte[] buffer, String fill, SplittableRandom random) {
+		if (FILL_RANDOM.equals(fill)) {
+			for (int i = 0; i < buffer.length; i += Long.BYTES) {
+				long bits = random.nextLong();
+				for (int b = 0; b < Long.BYTES && i + b < buffer.length; b++, bits >>>= 8) {
+					buffer[i + b] = (byte) bits;
+				}
+			}
+		} else if (FILL_TEXT.equals(fill)) {
+			for (int i = 0; i < buffer.length; i++) {
+				buffer[i] = TEXT[random.nextInt(TEXT.length)];
+			}
+		} else {
+			throw new IllegalArgumentException("Unknown binary fill " + fill);
+		}
+	}
+}
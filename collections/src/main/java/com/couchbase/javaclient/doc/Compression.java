@@ -0,0 +1,245 @@
+package com.couchbase.javaclient.doc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+import com.couchbase.client.core.deps.org.iq80.snappy.Snappy;
+import com.couchbase.client.java.json.JsonObject;
+import com.github.javafaker.service.RandomService;
+import org.apache.log4j.Logger;
+
+/**
+ * Filler of a target snappy compression ratio (--compression_ratio), the
+ * compression the SDK applies to documents on the wire.
+ *
+ * Filler is written in {@value #CHUNK} char chunks, each either random letters
+ * and digits, which snappy can't shrink, or one of a few dictionary phrases,
+ * which it stores as a short back reference once seen. The share of random
+ * chunks is calibrated once per template and size on sample docs, so the
+ * template's own fields count as they compress, and stays fixed for the run:
+ * seeded docs still only depend on the run seed, id and version.
+ *
+ * Created docs are sampled to report the ratio achieved.
+ */
+public class Compression {
+
+	private final static Logger log = Logger.getLogger(Compression.class);
+
+	public static final int CHUNK = 64;
+	// One created doc in this many is compressed to measure the ratio achieved
+	private static final int SAMPLE_EVERY = 16;
+	private static final int CALIBRATION_STEPS = 12;
+	// Bytes of sample docs generated for each calibration step
+	private static final int CALIBRATION_BYTES = 1024 * 1024;
+	// 64 chars, so a random long makes 10 of them
+	private static final char[] RANDOM_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ."
+			.toCharArray();
+	private static final String[] PHRASES = phrases(4);
+
+	private static final Map<String, Compression> targets = new ConcurrentHashMap<>();
+
+	private final String name;
+	private final double target;
+	private volatile double randomShare;
+	private volatile boolean calibrated;
+	private final LongAdder sampledDocs = new LongAdder();
+	private final LongAdder rawBytes = new LongAdder();
+	private final LongAdder compressedBytes = new LongAdder();
+
+	public Compression(String name, double target) {
+		if (target < 1) {
+			throw new IllegalArgumentException("Compression ratio must be at least 1: " + target);
+		}
+		this.name = name;
+		this.target = target;
+	}
+
+	/**
+	 * The compression target of the spec's template and size, shared by its
+	 * loaders, or null without --compression_ratio.
+	 */
+	public static Compression of(DocSpec ds) {
+		if (ds.get_compression_ratio() <= 0) {
+			return null;
+		}
+		return targets.computeIfAbsent(key(ds), k -> new Compression(ds.get_template() + " docs of " + ds.get_size()
+				+ " bytes", ds.get_compression_ratio()));
+	}
+
+	/**
+	 * Logs the ratio achieved by the docs of the spec so far.
+	 */
+	public static void report(DocSpec ds) {
+		Compression compression = ds.get_compression_ratio() > 0 ? targets.get(key(ds)) : null;
+		if (compression != null && compression.sampledDocs.sum() > 0) {
+			log.info(String.format("%s: compression ratio %.2f over %d sampled docs, target %.2f", compression.name,
+					compression.achieved(), compression.sampledDocs.sum(), compression.target));
+		}
+	}
+
+	private static String key(DocSpec ds) {
+		return ds.get_template() + "/" + ds.get_size() + "/" + ds.get_compression_ratio() + "/"
+				+ ds.get_binary_min_size() + "/" + ds.get_binary_max_size();
+	}
+
+	public double target() {
+		return target;
+	}
+
+	/**
+	 * Share of filler chunks that are random, 0 or 1 when the target is out of reach.
+	 */
+	double randomShare() {
+		return randomShare;
+	}
+
+	/**
+	 * Ratio of the sampled docs, raw bytes over snappy compressed bytes.
+	 */
+	public double achieved() {
+		long compressed = compressedBytes.sum();
+		return compressed == 0 ? 0 : (double) rawBytes.sum() / compressed;
+	}
+
+	/**
+	 * Bisects the share of random chunks until the sample docs compress at the
+	 * target ratio. The samples have fixed seeds, so every run and host finds
+	 * the same share. Only the first call calibrates.
+	 *
+	 * @param sample the doc of a seed, generated with the current share
+	 * @param docsize bytes of a sample doc, for how many to generate
+	 */
+	public synchronized void calibrate(LongFunction<byte[]> sample, int docsize) {
+		if (calibrated) {
+			return;
+		}
+		int samples = Math.max(4, Math.min(256, CALIBRATION_BYTES / Math.max(1, docsize)));
+		double most = ratio(sample, samples, 0);
+		double least = ratio(sample, samples, 1);
+		if (target >= most || target <= least) {
+			randomShare = target >= most ? 0 : 1;
+			log.warn(String.format("%s compress at %.2f to %.2f, can't reach %.2f", name, least, most, target));
+		} else {
+			double low = 0;
+			double high = 1;
+			for (int step = 0; step < CALIBRATION_STEPS; step++) {
+				double mid = (low + high) / 2;
+				if (ratio(sample, samples, mid) > target) {
+					low = mid;
+				} else {
+					high = mid;
+				}
+			}
+			randomShare = (low + high) / 2;
+		}
+		log.info(String.format("%s: %.1f%% random filler for compression ratio %.2f (%.2f on %d samples)", name,
+				randomShare * 100, target, ratio(sample, samples, randomShare), samples));
+		calibrated = true;
+	}
+
+	private double ratio(LongFunction<byte[]> sample, int samples, double share) {
+		randomShare = share;
+		long raw = 0;
+		long compressed = 0;
+		for (int seed = 1; seed <= samples; seed++) {
+			byte[] doc = sample.apply(seed);
+			raw += doc.length;
+			compressed += compressedLength(doc);
+		}
+		return (double) raw / compressed;
+	}
+
+	/**
+	 * Filler text of exactly length chars, plain ASCII.
+	 */
+	public String filler(RandomService random, int length) {
+		double share = randomShare;
+		char[] text = new char[length];
+		for (int start = 0; start < length; start += CHUNK) {
+			int end = Math.min(length, start + CHUNK);
+			if (random.nextDouble() < share) {
+				long bits = 0;
+				for (int i = start; i < end; i++) {
+					if ((i - start) % 10 == 0) {
+						bits = random.nextLong();
+					}
+					text[i] = RANDOM_CHARS[(int) (bits & 63)];
+					bits >>>= 6;
+				}
+			} else {
+				PHRASES[random.nextInt(PHRASES.length)].getChars(0, end - start, text, start);
+			}
+		}
+		return new String(text);
+	}
+
+	/**
+	 * count filler chunks of {@value #CHUNK} chars, for templates filling with words.
+	 */
+	public List<String> chunks(RandomService random, int count) {
+		List<String> chunks = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			chunks.add(filler(random, CHUNK));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Counts one created doc in {@value #SAMPLE_EVERY} towards the ratio achieved.
+	 *
+	 * @return doc
+	 */
+	public byte[] sample(byte[] doc) {
+		if (calibrated && ThreadLocalRandom.current().nextInt(SAMPLE_EVERY) == 0) {
+			record(doc);
+		}
+		return doc;
+	}
+
+	/**
+	 * The same for a doc built as a JsonObject, only encoded when sampled.
+	 *
+	 * @return doc
+	 */
+	public JsonObject sample(JsonObject doc) {
+		if (calibrated && ThreadLocalRandom.current().nextInt(SAMPLE_EVERY) == 0) {
+			record(doc.toBytes());
+		}
+		return doc;
+	}
+
+	void record(byte[] doc) {
+		sampledDocs.increment();
+		rawBytes.add(doc.length);
+		compressedBytes.add(compressedLength(doc));
+	}
+
+	public static int compressedLength(byte[] data) {
+		byte[] compressed = new byte[Snappy.maxCompressedLength(data.length)];
+		return Snappy.compress(data, 0, data.length, compressed, 0);
+	}
+
+	// Lorem words joined into fixed phrases of CHUNK chars, the same on every host
+	private static String[] phrases(int count) {
+		String[] words = { "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do",
+				"eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua", "enim", "ad",
+				"minim", "veniam", "quis", "nostrud", "exercitation", "ullamco", "laboris", "nisi", "aliquip", "ex",
+				"ea", "commodo", "consequat" };
+		String[] phrases = new String[count];
+		for (int p = 0; p < count; p++) {
+			SplittableRandom random = new SplittableRandom(p);
+			StringBuilder phrase = new StringBuilder(2 * CHUNK);
+			while (phrase.length() < CHUNK) {
+				phrase.append(words[random.nextInt(words.length)]).append(' ');
+			}
+			phrases[p] = phrase.substring(0, CHUNK);
+		}
+		return phrases;
+	}
+}
@@ -0,0 +1,135 @@
+package com.couchbase.javaclient.doc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.MutateInSpec;
+import com.github.javafaker.Faker;
+import org.apache.log4j.Logger;
+
+/**
+ * Generates the docs written by the loaders.
+ *
+ * With a run seed (--run_seed) a doc is a pure function of (run seed, doc id,
+ * mutation version). A create writes version 0. The k-th update of a doc is
+ * generated with the seed of version k from the doc it reads, and records k in
+ * the doc's {@value #VERSION_FIELD} field. Knowing the run seed and the doc
+ * params, {@link #expected(DocTemplate, DocSpec, int, int)} rebuilds a doc at
+ * any version, on any host, so a load can be verified without storing what was
+ * written.
+ *
+ * Without a run seed docs come from the random state of the Fakers and carry no
+ * version.
+ *
+ * Sub-document updates (--update_mode subdoc) don't read the doc: their changes
+ * are random, only the version is counted on the server.
+ */
+public final class DocGenerator {
+
+	private final static Logger log = Logger.getLogger(DocGenerator.class);
+
+	public static final String VERSION_FIELD = "mutation_version";
+	public static final String UPDATE_FULL = "full";
+	public static final String UPDATE_SUBDOC = "subdoc";
+
+	private DocGenerator() {
+	}
+
+	public static JsonObject create(DocTemplate template, DocSpec ds, int id) {
+		return generate(ds.get_run_seed(), id, 0, f -> template.createJsonObject(f, ds.get_size(), id));
+	}
+
+	/**
+	 * Same doc as {@link #create(DocTemplate, DocSpec, int)} as JSON bytes.
+	 */
+	public static byte[] createBytes(DocTemplate template, DocSpec ds, int id) {
+		return generate(ds.get_run_seed(), id, 0, f -> template.createJsonBytes(f, ds.get_size(), id));
+	}
+
+	/**
+	 * @param current the doc as read, updated in place by most templates
+	 */
+	public static JsonObject update(DocTemplate template, DocSpec ds, int id, JsonObject current) {
+		if (ds.get_run_seed() == 0) {
+			return Fakers.with(f -> template.updateJsonObject(f, current, ds.get_fieldsToUpdate()));
+		}
+		Integer previous = current.getInt(VERSION_FIELD);
+		int version = previous == null ? 1 : previous + 1;
+		JsonObject updated = generate(ds.get_run_seed(), id, version,
+				f -> template.updateJsonObject(f, current, ds.get_fieldsToUpdate()));
+		return updated.put(VERSION_FIELD, version);
+	}
+
+	/**
+	 * Whether updates of the spec go as sub-document mutations: asked for, and
+	 * the template has changes for the fields to update. Logs why not otherwise.
+	 */
+	public static boolean subdocUpdates(DocTemplate template, DocSpec ds) {
+		if (!UPDATE_SUBDOC.equals(ds.get_update_mode())) {
+			return false;
+		}
+		List<MutateInSpec> specs = Fakers.with(f -> template.updateSpecs(f, ds.get_fieldsToUpdate()));
+		if (specs == null || specs.isEmpty()) {
+			log.warn(ds.get_template() + " has no sub-document update of fields " + ds.get_fieldsToUpdate()
+					+ ", updating whole docs");
+			return false;
+		}
+		if (ds.get_run_seed() != 0) {
+			log.warn("Sub-document updates count " + VERSION_FIELD
+					+ " but their changes aren't seeded, updated docs can't be rebuilt with expected()");
+		}
+		return true;
+	}
+
+	/**
+	 * The changes of an update as sub-document mutations, counting the version of a seeded run.
+	 */
+	public static List<MutateInSpec> updateSpecs(DocTemplate template, DocSpec ds) {
+		List<MutateInSpec> specs = Fakers.with(f -> template.updateSpecs(f, ds.get_fieldsToUpdate()));
+		if (ds.get_run_seed() != 0) {
+			specs = new ArrayList<>(specs);
+			specs.add(MutateInSpec.increment(VERSION_FIELD, 1));
+		}
+		return specs;
+	}
+
+	/**
+	 * The doc a seeded run wrote for id at version, as a get returns it.
+	 */
+	public static JsonObject expected(DocTemplate template, DocSpec ds, int id, int version) {
+		if (ds.get_run_seed() == 0) {
+			throw new IllegalArgumentException("Docs can only be rebuilt for a run with a run seed");
+		}
+		JsonObject doc = JsonObject.fromJson(create(template, ds, id).toBytes());
+		for (int v = 1; v <= version; v++) {
+			doc = JsonObject.fromJson(update(template, ds, id, doc).toBytes());
+		}
+		return doc;
+	}
+
+	/**
+	 * Runs generate with a Faker seeded from (runSeed, id, version), or unseeded for a run seed of 0.
+	 */
+	public static <T> T generate(long runSeed, int id, int version, Function<Faker, T> generate) {
+		return runSeed == 0 ? Fakers.with(generate) : Fakers.seeded(seed(runSeed, id, version), generate);
+	}
+
+	/**
+	 * SplitMix64 finalizer over the three inputs, so that close ids and versions
+	 * still give unrelated Random sequences.
+	 */
+	public static long seed(long runSeed, int id, int version) {
+		long z = runSeed;
+		z = mix(z + 0x9E3779B97F4A7C15L * (id + 1L));
+		z = mix(z + 0x9E3779B97F4A7C15L * (version + 1L));
+		return z;
+	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
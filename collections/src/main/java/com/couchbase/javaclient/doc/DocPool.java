@@ -0,0 +1,166 @@
+package com.couchbase.javaclient.doc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.MutateInSpec;
+import com.github.javafaker.Faker;
+import org.apache.log4j.Logger;
+
+/**
+ * Takes Faker out of the hot path: K bodies are generated once at startup, on
+ * all cores, and every create picks body id % K and only rewrites a few cheap
+ * identity fields: the template's own, derived from the doc id (see
+ * DocTemplate.setIdentity), then any extra ones given as name:kind, kind being
+ * <ul>
+ * <li>id: the doc id</li>
+ * <li>counter: a sequence number, one per create</li>
+ * <li>time: the current epoch millis</li>
+ * </ul>
+ * Updates are left to the pooled template. With a run seed body i is generated
+ * from (run seed, i, 0), so docs with only id fields can be rebuilt.
+ */
+public class DocPool implements DocTemplate {
+
+	private final static Logger log = Logger.getLogger(DocPool.class);
+
+	enum Kind {
+		ID, COUNTER, TIME
+	}
+
+	private final DocTemplate template;
+	private final JsonObject[] bodies;
+	private final String[] fields;
+	private final Kind[] kinds;
+	private final AtomicLong counter = new AtomicLong();
+
+	/**
+	 * @param templates new template instance per generating thread, templates and Faker aren't thread safe
+	 * @param identityFields comma separated name:kind
+	 * @param runSeed seed of the bodies, 0 for random bodies
+	 */
+	public DocPool(String name, Supplier<DocTemplate> templates, int size, int docsize, String identityFields,
+			long runSeed) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Doc pool size must be positive: " + size);
+		}
+		List<String> names = new ArrayList<>();
+		List<Kind> fieldKinds = new ArrayList<>();
+		for (String field : identityFields.split(",")) {
+			if (field.trim().isEmpty()) {
+				continue;
+			}
+			String[] parts = field.trim().split(":");
+			if (parts.length != 2) {
+				throw new IllegalArgumentException("Doc pool field must be name:id|counter|time, got " + field);
+			}
+			names.add(parts[0]);
+			fieldKinds.add(Kind.valueOf(parts[1].toUpperCase()));
+		}
+		this.fields = names.toArray(new String[0]);
+		this.kinds = fieldKinds.toArray(new Kind[0]);
+		this.template = templates.get();
+		this.bodies = new JsonObject[size];
+		fill(name, templates, docsize, runSeed);
+	}
+
+	private void fill(String name, Supplier<DocTemplate> templates, int docsize, long runSeed) {
+		int threads = Math.min(bodies.length, Runtime.getRuntime().availableProcessors());
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		AtomicLong generateNanos = new AtomicLong();
+		long start = System.nanoTime();
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				final int first = t;
+				workers.add(pool.submit(() -> {
+					DocTemplate own = templates.get();
+					long begin = System.nanoTime();
+					for (int i = first; i < bodies.length; i += threads) {
+						int body = i;
+						// Deep copy, templates may hand out the same object every time
+						bodies[i] = JsonObject.fromJson(DocGenerator
+								.generate(runSeed, body, 0, f -> own.createJsonObject(f, docsize, body)).toString());
+					}
+					generateNanos.addAndGet(System.nanoTime() - begin);
+				}));
+			}
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("Could not fill the " + name + " doc pool", e);
+		} finally {
+			pool.shutdownNow();
+		}
+		long elapsed = System.nanoTime() - start;
+		double fakerRate = bodies.length / (generateNanos.get() / (double) TimeUnit.SECONDS.toNanos(1));
+		double pooledRate = pooledRate();
+		log.info(String.format("Doc pool of %d %s docs filled in %d ms on %d threads. Per thread: Faker %.0f docs/sec, "
+				+ "pool %.0f docs/sec (%.1fx)", bodies.length, name, TimeUnit.NANOSECONDS.toMillis(elapsed), threads,
+				fakerRate, pooledRate, pooledRate / fakerRate));
+	}
+
+	/**
+	 * Docs/sec of the pooled path on this thread, measured over a short run.
+	 */
+	private double pooledRate() {
+		int n = Math.max(10000, bodies.length);
+		long length = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < n; i++) {
+			length += createJsonObject(null, 0, i).size();
+		}
+		long elapsed = Math.max(1, System.nanoTime() - start);
+		counter.set(0);
+		return length > 0 ? n / (elapsed / (double) TimeUnit.SECONDS.toNanos(1)) : 0;
+	}
+
+	public int size() {
+		return bodies.length;
+	}
+
+	/**
+	 * Shallow copy of a pooled body with the identity fields set, the nested
+	 * values are shared between docs and must not be modified.
+	 */
+	@Override
+	public JsonObject createJsonObject(Faker faker, int docsize, int id) {
+		JsonObject body = bodies[Math.floorMod(id, bodies.length)];
+		JsonObject doc = JsonObject.create(body.size() + fields.length);
+		for (String name : body.getNames()) {
+			doc.put(name, body.get(name));
+		}
+		template.setIdentity(doc, id);
+		for (int i = 0; i < fields.length; i++) {
+			switch (kinds[i]) {
+			case ID:
+				doc.put(fields[i], id);
+				break;
+			case COUNTER:
+				doc.put(fields[i], counter.incrementAndGet());
+				break;
+			default:
+				doc.put(fields[i], System.currentTimeMillis());
+			}
+		}
+		return doc;
+	}
+
+	@Override
+	public JsonObject updateJsonObject(Faker faker, JsonObject obj, List<String> fieldsToUpdate) {
+		return template.updateJsonObject(faker, obj, fieldsToUpdate);
+	}
+
+	@Override
+	public List<MutateInSpec> updateSpecs(Faker faker, List<String> fieldsToUpdate) {
+		return template.updateSpecs(faker, fieldsToUpdate);
+	}
+}
@@ -1,6 +1,5 @@
 package com.couchbase.javaclient.doc;
 
-import com.github.javafaker.Faker;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -9,6 +8,7 @@ public class DocSpec {
 	int _percent_create;
 	int _percent_update;
 	int _percent_delete;
+	int _percent_read;
 	int _startSeqNum;
 	String _prefix;
 	String _suffix;
@@ -29,7 +29,45 @@ public class DocSpec {
 	private String loglevel;
 	List<String> _fieldsToUpdate;
 	private boolean useTransactions;
-	public static Faker faker = new Faker();
+	int _existing_docs;
+	int _inflight_window;
+	int _ops_per_sec;
+	int _create_rate;
+	int _read_rate;
+	int _update_rate;
+	int _delete_rate;
+	int _duration;
+	int _report_interval;
+	String _load_pattern = "uniform";
+	double _hot_set_fraction;
+	double _hot_op_fraction;
+	long _shuffle_seed;
+	int _num_shards = 1;
+	int _shard_index;
+	String _engine = "reactive";
+	boolean _adaptive;
+	int _latency_target;
+	int _max_retries;
+	int _retry_backoff;
+	int _cas_retries;
+	String _dead_letter_file = "";
+	String _workload = "";
+	int _ramp;
+	int _doc_pool_size;
+	String _doc_pool_fields = "";
+	boolean _raw_json;
+	long _run_seed;
+	int _vector_dimension;
+	int _vectors_per_doc;
+	int _vector_nesting;
+	String _vector_encoding = "";
+	int _binary_min_size;
+	int _binary_max_size;
+	String _binary_fill = "";
+	int _binary_pool_mb;
+	double _compression_ratio;
+	String _template_file = "";
+	String _update_mode = "";
 
 	public DocSpec(int _num_ops, int _percent_create, int _percent_update, int _percent_delete, int _startSeqNum,
 			String _prefix, String _suffix, String _template, int _expiry, int _size, int _start,
@@ -77,6 +115,10 @@ public class DocSpec {
 		return _percent_delete;
 	}
 
+	public int get_percent_read() {
+		return _percent_read;
+	}
+
 	public int get_startSeqNum() {
 		return _startSeqNum;
 	}
@@ -139,6 +181,10 @@ public class DocSpec {
 		this._percent_delete = _percent_delete;
 	}
 
+	public void set_percent_read(int _percent_read) {
+		this._percent_read = _percent_read;
+	}
+
 	public void set_startSeqNum(int _startSeqNum) {
 		this._startSeqNum = _startSeqNum;
 	}
@@ -215,6 +261,329 @@ public class DocSpec {
 
 	public boolean getUseTransactions() { return useTransactions; }
 
+	public int get_existing_docs() {
+		return _existing_docs;
+	}
+
+	public void set_existing_docs(int _existing_docs) {
+		this._existing_docs = _existing_docs;
+	}
+
+	public int get_inflight_window() {
+		return _inflight_window;
+	}
+
+	public void set_inflight_window(int _inflight_window) {
+		this._inflight_window = _inflight_window;
+	}
+
+	public int get_ops_per_sec() {
+		return _ops_per_sec;
+	}
+
+	public void set_ops_per_sec(int _ops_per_sec) {
+		this._ops_per_sec = _ops_per_sec;
+	}
+
+	public int get_create_rate() {
+		return _create_rate;
+	}
+
+	public void set_create_rate(int _create_rate) {
+		this._create_rate = _create_rate;
+	}
+
+	public int get_read_rate() {
+		return _read_rate;
+	}
+
+	public void set_read_rate(int _read_rate) {
+		this._read_rate = _read_rate;
+	}
+
+	public int get_update_rate() {
+		return _update_rate;
+	}
+
+	public void set_update_rate(int _update_rate) {
+		this._update_rate = _update_rate;
+	}
+
+	public int get_delete_rate() {
+		return _delete_rate;
+	}
+
+	public void set_delete_rate(int _delete_rate) {
+		this._delete_rate = _delete_rate;
+	}
+
+	public int get_duration() {
+		return _duration;
+	}
+
+	public void set_duration(int _duration) {
+		this._duration = _duration;
+	}
+
+	public int get_report_interval() {
+		return _report_interval;
+	}
+
+	public void set_report_interval(int _report_interval) {
+		this._report_interval = _report_interval;
+	}
+
+	public String get_load_pattern() {
+		return _load_pattern;
+	}
+
+	public void set_load_pattern(String _load_pattern) {
+		this._load_pattern = _load_pattern;
+	}
+
+	public double get_hot_set_fraction() {
+		return _hot_set_fraction;
+	}
+
+	public void set_hot_set_fraction(double _hot_set_fraction) {
+		this._hot_set_fraction = _hot_set_fraction;
+	}
+
+	public double get_hot_op_fraction() {
+		return _hot_op_fraction;
+	}
+
+	public void set_hot_op_fraction(double _hot_op_fraction) {
+		this._hot_op_fraction = _hot_op_fraction;
+	}
+
+	public long get_shuffle_seed() {
+		return _shuffle_seed;
+	}
+
+	public void set_shuffle_seed(long _shuffle_seed) {
+		this._shuffle_seed = _shuffle_seed;
+	}
+
+	public int get_num_shards() {
+		return _num_shards;
+	}
+
+	public void set_num_shards(int _num_shards) {
+		this._num_shards = _num_shards;
+	}
+
+	public int get_shard_index() {
+		return _shard_index;
+	}
+
+	public void set_shard_index(int _shard_index) {
+		this._shard_index = _shard_index;
+	}
+
+	public String get_engine() {
+		return _engine;
+	}
+
+	public void set_engine(String _engine) {
+		this._engine = _engine;
+	}
+
+	public boolean get_adaptive() {
+		return _adaptive;
+	}
+
+	public void set_adaptive(boolean _adaptive) {
+		this._adaptive = _adaptive;
+	}
+
+	public int get_latency_target() {
+		return _latency_target;
+	}
+
+	public void set_latency_target(int _latency_target) {
+		this._latency_target = _latency_target;
+	}
+
+	public int get_max_retries() {
+		return _max_retries;
+	}
+
+	public void set_max_retries(int _max_retries) {
+		this._max_retries = _max_retries;
+	}
+
+	public int get_cas_retries() {
+		return _cas_retries;
+	}
+
+	public void set_cas_retries(int _cas_retries) {
+		this._cas_retries = _cas_retries;
+	}
+
+	public int get_retry_backoff() {
+		return _retry_backoff;
+	}
+
+	public void set_retry_backoff(int _retry_backoff) {
+		this._retry_backoff = _retry_backoff;
+	}
+
+	public String get_dead_letter_file() {
+		return _dead_letter_file;
+	}
+
+	public void set_dead_letter_file(String _dead_letter_file) {
+		this._dead_letter_file = _dead_letter_file;
+	}
+
+	public String get_workload() {
+		return _workload;
+	}
+
+	public void set_workload(String _workload) {
+		this._workload = _workload;
+	}
+
+	public int get_ramp() {
+		return _ramp;
+	}
+
+	public void set_ramp(int _ramp) {
+		this._ramp = _ramp;
+	}
+
+	public int get_doc_pool_size() {
+		return _doc_pool_size;
+	}
+
+	public void set_doc_pool_size(int _doc_pool_size) {
+		this._doc_pool_size = _doc_pool_size;
+	}
+
+	public String get_doc_pool_fields() {
+		return _doc_pool_fields;
+	}
+
+	public void set_doc_pool_fields(String _doc_pool_fields) {
+		this._doc_pool_fields = _doc_pool_fields;
+	}
+
+	public boolean get_raw_json() {
+		return _raw_json;
+	}
+
+	public void set_raw_json(boolean _raw_json) {
+		this._raw_json = _raw_json;
+	}
+
+	public long get_run_seed() {
+		return _run_seed;
+	}
+
+	public void set_run_seed(long _run_seed) {
+		this._run_seed = _run_seed;
+	}
+
+	public int get_vector_dimension() {
+		return _vector_dimension;
+	}
+
+	public void set_vector_dimension(int _vector_dimension) {
+		this._vector_dimension = _vector_dimension;
+	}
+
+	public int get_vectors_per_doc() {
+		return _vectors_per_doc;
+	}
+
+	public void set_vectors_per_doc(int _vectors_per_doc) {
+		this._vectors_per_doc = _vectors_per_doc;
+	}
+
+	public int get_vector_nesting() {
+		return _vector_nesting;
+	}
+
+	public void set_vector_nesting(int _vector_nesting) {
+		this._vector_nesting = _vector_nesting;
+	}
+
+	public String get_vector_encoding() {
+		return _vector_encoding;
+	}
+
+	public void set_vector_encoding(String _vector_encoding) {
+		this._vector_encoding = _vector_encoding;
+	}
+
+	public int get_binary_min_size() {
+		return _binary_min_size;
+	}
+
+	public void set_binary_min_size(int _binary_min_size) {
+		this._binary_min_size = _binary_min_size;
+	}
+
+	public int get_binary_max_size() {
+		return _binary_max_size;
+	}
+
+	public void set_binary_max_size(int _binary_max_size) {
+		this._binary_max_size = _binary_max_size;
+	}
+
+	public String get_binary_fill() {
+		return _binary_fill;
+	}
+
+	public void set_binary_fill(String _binary_fill) {
+		this._binary_fill = _binary_fill;
+	}
+
+	public int get_binary_pool_mb() {
+		return _binary_pool_mb;
+	}
+
+	public void set_binary_pool_mb(int _binary_pool_mb) {
+		this._binary_pool_mb = _binary_pool_mb;
+	}
+
+	public double get_compression_ratio() {
+		return _compression_ratio;
+	}
+
+	public void set_compression_ratio(double _compression_ratio) {
+		this._compression_ratio = _compression_ratio;
+	}
+
+	public String get_template_file() {
+		return _template_file;
+	}
+
+	public void set_template_file(String _template_file) {
+		this._template_file = _template_file;
+	}
+
+	public String get_update_mode() {
+		return _update_mode;
+	}
+
+	public void set_update_mode(String _update_mode) {
+		this._update_mode = _update_mode;
+	}
+
+	/**
+	 * Name used in logs and stats, prefixed with the workload name when running from a profile.
+	 */
+	public String label(String op) {
+		return _workload.isEmpty() ? op : _workload + " " + op;
+	}
+
+	public boolean isRateTargeted() {
+		return _ops_per_sec > 0 || _create_rate > 0 || _read_rate > 0 || _update_rate > 0 || _delete_rate > 0;
+	}
+
 	public void setOutput(boolean output) {
 		this.output = output;
 	}
@@ -7,6 +7,7 @@ public class DocSpecBuilder {
 	int _percent_create;
 	int _percent_update;
 	int _percent_delete;
+	int _percent_read;
 	int _startSeqNum;
 	String _prefix;
 	String _suffix;
@@ -27,14 +28,94 @@ public class DocSpecBuilder {
 	String loglevel;
 	List<String> fieldsToUpdate;
 	boolean useTransactions;
+	int _existing_docs;
+	int _inflight_window = 128;
+	int _ops_per_sec;
+	int _create_rate;
+	int _read_rate;
+	int _update_rate;
+	int _delete_rate;
+	int _duration;
+	int _report_interval;
+	String _load_pattern = "uniform";
+	double _hot_set_fraction = 0.2;
+	double _hot_op_fraction = 0.8;
+	long _shuffle_seed;
+	int _num_shards = 1;
+	int _shard_index;
+	String _engine = "reactive";
+	boolean _adaptive;
+	int _latency_target = 20;
+	int _max_retries = 5;
+	int _cas_retries = 10;
+	int _retry_backoff = 10;
+	String _dead_letter_file = "";
+	String _workload = "";
+	int _ramp;
+	int _doc_pool_size;
+	String _doc_pool_fields = "";
+	boolean _raw_json;
+	long _run_seed;
+	int _vector_dimension = HierarchicalVector.DEFAULT_DIMENSION;
+	int _vectors_per_doc = HierarchicalVector.DEFAULT_VECTORS_PER_DOC;
+	int _vector_nesting = 1;
+	String _vector_encoding = "array";
+	int _binary_min_size = 100;
+	int _binary_max_size;
+	String _binary_fill = Binary.FILL_TEXT;
+	int _binary_pool_mb = 64;
+	double _compression_ratio;
+	String _template_file = "";
+	String _update_mode = DocGenerator.UPDATE_FULL;
 
 	public DocSpecBuilder() {
 	}
 
 	public DocSpec buildDocSpec() {
-		return new DocSpec(_num_ops, _percent_create, _percent_update, _percent_delete, _startSeqNum,
+		DocSpec ds = new DocSpec(_num_ops, _percent_create, _percent_update, _percent_delete, _startSeqNum,
 				_prefix, _suffix, _template, _expiry, _size, _start, _end, _dataFile, _shuffleDocs, isElasticSync,
 				elasticIP, elasticPort, elasticIndex, elasticLogin, elasticPassword, output, loglevel, fieldsToUpdate,useTransactions);
+		ds.set_percent_read(_percent_read);
+		ds.set_existing_docs(_existing_docs);
+		ds.set_inflight_window(_inflight_window);
+		ds.set_ops_per_sec(_ops_per_sec);
+		ds.set_create_rate(_create_rate);
+		ds.set_read_rate(_read_rate);
+		ds.set_update_rate(_update_rate);
+		ds.set_delete_rate(_delete_rate);
+		ds.set_duration(_duration);
+		ds.set_report_interval(_report_interval);
+		ds.set_load_pattern(_load_pattern);
+		ds.set_hot_set_fraction(_hot_set_fraction);
+		ds.set_hot_op_fraction(_hot_op_fraction);
+		ds.set_shuffle_seed(_shuffle_seed);
+		ds.set_num_shards(_num_shards);
+		ds.set_shard_index(_shard_index);
+		ds.set_engine(_engine);
+		ds.set_adaptive(_adaptive);
+		ds.set_latency_target(_latency_target);
+		ds.set_max_retries(_max_retries);
+		ds.set_cas_retries(_cas_retries);
+		ds.set_retry_backoff(_retry_backoff);
+		ds.set_dead_letter_file(_dead_letter_file);
+		ds.set_workload(_workload);
+		ds.set_ramp(_ramp);
+		ds.set_doc_pool_size(_doc_pool_size);
+		ds.set_doc_pool_fields(_doc_pool_fields);
+		ds.set_raw_json(_raw_json);
+		ds.set_run_seed(_run_seed);
+		ds.set_vector_dimension(_vector_dimension);
+		ds.set_vectors_per_doc(_vectors_per_doc);
+		ds.set_vector_nesting(_vector_nesting);
+		ds.set_vector_encoding(_vector_encoding);
+		ds.set_binary_min_size(_binary_min_size);
+		ds.set_binary_max_size(_binary_max_size);
+		ds.set_binary_fill(_binary_fill);
+		ds.set_binary_pool_mb(_binary_pool_mb);
+		ds.set_compression_ratio(_compression_ratio);
+		ds.set_template_file(_template_file);
+		ds.set_update_mode(_update_mode);
+		return ds;
 	}
 
 	public DocSpecBuilder numOps(int _num_ops) {
@@ -57,6 +138,11 @@ public class DocSpecBuilder {
 		return this;
 	}
 
+	public DocSpecBuilder percentRead(int _percent_read) {
+		this._percent_read = _percent_read;
+		return this;
+	}
+
 	public DocSpecBuilder prefix(String _prefix) {
 		this._prefix = _prefix;
 		return this;
@@ -97,6 +183,15 @@ public class DocSpecBuilder {
 		return this;
 	}
 
+	public DocSpecBuilder shard(int _shard_index, int _num_shards) {
+		if (_num_shards < 1 || _shard_index < 0 || _shard_index >= _num_shards) {
+			throw new IllegalArgumentException("Shard index " + _shard_index + " not in [0, " + _num_shards + ")");
+		}
+		this._shard_index = _shard_index;
+		this._num_shards = _num_shards;
+		return this;
+	}
+
 	public DocSpecBuilder dataFile(String _dataFile) {
 		this._dataFile = _dataFile;
 		return this;
@@ -107,6 +202,133 @@ public class DocSpecBuilder {
 		return this;
 	}
 
+	public DocSpecBuilder shuffleSeed(long _shuffle_seed) {
+		this._shuffle_seed = _shuffle_seed;
+		return this;
+	}
+
+	public DocSpecBuilder engine(String _engine) {
+		this._engine = _engine;
+		return this;
+	}
+
+	/**
+	 * @param latencyTargetMillis ops completing under it let the in-flight limit grow
+	 */
+	public DocSpecBuilder adaptive(boolean _adaptive, int latencyTargetMillis) {
+		this._adaptive = _adaptive;
+		this._latency_target = latencyTargetMillis;
+		return this;
+	}
+
+	/**
+	 * @param backoffMillis first retry delay, doubling on every retry
+	 */
+	public DocSpecBuilder retries(int _max_retries, int backoffMillis) {
+		this._max_retries = _max_retries;
+		this._retry_backoff = backoffMillis;
+		return this;
+	}
+
+	/**
+	 * @param _cas_retries times an update that lost a CAS race reads the doc again before it fails
+	 */
+	public DocSpecBuilder casRetries(int _cas_retries) {
+		this._cas_retries = _cas_retries;
+		return this;
+	}
+
+	public DocSpecBuilder deadLetterFile(String _dead_letter_file) {
+		this._dead_letter_file = _dead_letter_file;
+		return this;
+	}
+
+	public DocSpecBuilder workload(String _workload) {
+		this._workload = _workload;
+		return this;
+	}
+
+	public DocSpecBuilder ramp(int _ramp) {
+		this._ramp = _ramp;
+		return this;
+	}
+
+	/**
+	 * @param size number of pre-generated bodies, 0 to generate every doc
+	 * @param fields comma separated name:id|counter|time identity fields rewritten per doc
+	 */
+	public DocSpecBuilder docPool(int size, String fields) {
+		this._doc_pool_size = size;
+		this._doc_pool_fields = fields;
+		return this;
+	}
+
+	public DocSpecBuilder rawJson(boolean _raw_json) {
+		this._raw_json = _raw_json;
+		return this;
+	}
+
+	/**
+	 * @param _run_seed seed every doc is generated from with its id and mutation version, 0 for random docs
+	 */
+	public DocSpecBuilder runSeed(long _run_seed) {
+		this._run_seed = _run_seed;
+		return this;
+	}
+
+	/**
+	 * Vectors of the HierarchicalVector template.
+	 *
+	 * @param nesting array levels around the teams of a department
+	 * @param encoding array or base64 of the little-endian float32 values
+	 */
+	public DocSpecBuilder vectors(int dimension, int perDoc, int nesting, String encoding) {
+		this._vector_dimension = dimension;
+		this._vectors_per_doc = perDoc;
+		this._vector_nesting = nesting;
+		this._vector_encoding = encoding;
+		return this;
+	}
+
+	/**
+	 * Payloads of the Binary template.
+	 *
+	 * @param maxSize largest payload, 0 for the doc size
+	 * @param fill text or random bytes
+	 * @param poolMb memory of the pre-cut payloads shared by every op
+	 */
+	public DocSpecBuilder binary(int minSize, int maxSize, String fill, int poolMb) {
+		this._binary_min_size = minSize;
+		this._binary_max_size = maxSize;
+		this._binary_fill = fill;
+		this._binary_pool_mb = poolMb;
+		return this;
+	}
+
+	/**
+	 * @param _compression_ratio snappy ratio the filler of Person, Hierarchical and Binary docs is made for, 0 for none
+	 */
+	public DocSpecBuilder compressionRatio(double _compression_ratio) {
+		this._compression_ratio = _compression_ratio;
+		return this;
+	}
+
+	/**
+	 * @param _template_file comma separated schema files whose templates are registered by name
+	 */
+	public DocSpecBuilder templateFile(String _template_file) {
+		this._template_file = _template_file;
+		return this;
+	}
+
+	/**
+	 * @param _update_mode full to read and rewrite docs, subdoc to send only the changed fields
+	 */
+	public DocSpecBuilder updateMode(String _update_mode) {
+		this._update_mode = _update_mode;
+		return this;
+	}
+
 	public DocSpecBuilder setElasticSync(boolean needSync){
 		this.isElasticSync = needSync;
 		return this;
@@ -154,6 +376,50 @@ public class DocSpecBuilder {
 		return this;
 	}
 
+	public DocSpecBuilder existingDocs(int _existing_docs) {
+		this._existing_docs = _existing_docs;
+		return this;
+	}
+
+	public DocSpecBuilder inflightWindow(int _inflight_window) {
+		this._inflight_window = _inflight_window;
+		return this;
+	}
+
+	public DocSpecBuilder opsPerSec(int _ops_per_sec) {
+		this._ops_per_sec = _ops_per_sec;
+		return this;
+	}
+
+	public DocSpecBuilder opRates(int _create_rate, int _read_rate, int _update_rate, int _delete_rate) {
+		this._create_rate = _create_rate;
+		this._read_rate = _read_rate;
+		this._update_rate = _update_rate;
+		this._delete_rate = _delete_rate;
+		return this;
+	}
+
+	public DocSpecBuilder duration(int _duration) {
+		this._duration = _duration;
+		return this;
+	}
+
+	public DocSpecBuilder reportInterval(int _report_interval) {
+		this._report_interval = _report_interval;
+		return this;
+	}
+
+	public DocSpecBuilder loadPattern(String _load_pattern) {
+		this._load_pattern = _load_pattern;
+		return this;
+	}
+
+	public DocSpecBuilder hotspot(double _hot_set_fraction, double _hot_op_fraction) {
+		this._hot_set_fraction = _hot_set_fraction;
+		this._hot_op_fraction = _hot_op_fraction;
+		return this;
+	}
+
 	public DocSpecBuilder fieldsToUpdate(List<String> fieldsToUpdate) {
 		this.fieldsToUpdate = fieldsToUpdate;
 		return this;
@@ -3,6 +3,7 @@ package com.couchbase.javaclient.doc;
 import java.util.List;
 
 import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.MutateInSpec;
 import com.github.javafaker.Faker;
 
 public interface DocTemplate {
@@ -10,4 +11,29 @@ public interface DocTemplate {
 	JsonObject createJsonObject(Faker faker, int docsize, int id);
 	JsonObject updateJsonObject(Faker faker, JsonObject obj, List<String> fieldsToUpdate);
 
+	/**
+	 * New doc as JSON bytes, for the raw JSON transcoder. Streaming templates
+	 * write them directly instead of encoding a JsonObject.
+	 */
+	default byte[] createJsonBytes(Faker faker, int docsize, int id) {
+		return createJsonObject(faker, docsize, id).toBytes();
+	}
+
+	/**
+	 * The changes of an update as sub-document mutations, sent without reading
+	 * the doc (--update_mode subdoc). Null when the template can only rewrite
+	 * whole docs.
+	 */
+	default List<MutateInSpec> updateSpecs(Faker faker, List<String> fieldsToUpdate) {
+		return null;
+	}
+
+	/**
+	 * Sets the fields derived from the doc id on a shallow copy of a body
+	 * created for another id, for the doc pool. Nested objects are shared with
+	 * the pooled body and must be copied before they are changed.
+	 */
+	default void setIdentity(JsonObject doc, int id) {
+	}
+
 }
\ No newline at end of file
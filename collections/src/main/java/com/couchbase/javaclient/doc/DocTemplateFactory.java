@@ -1,25 +1,103 @@
 package com.couchbase.javaclient.doc;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
 
 public final class DocTemplateFactory {
 
+	private final static Logger log = Logger.getLogger(DocTemplateFactory.class);
+
+	// Names of the Java templates, as listed to users
+	private static final String BUILT_IN = "emp, Employee, Person, Hotel, Hierarchical, HierarchicalVector";
+	// Templates whose bodies depend on the doc id only through the fields of their setIdentity, so they can come
+	// from a doc pool
+	private static final Set<String> POOLABLE = new HashSet<>(
+			Arrays.asList("emp", "Employee", "Person", "Hotel", "hierarchical", "Hierarchical"));
+	// Templates with filler to reach a compression ratio with
+	private static final Set<String> COMPRESSIBLE = new HashSet<>(
+			Arrays.asList("Person", "hierarchical", "Hierarchical"));
+	// Templates of the schema files loaded so far, by name, and the files
+	private static final Map<String, SchemaTemplate> schemas = new ConcurrentHashMap<>();
+	private static final Set<String> schemaFiles = new HashSet<>();
+	// One pool per template, size and fields, shared by all ops and phases
+	private static final Map<String, DocPool> pools = new ConcurrentHashMap<>();
+
 	public static DocTemplate getDocTemplate(DocSpec ds) {
+		loadSchemas(ds.get_template_file());
+		if (ds.get_doc_pool_size() > 0) {
+			if (POOLABLE.contains(ds.get_template())) {
+				String poolKey = ds.get_template() + "/" + ds.get_size() + "/" + ds.get_doc_pool_size() + "/"
+						+ ds.get_doc_pool_fields() + "/" + ds.get_run_seed() + "/" + ds.get_compression_ratio();
+				return pools.computeIfAbsent(poolKey, k -> new DocPool(ds.get_template(), () -> newDocTemplate(ds),
+						ds.get_doc_pool_size(), ds.get_size(), ds.get_doc_pool_fields(), ds.get_run_seed()));
+			}
+			log.warn("No doc pool for template " + ds.get_template() + ", docs are generated per op");
+		}
+		return newDocTemplate(ds);
+	}
+
+	private static DocTemplate newDocTemplate(DocSpec ds) {
+		Compression compression = Compression.of(ds);
+		if (compression == null) {
+			return newDocTemplate(ds, null);
+		}
+		SchemaTemplate schema = schemas.get(ds.get_template());
+		if (schema != null ? schema.fillerField() == null : !COMPRESSIBLE.contains(ds.get_template())) {
+			log.warn("Template " + ds.get_template() + " has no filler, its compression ratio can't be set");
+			return newDocTemplate(ds, null);
+		}
+		DocTemplate template = newDocTemplate(ds, compression);
+		compression.calibrate(seed -> Fakers.seeded(seed, f -> template.createJsonBytes(f, ds.get_size(), (int) seed)),
+				ds.get_size());
+		return template;
+	}
+
+	private static DocTemplate newDocTemplate(DocSpec ds, Compression compression) {
+		SchemaTemplate schema = schemas.get(ds.get_template());
+		if (schema != null) {
+			return compression != null ? schema.withCompression(compression) : schema;
+		}
 		if ("emp".equals(ds.get_template())) {
 			return new Emp();
 		}else if("Employee".equals(ds.get_template())){
 			return new Employee();
 		}else  if("Person".equals(ds.get_template())){
-			return new Person();
+			return new Person(compression);
 		}else  if("Hotel".equals(ds.get_template())){
 			return new Hotel();
 		}else  if("hierarchical".equals(ds.get_template()) || "Hierarchical".equals(ds.get_template())){
-			return new Hierarchical();
+			return new Hierarchical(compression);
 		}else  if("hierarchical_vector".equals(ds.get_template()) || "HierarchicalVector".equals(ds.get_template())){
-			return new HierarchicalVector();
-		}else {
+			return new HierarchicalVector(ds.get_vector_dimension(), ds.get_vectors_per_doc(), ds.get_vector_nesting(),
+					ds.get_vector_encoding());
+		}else if (ds.getDataFile() != null) {
 			return new TextDataSet(ds);
 		}
+		throw new IllegalArgumentException("Unknown doc template " + ds.get_template() + ", built in templates are "
+				+ BUILT_IN + (schemas.isEmpty() ? ", no --template_file was given"
+						: ", --template_file templates are " + String.join(", ", new TreeSet<>(schemas.keySet()))));
 	}
 
-}
+	/**
+	 * Registers the templates of the schema files not loaded yet.
+	 */
+	private static synchronized void loadSchemas(String files) {
+		if (files == null || files.isEmpty()) {
+			return;
+		}
+		for (String file : files.split(",")) {
+			if (!file.trim().isEmpty() && schemaFiles.add(file.trim())) {
+				Map<String, SchemaTemplate> loaded = SchemaTemplate.load(file.trim());
+				schemas.putAll(loaded);
+				log.info("Registered doc templates " + loaded.keySet() + " from " + file.trim());
+			}
+		}
+	}
 
+}
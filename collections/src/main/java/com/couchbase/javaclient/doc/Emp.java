@@ -4,17 +4,17 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.Date;
 import java.util.Calendar;
+import java.util.TimeZone;
 
 import com.couchbase.client.java.json.JsonObject;
 import com.couchbase.client.java.kv.GetResult;
+import com.couchbase.client.java.kv.MutateInSpec;
 import com.github.javafaker.Faker;
+import com.github.javafaker.service.RandomService;
 
 public class Emp implements DocTemplate{
-
-    JsonObject jsonObject = JsonObject.create();
     private static final String[] FIRST_NAMES = {"Adara", "Adena", "Adrianne", "Alarice", "Alvita", "Amara",
             "Ambika", "Antonia", "Araceli", "Balandria", "Basha",
             "Beryl", "Bryn", "Callia", "Caryssa", "Cassandra", "Casondrah",
@@ -70,27 +70,32 @@ public class Emp implements DocTemplate{
                     "2001:db8:ffff:ffff:ffff:ffff:ffff:ffff:ffff", "2001:db8:1234:5678:abcd:ef12:3456:7890:"}
     };
 
-    Random random = new Random();
+    @Override
+    public void setIdentity(JsonObject doc, int id) {
+        doc.put("emp_id", ""+(10000000+id));
+    }
 
     public JsonObject createJsonObject(Faker faker, int docsize, int id) {
-        String empName = generateName();
+        RandomService random = faker.random();
+        JsonObject jsonObject = JsonObject.create();
+        String empName = generateName(random);
         boolean isManager = random.nextBoolean();
         int IP_choice = random.nextInt(2);
         jsonObject.put("name", empName);
         jsonObject.put("emp_id", ""+(10000000+id));
-        jsonObject.put("dept", generateDept());
+        jsonObject.put("dept", generateDept(random));
         jsonObject.put("email", empName.split(" ")[0] + "@mcdiabetes.com");
-        jsonObject.put("salary", generateSalary());
-        jsonObject.put("join_date", generateJoinDate());
-        jsonObject.put("languages_known", generateLangKnown());
+        jsonObject.put("salary", generateSalary(random));
+        jsonObject.put("join_date", generateJoinDate(random));
+        jsonObject.put("languages_known", generateLangKnown(random));
         jsonObject.put("is_manager", isManager);
         jsonObject.put("mutated", 0);
         jsonObject.put("type", "emp");
-        jsonObject.put("ip", generateIP());
+        jsonObject.put("ip", generateIP(random));
         if(IP_choice==0){
-            jsonObject.put("ip", generateIP());
+            jsonObject.put("ip", generateIP(random));
         }else{
-            String [] ip_array = getIP_List();
+            String [] ip_array = getIP_List(random);
             List<String> ip_list = new ArrayList<>();
             for(int i =0; i<ip_array.length; i++){
                 ip_list.add(ip_array[i]);
@@ -103,7 +108,7 @@ public class Emp implements DocTemplate{
             manages.put("team_size", teamSize);
             List<String> reports = new ArrayList<>();
             for(int i=0; i<teamSize; i++){
-                reports.add(generateName());
+                reports.add(generateName(random));
             }
             manages.put("reports", reports);
             jsonObject.put("manages", manages);
@@ -112,16 +117,17 @@ public class Emp implements DocTemplate{
     }
 
     public JsonObject updateJsonObject(Faker faker, JsonObject obj, List<String> fieldsToUpdate) {
+        RandomService random = faker.random();
         if(fieldsToUpdate == null || fieldsToUpdate.size() == 0){
-            obj.put("salary", generateSalary());
+            obj.put("salary", generateSalary(random));
             obj.put("mutated", 1);
             return obj;
         }
         if(fieldsToUpdate.contains("salary")){
-            obj.put("salary", generateSalary());
+            obj.put("salary", generateSalary(random));
         }
         if(fieldsToUpdate.contains("dept")){
-            obj.put("dept", generateDept());
+            obj.put("dept", generateDept(random));
         }
         if(fieldsToUpdate.contains("is_manager")){
             obj.put("is_manager", random.nextBoolean());
@@ -133,7 +139,7 @@ public class Emp implements DocTemplate{
                 manages.put("team_size", teamSize);
                 List<String> reports = new ArrayList<>();
                 for(int i=0; i<teamSize; i++){
-                    reports.add(generateName());
+                    reports.add(generateName(random));
                 }
                 manages.put("reports", reports);
                 obj.put("manages", manages);
@@ -141,17 +147,62 @@ public class Emp implements DocTemplate{
             }
         }
         if(fieldsToUpdate.contains("languages_known")){
-            obj.put("languages_known", generateLangKnown());
+            obj.put("languages_known", generateLangKnown(random));
         }
         if(fieldsToUpdate.contains("email")){
-            obj.put("email", generateName().split(" ")[0] + "@mcdiabetes.com");
+            obj.put("email", generateName(random).split(" ")[0] + "@mcdiabetes.com");
         }
         obj.put("mutated", 1);
         return obj;
     }
 
+    /**
+     * The changes of updateJsonObject. Every doc is created with these fields, so
+     * they are replaced. The doc isn't read: manages is only written when this
+     * update also makes the employee a manager.
+     */
+    @Override
+    public List<MutateInSpec> updateSpecs(Faker faker, List<String> fieldsToUpdate) {
+        RandomService random = faker.random();
+        List<MutateInSpec> specs = new ArrayList<>();
+        if(fieldsToUpdate == null || fieldsToUpdate.size() == 0){
+            specs.add(MutateInSpec.replace("salary", generateSalary(random)));
+            specs.add(MutateInSpec.replace("mutated", 1));
+            return specs;
+        }
+        if(fieldsToUpdate.contains("salary")){
+            specs.add(MutateInSpec.replace("salary", generateSalary(random)));
+        }
+        if(fieldsToUpdate.contains("dept")){
+            specs.add(MutateInSpec.replace("dept", generateDept(random)));
+        }
+        if(fieldsToUpdate.contains("is_manager")){
+            boolean isManager = random.nextBoolean();
+            specs.add(MutateInSpec.replace("is_manager", isManager));
+            if(isManager && (fieldsToUpdate.contains("manages.team_size") || fieldsToUpdate.contains("manages.reports"))){
+                JsonObject manages = JsonObject.create();
+                int teamSize = 5 + random.nextInt(5);
+                manages.put("team_size", teamSize);
+                List<String> reports = new ArrayList<>();
+                for(int i=0; i<teamSize; i++){
+                    reports.add(generateName(random));
+                }
+                manages.put("reports", reports);
+                specs.add(MutateInSpec.upsert("manages", manages));
+            }
+        }
+        if(fieldsToUpdate.contains("languages_known")){
+            specs.add(MutateInSpec.replace("languages_known", generateLangKnown(random)));
+        }
+        if(fieldsToUpdate.contains("email")){
+            specs.add(MutateInSpec.replace("email", generateName(random).split(" ")[0] + "@mcdiabetes.com"));
+        }
+        specs.add(MutateInSpec.replace("mutated", 1));
+        return specs;
+    }
+
 
-    private String generateName(){
+    private String generateName(RandomService random){
         String res = "";
         res +=FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
         res += " ";
@@ -159,33 +210,39 @@ public class Emp implements DocTemplate{
         return res;
     }
 
-    private String generateIP(){ return IP[random.nextInt(IP.length)]; }
+    private String generateIP(RandomService random){ return IP[random.nextInt(IP.length)]; }
 
-    private String [] getIP_List(){ return IP_List[random.nextInt(IP_List.length)]; }
+    private String [] getIP_List(RandomService random){ return IP_List[random.nextInt(IP_List.length)]; }
 
-    private String generateDept(){
+    private String generateDept(RandomService random){
         return DEPT[random.nextInt(DEPT.length)];
     }
 
-    private int generateSalary(){
+    private int generateSalary(RandomService random){
         return (random.nextInt(100000) + 50000);
     }
 
-    private String generateJoinDate(){
-        Calendar cal = Calendar.getInstance();
+    private String generateJoinDate(RandomService random){
+        // UTC, the same doc on hosts in any time zone
+        TimeZone utc = TimeZone.getTimeZone("UTC");
+        Calendar cal = Calendar.getInstance(utc);
         cal.set(Calendar.YEAR, 1950 + random.nextInt(2016-1950 + 1));
         cal.set(Calendar.MONTH, 1 + random.nextInt(11));
         cal.set(Calendar.DAY_OF_MONTH, 1 + random.nextInt(27));
         cal.set(Calendar.HOUR_OF_DAY, random.nextInt(23));
         cal.set(Calendar.MINUTE, 1 + random.nextInt(58));
+        // Seconds too, else they come from the clock
+        cal.set(Calendar.SECOND, random.nextInt(60));
         Date date = cal.getTime();
         DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
         DateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+        dateFormat.setTimeZone(utc);
+        timeFormat.setTimeZone(utc);
 
         return dateFormat.format(date)+"T"+timeFormat.format(date);
     }
 
-    private List<String> generateLangKnown(){
+    private List<String> generateLangKnown(RandomService random){
         int count = 0;
         List<String> lang = new ArrayList<>();
         while (count < 3){
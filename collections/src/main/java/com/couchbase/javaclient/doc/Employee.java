@@ -4,24 +4,22 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
 import java.util.Date;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 import com.couchbase.client.java.json.JsonObject;
 import com.github.javafaker.Faker;
 
 public class Employee implements DocTemplate{
-	JsonObject jsonObject = JsonObject.create();
-	Random random = new Random();
-	Calendar calendar = new GregorianCalendar();
+	// Join dates go back from a fixed day rather than today, for seeded docs
+	private static final long JOIN_DATES_TO = 1609459200000L; // 2021-01-01
+	private static final long JOIN_DATES_SPAN = TimeUnit.DAYS.toMillis(365 * 10);
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
 	List<String> jobTitles = Arrays.asList("Engineer", "Sales", "Support");
 	List<Integer> joinYears = Arrays.asList(2010, 2011);
-	Map<String, String> ubuntu = new HashMap<>();
-	Map<String, String> windows = new HashMap<>();
-	Map<String, Integer> task = new HashMap<>();
 
 	/*
 	 * template: { "name": "employee-5", "join_yr": 2010, "join_mo": 8, "join_day":
@@ -32,16 +30,19 @@ public class Employee implements DocTemplate{
 	 */
 
 	public JsonObject createJsonObject(Faker faker, int docsize, int id) {
-		Date joinDate = faker.date().past(365*10, TimeUnit.DAYS);
+		JsonObject jsonObject = JsonObject.create();
+		Date joinDate = new Date(JOIN_DATES_TO - 1 - faker.random().nextLong(JOIN_DATES_SPAN));
+		// UTC, the same doc on hosts in any time zone
+		Calendar calendar = new GregorianCalendar(UTC);
 		calendar.setTime(joinDate);
 		int join_day = calendar.get(Calendar.DAY_OF_MONTH);
 		int join_month = calendar.get(Calendar.MONTH) + 1;
-		jsonObject.put("name", "employee-" + joinDate.getDay());
-		jsonObject.put("join_yr", joinYears.get(random.nextInt(joinYears.size())));
+		jsonObject.put("name", "employee-" + (calendar.get(Calendar.DAY_OF_WEEK) - 1));
+		jsonObject.put("join_yr", joinYears.get(faker.random().nextInt(joinYears.size())));
 		jsonObject.put("join_mo", join_month);
 		jsonObject.put("join_day", join_day);
 		jsonObject.put("email", Integer.toString(join_day) + "-mail@couchbase.com");
-		jsonObject.put("job_title", jobTitles.get(random.nextInt(jobTitles.size())));
+		jsonObject.put("job_title", jobTitles.get(faker.random().nextInt(jobTitles.size())));
 		jsonObject.put("test_rate", (float) join_month + (join_month * 0.01));
 		jsonObject.put("skills", this.getSkillsArray());
 		jsonObject.put("VMs", this.getVMsArray(join_month));
@@ -62,6 +63,8 @@ public class Employee implements DocTemplate{
 	private List<Map<String, String>> getVMsArray(int month) {
 		String next_month = Integer.toString(month + 1);
 		String this_month = Integer.toString(month);
+		Map<String, String> ubuntu = new HashMap<>();
+		Map<String, String> windows = new HashMap<>();
 		ubuntu.put("RAM", this_month);
 		ubuntu.put("os", "ubuntu");
 		ubuntu.put("name", "vm_" + this_month);
@@ -74,6 +77,7 @@ public class Employee implements DocTemplate{
 	}
 
 	private Map<String, Integer> getTaskPoints() {
+		Map<String, Integer> task = new HashMap<>();
 		task.put("task1", 0);
 		task.put("task2", 1);
 		return task;
@@ -0,0 +1,61 @@
+package com.couchbase.javaclient.doc;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import com.github.javafaker.Faker;
+
+/**
+ * Faker is not thread safe and takes milliseconds to build, so generating
+ * threads borrow one from this pool for the length of a call. The pool grows to
+ * the number of concurrent generators, which also keeps virtual threads, one
+ * per op, from building a Faker each.
+ *
+ * Every Faker draws from its own Random, which {@link #seeded(long, Function)}
+ * reseeds so that templates taking all their randomness from the Faker give the
+ * same doc for the same seed.
+ */
+public final class Fakers {
+
+	private static final ConcurrentLinkedDeque<Seedable> idle = new ConcurrentLinkedDeque<>();
+
+	private Fakers() {
+	}
+
+	public static <T> T with(Function<Faker, T> generate) {
+		Seedable seedable = borrow();
+		try {
+			return generate.apply(seedable.faker);
+		} finally {
+			// Last in first out, the most recently used stay warm
+			idle.offerFirst(seedable);
+		}
+	}
+
+	/**
+	 * Runs generate with a Faker whose random state is set by seed.
+	 */
+	public static <T> T seeded(long seed, Function<Faker, T> generate) {
+		Seedable seedable = borrow();
+		seedable.random.setSeed(seed);
+		try {
+			return generate.apply(seedable.faker);
+		} finally {
+			// Unseeded callers must not carry on a sequence known to others
+			seedable.random.setSeed(ThreadLocalRandom.current().nextLong());
+			idle.offerFirst(seedable);
+		}
+	}
+
+	private static Seedable borrow() {
+		Seedable seedable = idle.pollFirst();
+		return seedable != null ? seedable : new Seedable();
+	}
+
+	private static final class Seedable {
+		final Random random = new Random();
+		final Faker faker = new Faker(random);
+	}
+}
@@ -1,14 +1,15 @@
 package com.couchbase.javaclient.doc;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
 
 import com.couchbase.client.java.json.JsonObject;
-import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.kv.MutateInSpec;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.github.javafaker.Faker;
+import com.github.javafaker.service.RandomService;
 
 /**
  * Hierarchical document template for testing hierarchical search functionality.
@@ -27,8 +28,6 @@ import com.github.javafaker.Faker;
  */
 public class Hierarchical implements DocTemplate {
 
-    private Random random = new Random();
-
     private static final List<String> DEPARTMENTS = Arrays.asList(
         "Engineering", "Sales", "Marketing", "HR", "Finance", "Operations", "Support"
     );
@@ -53,23 +52,59 @@ public class Hierarchical implements DocTemplate {
         "USA", "UK", "Greece", "Germany", "France", "Japan", "India", "Canada"
     );
 
+    // Filler paragraphs of a target compression ratio are about as long as lorem ones
+    private static final int COMPRESSIBLE_PARAGRAPH = 8 * Compression.CHUNK;
+
+    // Filler of a target compression ratio, null for lorem paragraphs
+    private final Compression compression;
+
+    public Hierarchical() {
+        this(null);
+    }
+
+    public Hierarchical(Compression compression) {
+        this.compression = compression;
+    }
+
     @Override
     public JsonObject createJsonObject(Faker faker, int docsize, int id) {
-        JsonObject doc = JsonObject.create();
+        JsonObject doc = JsonBytes.object(gen -> write(gen, faker, docsize, id));
+        return compression != null ? compression.sample(doc) : doc;
+    }
 
-        if (random.nextBoolean()) {
+    @Override
+    public byte[] createJsonBytes(Faker faker, int docsize, int id) {
+        byte[] doc = JsonBytes.write(gen -> write(gen, faker, docsize, id));
+        return compression != null ? compression.sample(doc) : doc;
+    }
+
+    @Override
+    public void setIdentity(JsonObject doc, int id) {
+        if (doc.containsKey("id")) {
             doc.put("id", "doc" + id);
         }
-
-        doc.put("company", createCompany(faker, id));
-        doc.put("mutationCount", 0);
-
-        int currentSize = doc.toString().length();
-        if (currentSize < docsize) {
-            doc.put("_filler", createFillerContent(faker, docsize - currentSize));
+        JsonObject pooled = doc.getObject("company");
+        JsonObject company = JsonObject.create(pooled.size());
+        for (String name : pooled.getNames()) {
+            company.put(name, pooled.get(name));
         }
+        doc.put("company", company.put("id", "c" + id));
+    }
 
-        return doc;
+    private void write(JsonGenerator gen, Faker faker, int docsize, int id) throws IOException {
+        gen.writeStartObject();
+        if (faker.random().nextBoolean()) {
+            gen.writeStringField("id", "doc" + id);
+        }
+        gen.writeFieldName("company");
+        writeCompany(gen, faker, id);
+        gen.writeNumberField("mutationCount", 0);
+        // ,"_filler":{} and the closing brace
+        if (JsonBytes.written(gen) + 14 < docsize) {
+            gen.writeFieldName("_filler");
+            writeFillerContent(gen, faker, docsize);
+        }
+        gen.writeEndObject();
     }
 
     @Override
@@ -80,121 +115,152 @@ public class Hierarchical implements DocTemplate {
         if (fieldsToUpdate != null && !fieldsToUpdate.isEmpty() && !fieldsToUpdate.get(0).isEmpty()) {
             for (String field : fieldsToUpdate) {
                 if ("company".equals(field)) {
-                    obj.put("company", createCompany(faker, random.nextInt(10000)));
+                    obj.put("company", createCompany(faker, faker.random().nextInt(10000)));
                 }
             }
         } else {
-            obj.put("company", createCompany(faker, random.nextInt(10000)));
+            obj.put("company", createCompany(faker, faker.random().nextInt(10000)));
         }
         return obj;
     }
 
+    /**
+     * The changes of updateJsonObject, with mutationCount counted on the server.
+     */
+    @Override
+    public List<MutateInSpec> updateSpecs(Faker faker, List<String> fieldsToUpdate) {
+        List<MutateInSpec> specs = new ArrayList<>();
+        specs.add(MutateInSpec.increment("mutationCount", 1));
+        if (fieldsToUpdate == null || fieldsToUpdate.isEmpty() || fieldsToUpdate.get(0).isEmpty()
+                || fieldsToUpdate.contains("company")) {
+            specs.add(MutateInSpec.replace("company", createCompany(faker, faker.random().nextInt(10000))));
+        }
+        return specs;
+    }
+
     private JsonObject createCompany(Faker faker, int id) {
-        JsonObject company = JsonObject.create();
-        company.put("id", "c" + id);
-        company.put("name", faker.company().name());
+        return JsonBytes.object(gen -> writeCompany(gen, faker, id));
+    }
+
+    private void writeCompany(JsonGenerator gen, Faker faker, int id) throws IOException {
+        RandomService random = faker.random();
+        gen.writeStartObject();
+        gen.writeStringField("id", "c" + id);
+        gen.writeStringField("name", faker.company().name());
 
-        JsonArray departments = JsonArray.create();
-        int numDepts = ThreadLocalRandom.current().nextInt(1, 4);
+        gen.writeArrayFieldStart("departments");
+        int numDepts = 1 + random.nextInt(3);
         for (int i = 0; i < numDepts; i++) {
-            departments.add(createDepartment(faker));
+            writeDepartment(gen, faker);
         }
-        company.put("departments", departments);
+        gen.writeEndArray();
 
-        JsonArray locations = JsonArray.create();
-        int numLocations = ThreadLocalRandom.current().nextInt(1, 4);
+        gen.writeArrayFieldStart("locations");
+        int numLocations = 1 + random.nextInt(3);
         for (int i = 0; i < numLocations; i++) {
-            locations.add(createLocation(faker));
+            writeLocation(gen, random);
         }
-        company.put("locations", locations);
-
-        return company;
+        gen.writeEndArray();
+        gen.writeEndObject();
     }
 
-    private JsonObject createDepartment(Faker faker) {
-        JsonObject dept = JsonObject.create();
-        dept.put("name", DEPARTMENTS.get(random.nextInt(DEPARTMENTS.size())));
-        dept.put("budget", faker.number().numberBetween(200000, 2000000));
+    private void writeDepartment(JsonGenerator gen, Faker faker) throws IOException {
+        RandomService random = faker.random();
+        gen.writeStartObject();
+        gen.writeStringField("name", DEPARTMENTS.get(random.nextInt(DEPARTMENTS.size())));
+        gen.writeNumberField("budget", faker.number().numberBetween(200000, 2000000));
 
-        dept.put("employees", createEmployeesArray(faker));
+        gen.writeFieldName("employees");
+        writeEmployeesArray(gen, random);
 
-        JsonArray projects = JsonArray.create();
-        int numProjects = ThreadLocalRandom.current().nextInt(2, 10);
+        gen.writeArrayFieldStart("projects");
+        int numProjects = 2 + random.nextInt(8);
         for (int i = 0; i < numProjects; i++) {
-            projects.add(createProject(faker));
+            writeProject(gen, faker);
         }
-        dept.put("projects", projects);
-
-        return dept;
+        gen.writeEndArray();
+        gen.writeEndObject();
     }
 
-    private JsonArray createEmployeesArray(Faker faker) {
+    private void writeEmployeesArray(JsonGenerator gen, RandomService random) throws IOException {
         boolean createNestedArrays = random.nextInt(100) < 30;
 
         if (createNestedArrays) {
-            JsonArray level1 = JsonArray.create();
-            JsonArray level2 = JsonArray.create();
-            JsonArray level3 = JsonArray.create();
-
-            int numEmployees = ThreadLocalRandom.current().nextInt(20, 40);
+            // array of array of array of employees
+            gen.writeStartArray();
+            gen.writeStartArray();
+            gen.writeStartArray();
+            int numEmployees = 20 + random.nextInt(20);
             for (int i = 0; i < numEmployees; i++) {
-                level3.add(createEmployee(faker));
+                writeEmployee(gen, random);
             }
-
-            level2.add(level3);
-            level1.add(level2);
-            return level1;
+            gen.writeEndArray();
+            gen.writeEndArray();
+            gen.writeEndArray();
         } else {
-            JsonArray employees = JsonArray.create();
-            int numEmployees = ThreadLocalRandom.current().nextInt(2, 6);
+            gen.writeStartArray();
+            int numEmployees = 2 + random.nextInt(4);
             for (int i = 0; i < numEmployees; i++) {
-                employees.add(createEmployee(faker));
+                writeEmployee(gen, random);
             }
-            return employees;
+            gen.writeEndArray();
         }
     }
 
-    private JsonObject createEmployee(Faker faker) {
-        JsonObject employee = JsonObject.create();
-
-        employee.put("name", FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size())));
+    private void writeEmployee(JsonGenerator gen, RandomService random) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("name", FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size())));
 
         int fieldPattern = random.nextInt(4);
         if (fieldPattern == 0) {
-            employee.put("role", ROLES.get(random.nextInt(ROLES.size())));
+            gen.writeStringField("role", ROLES.get(random.nextInt(ROLES.size())));
         } else if (fieldPattern == 1) {
-            employee.put("home", CITIES.get(random.nextInt(CITIES.size())));
+            gen.writeStringField("home", CITIES.get(random.nextInt(CITIES.size())));
         } else {
-            employee.put("role", ROLES.get(random.nextInt(ROLES.size())));
-            employee.put("home", CITIES.get(random.nextInt(CITIES.size())));
+            gen.writeStringField("role", ROLES.get(random.nextInt(ROLES.size())));
+            gen.writeStringField("home", CITIES.get(random.nextInt(CITIES.size())));
         }
-
-        return employee;
+        gen.writeEndObject();
     }
 
-    private JsonObject createProject(Faker faker) {
-        JsonObject project = JsonObject.create();
-        project.put("title", "Project " + faker.lorem().word().substring(0, 1).toUpperCase() + faker.lorem().word().substring(1));
-        project.put("status", PROJECT_STATUSES.get(random.nextInt(PROJECT_STATUSES.size())));
-        return project;
+    private void writeProject(JsonGenerator gen, Faker faker) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("title", "Project " + faker.lorem().word().substring(0, 1).toUpperCase() + faker.lorem().word().substring(1));
+        gen.writeStringField("status", PROJECT_STATUSES.get(faker.random().nextInt(PROJECT_STATUSES.size())));
+        gen.writeEndObject();
     }
 
-    private JsonObject createLocation(Faker faker) {
-        JsonObject location = JsonObject.create();
-        location.put("city", CITIES.get(random.nextInt(CITIES.size())));
-        location.put("country", COUNTRIES.get(random.nextInt(COUNTRIES.size())));
-        return location;
+    private void writeLocation(JsonGenerator gen, RandomService random) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("city", CITIES.get(random.nextInt(CITIES.size())));
+        gen.writeStringField("country", COUNTRIES.get(random.nextInt(COUNTRIES.size())));
+        gen.writeEndObject();
     }
 
-
-    private JsonObject createFillerContent(Faker faker, int targetSize) {
-        JsonObject filler = JsonObject.create();
+    /**
+     * Paragraphs until the next one would pass docsize, then one last paragraph
+     * cut to the bytes left, so the doc lands on docsize in one pass.
+     */
+    private void writeFillerContent(JsonGenerator gen, Faker faker, int docsize) throws IOException {
+        gen.writeStartObject();
         int count = 0;
-        while (filler.toString().length() < targetSize) {
+        while (true) {
             count++;
-            filler.put("filler_" + count, faker.lorem().paragraph());
+            String name = "filler_" + count;
+            // "}}" close the doc, a field costs its quoted name, colon, quoted text and a comma
+            int room = docsize - JsonBytes.written(gen) - 2 - (name.length() + 5) - (count > 1 ? 1 : 0);
+            if (room < 0) {
+                break;
+            }
+            // The last paragraph also takes the bytes too few for another field
+            String paragraph = compression != null ? compression.filler(faker.random(), COMPRESSIBLE_PARAGRAPH)
+                    : faker.lorem().paragraph();
+            if (paragraph.length() > room - ("filler_" + (count + 1)).length() - 6) {
+                gen.writeStringField(name, JsonBytes.pad(paragraph, room));
+                break;
+            }
+            gen.writeStringField(name, paragraph);
         }
-        return filler;
+        gen.writeEndObject();
     }
 }
-
@@ -1,40 +1,55 @@
 package com.couchbase.javaclient.doc;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
-import java.util.Random;
 
-import com.couchbase.client.java.json.JsonObject;
 import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.github.javafaker.Faker;
 
 /**
  * Hierarchical Vector document template for testing hierarchical vector search.
  *
  * Structure:
- * - Root level "embeddings": SINGLE flat array with 20 vectors (ground truth)
- * - Nested hierarchy: Same 20 vectors spread throughout company → departments → teams
+ * - Root level "embeddings": SINGLE flat array with all the vectors of the doc (ground truth)
+ * - Nested hierarchy: Same vectors spread throughout company → departments → teams
  *
  * This allows:
- * - Ground truth access via: doc.embeddings[0], doc.embeddings[1], ... doc.embeddings[19]
+ * - Ground truth access via: doc.embeddings[0], doc.embeddings[1], ... doc.embeddings[n-1]
  * - Search validation via nested paths: doc.company.departments[i].teams[j].embedding
  *
- * Vector distribution in hierarchy:
+ * Vector distribution in hierarchy, 5 vectors per department (20 vectors by default, 4 departments):
  * - embeddings[0-4]   → department[0]: dept.embedding + 3 teams + 1 project
  * - embeddings[5-9]   → department[1]: dept.embedding + 3 teams + 1 project
- * - embeddings[10-14] → department[2]: dept.embedding + 3 teams + 1 project
- * - embeddings[15-19] → department[3]: dept.embedding + 3 teams + 1 project
+ * - ...
+ * The last department gets the vectors left over when the count isn't a multiple of 5.
+ *
+ * Configurable with the doc spec:
+ * - vector dimension and vectors per doc
+ * - nesting: teams as array of array ... of teams, like the nested employees of {@link Hierarchical}
+ * - encoding: "array" of JSON numbers, or "base64" of the little-endian float32 values
+ *
+ * Vectors are generated straight into float[] buffers and streamed, and an
+ * update reuses the vectors of the doc rather than generating them again.
  */
 public class HierarchicalVector implements DocTemplate {
 
-    // Vector configuration
-    private static final int VECTOR_DIMENSION = 128;
-    private static final int VECTORS_PER_DOC = 20;  // Fixed 20 vectors per document
-    private static final int NUM_DEPARTMENTS = 4;   // 4 departments
-    private static final int VECTORS_PER_DEPT = 5;  // 5 vectors per department
+    // Vector configuration defaults
+    public static final int DEFAULT_DIMENSION = 128;
+    public static final int DEFAULT_VECTORS_PER_DOC = 20;
+    private static final int VECTORS_PER_DEPT = 5;  // dept + 3 teams + 1 project
+    private static final int TEAMS_PER_DEPT = 3;
 
     // For shared vectors across documents
     private static final int VECTOR_POOL_SIZE = 100;
+    // Seeds of the shared and unique vector streams, kept apart so they never meet
+    private static final long SHARED_VECTORS = 0x5EED5AAEDL;
+    private static final long UNIQUE_VECTORS = 0x5EED0417EL;
 
     private static final List<String> DEPARTMENTS = Arrays.asList(
         "Engineering", "Sales", "Marketing", "HR"
@@ -48,39 +63,87 @@ public class HierarchicalVector implements DocTemplate {
         "Alice", "Bob", "Charlie", "David", "Eve", "Frank", "Grace", "Heidi"
     );
 
+    private final int dimension;
+    private final int vectorsPerDoc;
+    private final int nesting;
+    private final boolean base64;
+
+    public HierarchicalVector() {
+        this(DEFAULT_DIMENSION, DEFAULT_VECTORS_PER_DOC, 1, "array");
+    }
+
+    /**
+     * @param nesting array levels around the teams of a department, 1 for a plain array
+     * @param encoding "array" or "base64"
+     */
+    public HierarchicalVector(int dimension, int vectorsPerDoc, int nesting, String encoding) {
+        if (dimension <= 0 || vectorsPerDoc <= 0 || nesting <= 0) {
+            throw new IllegalArgumentException("Vector dimension, count and nesting must be positive: " + dimension
+                    + ", " + vectorsPerDoc + ", " + nesting);
+        }
+        if (!"array".equals(encoding) && !"base64".equals(encoding)) {
+            throw new IllegalArgumentException("Vector encoding must be array or base64, got " + encoding);
+        }
+        this.dimension = dimension;
+        this.vectorsPerDoc = vectorsPerDoc;
+        this.nesting = nesting;
+        this.base64 = "base64".equals(encoding);
+    }
+
     @Override
     public JsonObject createJsonObject(Faker faker, int docsize, int docId) {
-        JsonObject doc = JsonObject.create();
+        Object[] vectors = vectors(docId);
+        return JsonBytes.object(gen -> write(gen, faker, docId, vectors));
+    }
 
-        // Document metadata
-        doc.put("doc_id", docId);
-        doc.put("type", "hierarchical_vector");
+    @Override
+    public byte[] createJsonBytes(Faker faker, int docsize, int docId) {
+        Object[] vectors = vectors(docId);
+        return JsonBytes.write(gen -> write(gen, faker, docId, vectors));
+    }
+
+    /**
+     * Every vector of a doc generated once, it is written both at the root and in the hierarchy.
+     */
+    private Object[] vectors(int docId) {
+        Object[] vectors = new Object[vectorsPerDoc];
+        for (int i = 0; i < vectorsPerDoc; i++) {
+            float[] vector = new float[dimension];
+            fillVector(docId, i, vector);
+            vectors[i] = base64 ? encode(vector) : vector;
+        }
+        return vectors;
+    }
 
-        // Pre-generate all 20 vectors for this document as a FLAT array
-        JsonArray[] vectors = generateAllVectors(docId);
+    private void write(JsonGenerator gen, Faker faker, int docId, Object[] vectors) throws IOException {
+        gen.writeStartObject();
 
-        // ROOT LEVEL: embeddings - SINGLE flat array with 20 vectors (ground truth)
-        JsonArray embeddingsArray = JsonArray.create();
-        for (int i = 0; i < VECTORS_PER_DOC; i++) {
-            embeddingsArray.add(vectors[i]);
+        // Document metadata
+        gen.writeNumberField("doc_id", docId);
+        gen.writeStringField("type", "hierarchical_vector");
+
+        // ROOT LEVEL: embeddings - SINGLE flat array with all the vectors (ground truth)
+        gen.writeArrayFieldStart("embeddings");
+        for (Object vector : vectors) {
+            writeVector(gen, vector);
         }
-        doc.put("embeddings", embeddingsArray);
+        gen.writeEndArray();
 
         // NESTED STRUCTURE: company hierarchy with same vectors spread out
-        doc.put("company", createCompanyHierarchy(faker, docId, vectors));
-
-        return doc;
+        gen.writeFieldName("company");
+        writeCompanyHierarchy(gen, faker, docId, vectors);
+        gen.writeEndObject();
     }
 
     @Override
     public JsonObject updateJsonObject(Faker faker, JsonObject obj, List<String> fieldsToUpdate) {
         int docId = obj.getInt("doc_id");
-        JsonArray[] vectors = generateAllVectors(docId);
 
         if (fieldsToUpdate != null && !fieldsToUpdate.isEmpty() && !fieldsToUpdate.get(0).isEmpty()) {
             for (String field : fieldsToUpdate) {
                 if ("company".equals(field)) {
-                    obj.put("company", createCompanyHierarchy(faker, docId, vectors));
+                    Object[] vectors = currentVectors(obj, docId);
+                    obj.put("company", JsonBytes.object(gen -> writeCompanyHierarchy(gen, faker, docId, vectors)));
                 }
             }
         }
@@ -88,148 +151,202 @@ public class HierarchicalVector implements DocTemplate {
     }
 
     /**
-     * Pre-generates all 20 vectors for a document as a flat array
+     * Vectors of the root embeddings of a doc, as they are, or generated again for a doc without them.
      */
-    private JsonArray[] generateAllVectors(int docId) {
-        JsonArray[] vectors = new JsonArray[VECTORS_PER_DOC];
-
-        for (int i = 0; i < VECTORS_PER_DOC; i++) {
-            vectors[i] = generateVector(docId, i);
+    private Object[] currentVectors(JsonObject obj, int docId) {
+        JsonArray embeddings = obj.getArray("embeddings");
+        Object[] vectors = new Object[vectorsPerDoc];
+        for (int i = 0; i < vectorsPerDoc; i++) {
+            if (embeddings != null && i < embeddings.size()) {
+                vectors[i] = embeddings.get(i);
+            } else {
+                float[] vector = new float[dimension];
+                fillVector(docId, i, vector);
+                vectors[i] = base64 ? encode(vector) : vector;
+            }
         }
-
         return vectors;
     }
 
     /**
-     * Creates company hierarchy with vectors spread throughout
+     * Writes company hierarchy with vectors spread throughout
      *
-     * Vector distribution (20 vectors across 4 departments, 5 each):
+     * Vector distribution (5 per department):
      * - Department 0: embeddings[0] (dept) + embeddings[1-3] (teams) + embeddings[4] (project)
      * - Department 1: embeddings[5] (dept) + embeddings[6-8] (teams) + embeddings[9] (project)
-     * - Department 2: embeddings[10] (dept) + embeddings[11-13] (teams) + embeddings[14] (project)
-     * - Department 3: embeddings[15] (dept) + embeddings[16-18] (teams) + embeddings[19] (project)
+     * - ...
      */
-    private JsonObject createCompanyHierarchy(Faker faker, int docId, JsonArray[] vectors) {
-        JsonObject company = JsonObject.create();
-        company.put("id", "c" + docId);
-        company.put("name", faker.company().name());
-
-        // Create 4 departments, each with 5 vectors
-        JsonArray departments = JsonArray.create();
-
-        for (int deptIdx = 0; deptIdx < NUM_DEPARTMENTS; deptIdx++) {
-            int baseVectorIdx = deptIdx * VECTORS_PER_DEPT;  // 0, 5, 10, 15
-
-            JsonObject dept = JsonObject.create();
-            dept.put("dept_id", deptIdx);
-            dept.put("name", DEPARTMENTS.get(deptIdx));
-            dept.put("budget", faker.number().numberBetween(500000, 2000000));
-
-            // Department embedding: embeddings[baseVectorIdx] (0, 5, 10, 15)
-            dept.put("embedding", vectors[baseVectorIdx]);
+    private void writeCompanyHierarchy(JsonGenerator gen, Faker faker, int docId, Object[] vectors)
+            throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("id", "c" + docId);
+        gen.writeStringField("name", faker.company().name());
+
+        gen.writeArrayFieldStart("departments");
+        for (int deptIdx = 0; deptIdx * VECTORS_PER_DEPT < vectors.length; deptIdx++) {
+            int baseVectorIdx = deptIdx * VECTORS_PER_DEPT;  // 0, 5, 10, 15 ...
+            int deptVectors = Math.min(VECTORS_PER_DEPT, vectors.length - baseVectorIdx);
+
+            gen.writeStartObject();
+            gen.writeNumberField("dept_id", deptIdx);
+            gen.writeStringField("name", departmentName(deptIdx));
+            gen.writeNumberField("budget", faker.number().numberBetween(500000, 2000000));
+
+            // Department embedding: embeddings[baseVectorIdx] (0, 5, 10, 15 ...)
+            gen.writeFieldName("embedding");
+            writeVector(gen, vectors[baseVectorIdx]);
 
             // Teams array with embeddings: embeddings[baseVectorIdx + 1, 2, 3]
-            JsonArray teams = JsonArray.create();
-            for (int teamIdx = 0; teamIdx < 3; teamIdx++) {
-                JsonObject team = JsonObject.create();
-                team.put("team_id", teamIdx);
-                team.put("name", TEAM_TYPES.get(teamIdx) + " Team");
-                team.put("team_lead", FIRST_NAMES.get((docId + deptIdx + teamIdx) % FIRST_NAMES.size()));
+            gen.writeFieldName("teams");
+            for (int level = 0; level < nesting; level++) {
+                gen.writeStartArray();
+            }
+            for (int teamIdx = 0; teamIdx < Math.min(TEAMS_PER_DEPT, deptVectors - 1); teamIdx++) {
+                gen.writeStartObject();
+                gen.writeNumberField("team_id", teamIdx);
+                gen.writeStringField("name", TEAM_TYPES.get(teamIdx) + " Team");
+                gen.writeStringField("team_lead", FIRST_NAMES.get((docId + deptIdx + teamIdx) % FIRST_NAMES.size()));
 
                 // Team embedding: embeddings[baseVectorIdx + 1 + teamIdx]
-                team.put("embedding", vectors[baseVectorIdx + 1 + teamIdx]);
+                gen.writeFieldName("embedding");
+                writeVector(gen, vectors[baseVectorIdx + 1 + teamIdx]);
 
                 // Add some members (no embeddings, just for hierarchy depth)
-                JsonArray members = JsonArray.create();
+                gen.writeArrayFieldStart("members");
                 for (int m = 0; m < 2; m++) {
-                    JsonObject member = JsonObject.create();
-                    member.put("name", FIRST_NAMES.get((docId + m) % FIRST_NAMES.size()));
-                    member.put("role", teamIdx == 0 ? "Engineer" : "Analyst");
-                    members.add(member);
+                    gen.writeStartObject();
+                    gen.writeStringField("name", FIRST_NAMES.get((docId + m) % FIRST_NAMES.size()));
+                    gen.writeStringField("role", teamIdx == 0 ? "Engineer" : "Analyst");
+                    gen.writeEndObject();
                 }
-                team.put("members", members);
-
-                teams.add(team);
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            for (int level = 0; level < nesting; level++) {
+                gen.writeEndArray();
             }
-            dept.put("teams", teams);
 
             // Projects array with embedding: embeddings[baseVectorIdx + 4]
-            JsonArray projects = JsonArray.create();
-            JsonObject project = JsonObject.create();
-            project.put("project_id", 0);
-            project.put("title", "Project " + DEPARTMENTS.get(deptIdx).charAt(0));
-            project.put("status", "ongoing");
-            // Project embedding: embeddings[baseVectorIdx + 4] (4, 9, 14, 19)
-            project.put("embedding", vectors[baseVectorIdx + 4]);
-            projects.add(project);
-            dept.put("projects", projects);
-
-            departments.add(dept);
+            gen.writeArrayFieldStart("projects");
+            if (deptVectors == VECTORS_PER_DEPT) {
+                gen.writeStartObject();
+                gen.writeNumberField("project_id", 0);
+                gen.writeStringField("title", "Project " + DEPARTMENTS.get(deptIdx % DEPARTMENTS.size()).charAt(0));
+                gen.writeStringField("status", "ongoing");
+                // Project embedding: embeddings[baseVectorIdx + 4] (4, 9, 14, 19 ...)
+                gen.writeFieldName("embedding");
+                writeVector(gen, vectors[baseVectorIdx + 4]);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
         }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
 
-        company.put("departments", departments);
+    /**
+     * Engineering, Sales, Marketing, HR, then Engineering 2, Sales 2 ... past 4 departments.
+     */
+    private static String departmentName(int deptIdx) {
+        String name = DEPARTMENTS.get(deptIdx % DEPARTMENTS.size());
+        return deptIdx < DEPARTMENTS.size() ? name : name + " " + (deptIdx / DEPARTMENTS.size() + 1);
+    }
 
-        return company;
+    /**
+     * Writes a generated float[] in the template's encoding, or a vector read
+     * from a doc (array or base64 string) as it is.
+     */
+    private static void writeVector(JsonGenerator gen, Object vector) throws IOException {
+        if (vector instanceof float[]) {
+            gen.writeStartArray();
+            for (float value : (float[]) vector) {
+                // The double of the 6 decimals: the same digits as the float, and the value parsing them gives
+                gen.writeNumber(Math.round(value * 1e6) / 1e6);
+            }
+            gen.writeEndArray();
+        } else if (vector instanceof JsonArray) {
+            gen.writeStartArray();
+            for (Object value : (JsonArray) vector) {
+                gen.writeNumber(((Number) value).doubleValue());
+            }
+            gen.writeEndArray();
+        } else {
+            gen.writeString((String) vector);
+        }
     }
 
     /**
-     * Generates a deterministic 128-dimensional vector based on position.
+     * Fills vector with the deterministic values of a position, one per dimension.
      *
      * Sharing logic:
      * - 70% of vectors are unique to the document
-     * - 30% of vectors are shared across documents (based on position only)
+     * - 30% of vectors are shared across documents (based on position and docId % 100 only)
+     *
+     * Values are in [-1, 1) with 6 decimals, the same whatever the encoding.
      */
-    private JsonArray generateVector(int docId, int vectorIdx) {
-        long seed;
-
-        boolean isShared = (vectorIdx % 10) < 3; // 30% chance of being shared
-
-        if (isShared) {
-            // Shared vector: seed based only on position (not doc_id)
-            seed = (long) vectorIdx * 10000 + (docId % VECTOR_POOL_SIZE);
-        } else {
-            // Unique vector: seed based on doc_id AND position
-            seed = (long) docId * 1000000 + vectorIdx * 100;
-        }
-
-        Random vectorRandom = new Random(seed);
-        JsonArray embedding = JsonArray.create();
+    public static void fillVector(int docId, int vectorIdx, float[] vector) {
+        fillVector(docId, vectorIdx, vector, 0, vector.length);
+    }
 
-        for (int d = 0; d < VECTOR_DIMENSION; d++) {
-            double value = (vectorRandom.nextDouble() * 2) - 1;
-            value = Math.round(value * 1000000.0) / 1000000.0;
-            embedding.add(value);
+    /**
+     * Fills vector[offset, offset + dimension), to generate many vectors into one buffer.
+     */
+    public static void fillVector(int docId, int vectorIdx, float[] vector, int offset, int dimension) {
+        long state = isSharedVector(vectorIdx)
+                ? DocGenerator.seed(SHARED_VECTORS, vectorIdx, docId % VECTOR_POOL_SIZE)
+                : DocGenerator.seed(UNIQUE_VECTORS, docId, vectorIdx);
+        for (int d = offset; d < offset + dimension; d++) {
+            // SplitMix64, no Random and no boxing per value
+            state += 0x9E3779B97F4A7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            z = z ^ (z >>> 31);
+            float value = (z >>> 40) * 0x1.0p-24f * 2 - 1;
+            vector[d] = Math.round(value * 1000000f) / 1000000f;
         }
-
-        return embedding;
     }
 
     /**
      * Utility method to regenerate a specific vector for ground truth validation.
      *
      * @param docId Document ID
-     * @param vectorIdx Vector index (0-19)
-     * @return The expected 128-dimensional vector as double array
+     * @param vectorIdx Vector index
+     * @param dimension Vector dimension of the load
+     * @return The expected vector
      */
-    public static double[] getExpectedVector(int docId, int vectorIdx) {
-        long seed;
-
-        boolean isShared = (vectorIdx % 10) < 3;
+    public static float[] getExpectedVector(int docId, int vectorIdx, int dimension) {
+        float[] vector = new float[dimension];
+        fillVector(docId, vectorIdx, vector);
+        return vector;
+    }
 
-        if (isShared) {
-            seed = (long) vectorIdx * 10000 + (docId % VECTOR_POOL_SIZE);
-        } else {
-            seed = (long) docId * 1000000 + vectorIdx * 100;
+    /**
+     * Expected vector of a load with the default dimension.
+     */
+    public static double[] getExpectedVector(int docId, int vectorIdx) {
+        float[] vector = getExpectedVector(docId, vectorIdx, DEFAULT_DIMENSION);
+        double[] values = new double[vector.length];
+        for (int d = 0; d < vector.length; d++) {
+            values[d] = vector[d];
         }
+        return values;
+    }
 
-        Random vectorRandom = new Random(seed);
-        double[] vector = new double[VECTOR_DIMENSION];
-
-        for (int d = 0; d < VECTOR_DIMENSION; d++) {
-            double value = (vectorRandom.nextDouble() * 2) - 1;
-            vector[d] = Math.round(value * 1000000.0) / 1000000.0;
-        }
+    /**
+     * Base64 of the little-endian float32 values.
+     */
+    public static String encode(float[] vector) {
+        ByteBuffer bytes = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asFloatBuffer().put(vector);
+        return Base64.getEncoder().encodeToString(bytes.array());
+    }
 
+    public static float[] decode(String base64) {
+        ByteBuffer bytes = ByteBuffer.wrap(Base64.getDecoder().decode(base64)).order(ByteOrder.LITTLE_ENDIAN);
+        float[] vector = new float[bytes.remaining() / Float.BYTES];
+        bytes.asFloatBuffer().get(vector);
         return vector;
     }
 
@@ -237,8 +354,8 @@ public class HierarchicalVector implements DocTemplate {
         return (vectorIdx % 10) < 3;
     }
 
-    public static int getVectorDimension() { return VECTOR_DIMENSION; }
-    public static int getVectorsPerDoc() { return VECTORS_PER_DOC; }
-    public static int getNumDepartments() { return NUM_DEPARTMENTS; }
+    public int getVectorDimension() { return dimension; }
+    public int getVectorsPerDoc() { return vectorsPerDoc; }
+    public int getNumDepartments() { return (vectorsPerDoc + VECTORS_PER_DEPT - 1) / VECTORS_PER_DEPT; }
     public static int getVectorsPerDept() { return VECTORS_PER_DEPT; }
 }
@@ -1,6 +1,7 @@
 package com.couchbase.javaclient.doc;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
@@ -8,10 +9,11 @@ import java.util.Date;
 import java.util.ArrayList;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.time.format.DateTimeFormatter;
 
 import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.MutateInSpec;
 import com.github.javafaker.Faker;
 
 //{
@@ -63,20 +65,24 @@ import com.github.javafaker.Faker;
 //}
 
 public class Hotel implements DocTemplate {
-	JsonObject jsonObject = JsonObject.create();
+
+	private static final LocalDateTime REVIEWS_FROM = LocalDateTime.of(2015, 1, 1, 0, 0);
+	private static final long REVIEWS_SPAN_SECONDS = TimeUnit.DAYS.toSeconds(365 * 5);
+	private static final DateTimeFormatter REVIEW_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
 	public JsonObject createJsonObject(Faker faker, int docsize, int id) {
+		JsonObject jsonObject = JsonObject.create();
 		HotelDetails hdetails = new HotelDetails(faker);
 		jsonObject.put("address", faker.address().streetAddress());
 		jsonObject.put("city", faker.address().city());
 		jsonObject.put("country", faker.address().country());
 		jsonObject.put("email", hdetails.getEmail());
-		jsonObject.put("free_breakfast", ThreadLocalRandom.current().nextBoolean());
-		jsonObject.put("free_parking", ThreadLocalRandom.current().nextBoolean());
+		jsonObject.put("free_breakfast", faker.random().nextBoolean());
+		jsonObject.put("free_parking", faker.random().nextBoolean());
 		jsonObject.put("name", hdetails.getName());
 		jsonObject.put("phone", faker.phoneNumber().phoneNumber());
-		jsonObject.put("price", (float) ThreadLocalRandom.current().nextInt(500, 2000));
-		jsonObject.put("avg_rating", (float) ThreadLocalRandom.current().nextInt(1, 5));
+		jsonObject.put("price", (float) (500 + faker.random().nextInt(1500)));
+		jsonObject.put("avg_rating", (float) (1 + faker.random().nextInt(4)));
 		jsonObject.put("public_likes", hdetails.getLikesArray());
 		jsonObject.put("reviews", hdetails.getReviewsArray());
 		jsonObject.put("type", hdetails.getType());
@@ -99,10 +105,10 @@ public class Hotel implements DocTemplate {
 			obj.put("email", hdetails.getEmail());
 		}
 		if(fieldsToUpdate.contains("free_breakfast")){
-			obj.put("free_breakfast", ThreadLocalRandom.current().nextBoolean());
+			obj.put("free_breakfast", faker.random().nextBoolean());
 		}
 		if(fieldsToUpdate.contains("free_parking")){
-			obj.put("free_parking", ThreadLocalRandom.current().nextBoolean());
+			obj.put("free_parking", faker.random().nextBoolean());
 		}
 		if(fieldsToUpdate.contains("name")){
 			obj.put("name", hdetails.getName());
@@ -111,10 +117,10 @@ public class Hotel implements DocTemplate {
 			obj.put("phone", faker.phoneNumber().phoneNumber());
 		}
 		if(fieldsToUpdate.contains("price")){
-			obj.put("price", (float) ThreadLocalRandom.current().nextInt(500, 2000));
+			obj.put("price", (float) (500 + faker.random().nextInt(1500)));
 		}
 		if(fieldsToUpdate.contains("avg_rating")){
-			obj.put("avg_rating", (float) ThreadLocalRandom.current().nextInt(1, 5));
+			obj.put("avg_rating", (float) (1 + faker.random().nextInt(4)));
 		}
 		if(fieldsToUpdate.contains("public_likes")){
 			obj.put("public_likes", hdetails.getLikesArray());
@@ -131,6 +137,77 @@ public class Hotel implements DocTemplate {
 		return obj;
 	}
 
+	/**
+	 * The changes of updateJsonObject, except that public_likes and reviews get
+	 * one new entry appended instead of being replaced.
+	 */
+	@Override
+	public List<MutateInSpec> updateSpecs(Faker faker, List<String> fieldsToUpdate) {
+		// Only the fields derived from the hotel's name, not its likes and reviews
+		HotelDetails hdetails = fieldsToUpdate.contains("email") || fieldsToUpdate.contains("name")
+				|| fieldsToUpdate.contains("type") ? new HotelDetails(faker, false) : null;
+		List<MutateInSpec> specs = new ArrayList<>();
+		if(fieldsToUpdate.contains("address")){
+			specs.add(MutateInSpec.upsert("address", faker.address().streetAddress()));
+		}
+		if(fieldsToUpdate.contains("city")){
+			specs.add(MutateInSpec.upsert("city", faker.address().city()));
+		}
+		if(fieldsToUpdate.contains("country")){
+			specs.add(MutateInSpec.upsert("country", faker.address().country()));
+		}
+		if(fieldsToUpdate.contains("email")){
+			specs.add(MutateInSpec.upsert("email", hdetails.getEmail()));
+		}
+		if(fieldsToUpdate.contains("free_breakfast")){
+			specs.add(MutateInSpec.upsert("free_breakfast", faker.random().nextBoolean()));
+		}
+		if(fieldsToUpdate.contains("free_parking")){
+			specs.add(MutateInSpec.upsert("free_parking", faker.random().nextBoolean()));
+		}
+		if(fieldsToUpdate.contains("name")){
+			specs.add(MutateInSpec.upsert("name", hdetails.getName()));
+		}
+		if(fieldsToUpdate.contains("phone")){
+			specs.add(MutateInSpec.upsert("phone", faker.phoneNumber().phoneNumber()));
+		}
+		if(fieldsToUpdate.contains("price")){
+			specs.add(MutateInSpec.upsert("price", (float) (500 + faker.random().nextInt(1500))));
+		}
+		if(fieldsToUpdate.contains("avg_rating")){
+			specs.add(MutateInSpec.upsert("avg_rating", (float) (1 + faker.random().nextInt(4))));
+		}
+		if(fieldsToUpdate.contains("public_likes")){
+			specs.add(MutateInSpec.arrayAppend("public_likes", Collections.singletonList(faker.name().fullName()))
+					.createPath());
+		}
+		if(fieldsToUpdate.contains("reviews")){
+			LocalDateTime date = REVIEWS_FROM.plusSeconds(faker.random().nextLong(REVIEWS_SPAN_SECONDS));
+			specs.add(MutateInSpec.arrayAppend("reviews", Collections.singletonList(review(faker, date))).createPath());
+		}
+		if(fieldsToUpdate.contains("type")){
+			specs.add(MutateInSpec.upsert("type", hdetails.getType()));
+		}
+		if(fieldsToUpdate.contains("url")){
+			specs.add(MutateInSpec.upsert("url", faker.internet().url()));
+		}
+		return specs;
+	}
+
+	private static JsonObject review(Faker faker, LocalDateTime date) {
+		JsonObject review = JsonObject.create();
+		review.put("author", faker.name().fullName());
+		review.put("date", date.format(REVIEW_DATE));
+		JsonObject ratings = JsonObject.create();
+		ratings.put("Check in / front desk", 1 + faker.random().nextInt(4));
+		ratings.put("Cleanliness", 1 + faker.random().nextInt(4));
+		ratings.put("Overall", 1 + faker.random().nextInt(4));
+		ratings.put("Rooms", 1 + faker.random().nextInt(4));
+		ratings.put("Value", 1 + faker.random().nextInt(4));
+		review.put("ratings", ratings);
+		return review;
+	}
+
 	private class HotelDetails {
 		private String name;
 		private Object email;
@@ -144,14 +221,23 @@ public class Hotel implements DocTemplate {
 		private Faker faker;
 
 		public HotelDetails(Faker faker) {
+			this(faker, true);
+		}
+
+		/**
+		 * @param withLists false to leave the likes and reviews empty
+		 */
+		public HotelDetails(Faker faker, boolean withLists) {
 			this.faker = faker;
 			this.firstName = faker.name().firstName();
 			this.lastName = faker.name().lastName();
 			this.setType();
 			this.setName();
 			this.setEmail();
-			this.setLikesArray();
-			this.setReviewsArray();
+			if (withLists) {
+				this.setLikesArray();
+				this.setReviewsArray();
+			}
 		}
 
 		public void setName() {
@@ -159,7 +245,7 @@ public class Hotel implements DocTemplate {
 		}
 
 		public void setType() {
-			int rindex = ThreadLocalRandom.current().nextInt(htypes.size());
+			int rindex = faker.random().nextInt(htypes.size());
 			this.type = htypes.get(rindex);
 		}
 
@@ -167,32 +253,23 @@ public class Hotel implements DocTemplate {
 			emails.add(null);
 			emails.add(firstName + '.' + lastName + "@hotels.com");
 			emails.add(lastName + '.' + firstName + "@hotels.com");
-			int rindex = ThreadLocalRandom.current().nextInt(emails.size());
+			int rindex = faker.random().nextInt(emails.size());
 			this.email = emails.get(rindex);
 		}
 
 		public void setLikesArray() {
-			int numLikes = ThreadLocalRandom.current().nextInt(0, 10);
+			int numLikes = faker.random().nextInt(10);
 			for (int n = 0; n <= numLikes; n++) {
 				this.likes.add(faker.name().fullName());
 			}
 		}
 
 		public void setReviewsArray() {
-			int numReviews = ThreadLocalRandom.current().nextInt(0, 10);
-			LocalDateTime now = LocalDateTime.now();
+			int numReviews = faker.random().nextInt(10);
+			// Not the current time, a seeded doc must not depend on when it is made
+			LocalDateTime first = REVIEWS_FROM.plusSeconds(faker.random().nextLong(REVIEWS_SPAN_SECONDS));
 			for (int n = 0; n <= numReviews; n++) {
-				JsonObject review = JsonObject.create();
-				review.put("author", faker.name().fullName());
-				review.put("date", now.plus(n, ChronoUnit.WEEKS).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-				JsonObject ratings = JsonObject.create();
-				ratings.put("Check in / front desk", ThreadLocalRandom.current().nextInt(1, 5));
-				ratings.put("Cleanliness", ThreadLocalRandom.current().nextInt(1, 5));
-				ratings.put("Overall", ThreadLocalRandom.current().nextInt(1, 5));
-				ratings.put("Rooms", ThreadLocalRandom.current().nextInt(1, 5));
-				ratings.put("Value", ThreadLocalRandom.current().nextInt(1, 5));
-				review.put("ratings", ratings);
-				this.reviews.add(review);
+				this.reviews.add(review(faker, first.plus(n, ChronoUnit.WEEKS)));
 			}
 		}
 
@@ -0,0 +1,321 @@
+package com.couchbase.javaclient.doc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+
+/**
+ * Writes a doc straight to JSON bytes with a streaming generator, no JsonObject
+ * tree in between. Buffers are borrowed from a pool for the length of a write
+ * and keep their capacity, so a doc costs one exact size byte[] for the SDK.
+ *
+ * The same writer can build the JsonObject instead, for the templates that
+ * also hand out JsonObjects, without encoding the doc and parsing it back.
+ */
+public final class JsonBytes {
+
+	private static final JsonFactory factory = new JsonFactory();
+	private static final ConcurrentLinkedDeque<Buffer> idle = new ConcurrentLinkedDeque<>();
+
+	public interface Writer {
+		void write(JsonGenerator gen) throws IOException;
+	}
+
+	private JsonBytes() {
+	}
+
+	public static byte[] write(Writer writer) {
+		Buffer buffer = idle.pollFirst();
+		if (buffer == null) {
+			buffer = new Buffer();
+		}
+		try {
+			try (JsonGenerator gen = factory.createGenerator(buffer)) {
+				writer.write(gen);
+			}
+			return buffer.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			buffer.reset();
+			idle.offerFirst(buffer);
+		}
+	}
+
+	/**
+	 * Builds the root object written by the writer as a JsonObject. The JSON is
+	 * still encoded, to count its bytes for {@link #written(JsonGenerator)}, but
+	 * only counted, never kept nor parsed.
+	 */
+	public static JsonObject object(Writer writer) {
+		Counter counter = new Counter();
+		try (TreeGenerator gen = new TreeGenerator(factory.createGenerator(counter))) {
+			writer.write(gen);
+			return gen.root;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Bytes written so far by a generator of {@link #write(Writer)} or {@link #object(Writer)}, for size targeting.
+	 */
+	public static int written(JsonGenerator gen) {
+		Object target = gen.getOutputTarget();
+		int flushed = target instanceof Counter ? ((Counter) target).count : ((Buffer) target).size();
+		return flushed + gen.getOutputBuffered();
+	}
+
+	/**
+	 * Text cut or repeated to exactly length chars, to fill the last bytes of a
+	 * size targeted doc. The text must be plain ASCII so a char is one byte.
+	 */
+	public static String pad(String text, int length) {
+		if (length <= 0) {
+			return "";
+		}
+		if (text.isEmpty()) {
+			text = " ";
+		}
+		StringBuilder padded = new StringBuilder(length);
+		while (padded.length() < length) {
+			padded.append(text, 0, Math.min(text.length(), length - padded.length()));
+		}
+		return padded.toString();
+	}
+
+	private static final class Buffer extends ByteArrayOutputStream {
+		Buffer() {
+			super(16 * 1024);
+		}
+	}
+
+	private static final class Counter extends OutputStream {
+		private int count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+
+	/**
+	 * Mirrors the structure and value writes of a template into a JsonObject
+	 * tree, with the value types a parse of the bytes would give: ints where
+	 * they fit, doubles for fractions. Raw values are parsed, they are small
+	 * constants such as the values of an enum.
+	 */
+	private static final class TreeGenerator extends JsonGeneratorDelegate {
+		// Open objects and arrays, innermost first
+		private final Deque<Object> open = new ArrayDeque<>();
+		private String field;
+		private JsonObject root;
+
+		TreeGenerator(JsonGenerator gen) {
+			super(gen, false);
+		}
+
+		private void add(Object value) {
+			Object parent = open.peekFirst();
+			if (parent instanceof JsonObject) {
+				if (value == null) {
+					((JsonObject) parent).putNull(field);
+				} else {
+					((JsonObject) parent).put(field, value);
+				}
+			} else if (parent instanceof JsonArray) {
+				if (value == null) {
+					((JsonArray) parent).addNull();
+				} else {
+					((JsonArray) parent).add(value);
+				}
+			}
+		}
+
+		private static Object number(long v) {
+			if (v == (int) v) {
+				return (int) v;
+			}
+			return v;
+		}
+
+		@Override
+		public void writeStartObject() throws IOException {
+			super.writeStartObject();
+			JsonObject obj = JsonObject.create();
+			if (open.isEmpty() && root == null) {
+				root = obj;
+			} else {
+				add(obj);
+			}
+			open.addFirst(obj);
+		}
+
+		@Override
+		public void writeStartArray() throws IOException {
+			super.writeStartArray();
+			JsonArray array = JsonArray.create();
+			add(array);
+			open.addFirst(array);
+		}
+
+		@Override
+		public void writeEndObject() throws IOException {
+			super.writeEndObject();
+			open.removeFirst();
+		}
+
+		@Override
+		public void writeEndArray() throws IOException {
+			super.writeEndArray();
+			open.removeFirst();
+		}
+
+		@Override
+		public void writeFieldName(String name) throws IOException {
+			super.writeFieldName(name);
+			field = name;
+		}
+
+		@Override
+		public void writeFieldName(SerializableString name) throws IOException {
+			super.writeFieldName(name);
+			field = name.getValue();
+		}
+
+		@Override
+		public void writeString(String text) throws IOException {
+			super.writeString(text);
+			add(text);
+		}
+
+		@Override
+		public void writeString(char[] text, int offset, int len) throws IOException {
+			super.writeString(text, offset, len);
+			add(new String(text, offset, len));
+		}
+
+		@Override
+		public void writeNumber(int v) throws IOException {
+			super.writeNumber(v);
+			add(v);
+		}
+
+		@Override
+		public void writeNumber(long v) throws IOException {
+			super.writeNumber(v);
+			add(number(v));
+		}
+
+		@Override
+		public void writeNumber(String encodedValue) throws IOException {
+			super.writeNumber(encodedValue);
+			add(parse(encodedValue));
+		}
+
+		@Override
+		public void writeNumber(double v) throws IOException {
+			super.writeNumber(v);
+			add(v);
+		}
+
+		@Override
+		public void writeNumber(float v) throws IOException {
+			super.writeNumber(v);
+			// The double of the digits written, as parsing the bytes gives, not the float's exact binary value
+			add(Double.parseDouble(Float.toString(v)));
+		}
+
+		@Override
+		public void writeBoolean(boolean state) throws IOException {
+			super.writeBoolean(state);
+			add(state);
+		}
+
+		@Override
+		public void writeNull() throws IOException {
+			super.writeNull();
+			add(null);
+		}
+
+		@Override
+		public void writeRawValue(String text) throws IOException {
+			super.writeRawValue(text);
+			add(parse(text));
+		}
+
+		/**
+		 * The tree value of one JSON value.
+		 */
+		private static Object parse(String json) throws IOException {
+			try (JsonParser parser = factory.createParser(json)) {
+				return value(parser, parser.nextToken());
+			}
+		}
+
+		private static Object value(JsonParser parser, JsonToken token) throws IOException {
+			if (token == null) {
+				throw new JsonParseException(parser, "No JSON value");
+			}
+			switch (token) {
+			case START_OBJECT:
+				JsonObject obj = JsonObject.create();
+				for (token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+					String name = parser.getCurrentName();
+					Object value = value(parser, parser.nextToken());
+					if (value == null) {
+						obj.putNull(name);
+					} else {
+						obj.put(name, value);
+					}
+				}
+				return obj;
+			case START_ARRAY:
+				JsonArray array = JsonArray.create();
+				for (token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+					Object value = value(parser, token);
+					if (value == null) {
+						array.addNull();
+					} else {
+						array.add(value);
+					}
+				}
+				return array;
+			case VALUE_STRING:
+				return parser.getText();
+			case VALUE_NUMBER_INT:
+				return parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER ? parser.getBigIntegerValue()
+						: number(parser.getLongValue());
+			case VALUE_NUMBER_FLOAT:
+				return parser.getDoubleValue();
+			case VALUE_TRUE:
+				return true;
+			case VALUE_FALSE:
+				return false;
+			case VALUE_NULL:
+				return null;
+			default:
+				throw new JsonParseException(parser, "Unexpected " + token);
+			}
+		}
+	}
+}
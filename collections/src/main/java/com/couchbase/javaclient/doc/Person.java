@@ -1,30 +1,78 @@
 package com.couchbase.javaclient.doc;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.Random;
 
 import com.couchbase.client.java.json.JsonObject;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.github.javafaker.Faker;
 
 public class Person implements DocTemplate{
-	JsonObject jsonObject = JsonObject.create();
-	Random random = new Random();
+	private static final int FILLER_BATCH = 64;
+	// Filler of a target compression ratio, null for lorem words
+	private final Compression compression;
+
+	public Person() {
+		this(null);
+	}
+
+	public Person(Compression compression) {
+		this.compression = compression;
+	}
 
 	public JsonObject createJsonObject(Faker faker, int docsize, int id) {
-		jsonObject.put("firstName", faker.name().firstName());
-		jsonObject.put("lastName", faker.name().lastName());
-		jsonObject.put("title", faker.name().title());
-		jsonObject.put("suffix", faker.name().suffix());
-		jsonObject.put("streetAddress", faker.address().streetAddress());
-		jsonObject.put("city", faker.address().city());
-		jsonObject.put("country", faker.address().country());
-		jsonObject.put("age", random.nextInt(70));
-		int count = 0;
-		do {
-			count = count + 1;
-			jsonObject.put("filler" + count, faker.lorem().words(docsize / 10));
-		} while (jsonObject.toString().length() < docsize);
-		return jsonObject;
+		JsonObject doc = JsonBytes.object(gen -> write(gen, faker, docsize));
+		return compression != null ? compression.sample(doc) : doc;
+	}
+
+	@Override
+	public byte[] createJsonBytes(Faker faker, int docsize, int id) {
+		byte[] doc = JsonBytes.write(gen -> write(gen, faker, docsize));
+		return compression != null ? compression.sample(doc) : doc;
+	}
+
+	private void write(JsonGenerator gen, Faker faker, int docsize) throws IOException {
+		gen.writeStartObject();
+		gen.writeStringField("firstName", faker.name().firstName());
+		gen.writeStringField("lastName", faker.name().lastName());
+		gen.writeStringField("title", faker.name().title());
+		gen.writeStringField("suffix", faker.name().suffix());
+		gen.writeStringField("streetAddress", faker.address().streetAddress());
+		gen.writeStringField("city", faker.address().city());
+		gen.writeStringField("country", faker.address().country());
+		gen.writeNumberField("age", faker.random().nextInt(70));
+		// ,"filler1":[] and the closing brace
+		if (JsonBytes.written(gen) + 15 < docsize) {
+			gen.writeArrayFieldStart("filler1");
+			writeFillerWords(gen, faker, docsize);
+			gen.writeEndArray();
+		}
+		gen.writeEndObject();
+	}
+
+	/**
+	 * Words until the next one would pass docsize, then one last word cut to the
+	 * bytes left, so the doc lands on docsize in one pass.
+	 */
+	private void writeFillerWords(JsonGenerator gen, Faker faker, int docsize) throws IOException {
+		boolean first = true;
+		while (true) {
+			List<String> words = compression != null ? compression.chunks(faker.random(), FILLER_BATCH)
+					: faker.lorem().words(FILLER_BATCH);
+			for (String word : words) {
+				// "]}" close the doc, a word costs its quotes and a comma, and the
+				// last word also takes the bytes too few for another one
+				int room = docsize - JsonBytes.written(gen) - 2 - (first ? 2 : 3);
+				if (word.length() > room - 3) {
+					if (room >= 0) {
+						gen.writeString(JsonBytes.pad(word, room));
+					}
+					return;
+				}
+				gen.writeString(word);
+				first = false;
+			}
+		}
 	}
 
 	@Override
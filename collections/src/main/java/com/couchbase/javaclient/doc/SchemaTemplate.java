@@ -0,0 +1,672 @@
+package com.couchbase.javaclient.doc;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.MutateInSpec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.javafaker.Faker;
+import com.github.javafaker.service.RandomService;
+
+/**
+ * A doc template described in a schema file (--template_file) instead of a
+ * Java class, registered under its name:
+ *
+ * <pre>
+ * {
+ *   "name": "Order",
+ *   "update": ["status", { "field": "total", "op": "increment", "by": 5 }],
+ *   "fields": {
+ *     "orderId":  { "type": "id", "prefix": "order_" },
+ *     "customer": { "type": "object", "fields": {
+ *         "name":  { "type": "faker", "method": "name.fullName" },
+ *         "email": { "type": "faker", "method": "internet.emailAddress", "optional": 0.3 } } },
+ *     "status":   { "type": "enum", "values": ["new", "paid", "shipped"] },
+ *     "total":    { "type": "double", "min": 1, "max": 500, "decimals": 2 },
+ *     "items":    { "type": "array", "min": 1, "max": 5, "items": { "type": "object", "fields": {
+ *         "sku": { "type": "string", "min": 8, "max": 8 }, "qty": { "type": "int", "min": 1, "max": 9 } } } },
+ *     "created":  { "type": "date", "from": "2020-01-01", "to": "2021-01-01" },
+ *     "notes":    { "type": "text", "min": 5, "max": 40, "null": 0.5 },
+ *     "filler":   "filler"
+ *   }
+ * }
+ * </pre>
+ *
+ * Field types: id (prefix), int and double (min, max, decimals), bool (p), enum
+ * (values), const (value), string (min, max chars, prefix), text (min, max
+ * words), uuid, date (from, to, format iso|epoch|epoch_millis), faker (method,
+ * a chain of no-arg Faker calls), object (fields), array (min, max, items) and
+ * filler. A type alone can be given as a string. Any field can be "optional"
+ * (share of docs without it) or "null" (share of docs where it is null).
+ *
+ * A filler field, last of the top level, takes the bytes left to the doc size
+ * (--size, or its own "size"). Updates change the "update" fields, or
+ * regenerate the --fields_to_update ones that are top level fields. An update
+ * field is a name, regenerated, or an object with an "op": set (regenerated),
+ * append (a new item added to an array field) or increment (an int field
+ * increased "by", default 1). With --update_mode subdoc these are sent as the
+ * matching sub-document mutations.
+ *
+ * The schema is compiled once into a tree of field writers, with names
+ * serialized and Faker methods resolved up front, that stream a doc to JSON
+ * bytes, or build its JsonObject without encoding it (JsonBytes.object),
+ * drawing from the Faker's random, so seeded runs work as with the Java
+ * templates. File and field errors are reported with the field path.
+ */
+public class SchemaTemplate implements DocTemplate {
+
+	private static final ObjectMapper mapper = new ObjectMapper().configure(JsonParser.Feature.ALLOW_COMMENTS, true);
+	private static final String[] WORDS = { "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing",
+			"elit", "sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua",
+			"enim", "ad", "minim", "veniam", "quis", "nostrud", "exercitation", "ullamco", "laboris", "nisi",
+			"aliquip", "ex", "ea", "commodo", "consequat", "duis", "aute", "irure", "in", "reprehenderit",
+			"voluptate", "velit", "esse", "cillum", "fugiat", "nulla", "pariatur" };
+	// 64 chars, so a random long makes 10 of them
+	private static final char[] CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-_".toCharArray();
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	private static final ThreadLocal<char[]> scratch = ThreadLocal.withInitial(() -> new char[1024]);
+
+	private final String name;
+	private final Member[] members;
+	private final Member filler;
+	private final int fillerSize;
+	private final List<Update> updates;
+	private final Compression compression;
+
+	private SchemaTemplate(String name, Member[] members, Member filler, int fillerSize, List<Update> updates,
+			Compression compression) {
+		this.name = name;
+		this.members = members;
+		this.filler = filler;
+		this.fillerSize = fillerSize;
+		this.updates = updates;
+		this.compression = compression;
+	}
+
+	public String name() {
+		return name;
+	}
+
+	/**
+	 * Name of the field filling docs up to the doc size, or null.
+	 */
+	public String fillerField() {
+		return filler != null ? filler.name.getValue() : null;
+	}
+
+	/**
+	 * The same template with filler made for a compression ratio.
+	 */
+	public SchemaTemplate withCompression(Compression compression) {
+		return new SchemaTemplate(name, members, filler, fillerSize, updates, compression);
+	}
+
+	@Override
+	public JsonObject createJsonObject(Faker faker, int docsize, int id) {
+		Context context = new Context(faker, id);
+		JsonObject doc = JsonBytes.object(gen -> write(gen, context, docsize));
+		return compression != null ? compression.sample(doc) : doc;
+	}
+
+	@Override
+	public byte[] createJsonBytes(Faker faker, int docsize, int id) {
+		Context context = new Context(faker, id);
+		byte[] doc = JsonBytes.write(gen -> write(gen, context, docsize));
+		return compression != null ? compression.sample(doc) : doc;
+	}
+
+	private void write(JsonGenerator gen, Context context, int docsize) throws IOException {
+		gen.writeStartObject();
+		for (Member member : members) {
+			member.write(gen, context);
+		}
+		if (filler != null) {
+			writeFiller(gen, context, fillerSize > 0 ? fillerSize : docsize);
+		}
+		gen.writeEndObject();
+	}
+
+	/**
+	 * One string field taking the bytes left before the closing brace, if any.
+	 */
+	private void writeFiller(JsonGenerator gen, Context context, int docsize) throws IOException {
+		// A comma after earlier fields, the quoted name and colon, the value's quotes and "}"
+		int overhead = (gen.getOutputContext().getEntryCount() > 0 ? 1 : 0) + filler.name.charLength() + 3 + 2 + 1;
+		int room = docsize - JsonBytes.written(gen) - overhead;
+		if (room <= 0) {
+			return;
+		}
+		gen.writeFieldName(filler.name);
+		if (compression != null) {
+			gen.writeString(compression.filler(context.random, room));
+		} else {
+			char[] text = context.scratch(room);
+			int length = 0;
+			while (length < room) {
+				String word = WORDS[context.random.nextInt(WORDS.length)];
+				int take = Math.min(word.length(), room - length);
+				word.getChars(0, take, text, length);
+				length += take;
+				if (length < room) {
+					text[length++] = ' ';
+				}
+			}
+			gen.writeString(text, 0, room);
+		}
+	}
+
+	@Override
+	public JsonObject updateJsonObject(Faker faker, JsonObject obj, List<String> fieldsToUpdate) {
+		List<Update> updated = updates(fieldsToUpdate);
+		if (updated.isEmpty()) {
+			return obj;
+		}
+		JsonObject fresh = values(faker, updated, false);
+		for (Update update : updated) {
+			String field = update.member.name.getValue();
+			switch (update.op) {
+			case Update.APPEND:
+				JsonArray array = obj.getArray(field);
+				obj.put(field, (array != null ? array : JsonArray.create()).add(fresh.get(field)));
+				break;
+			case Update.INCREMENT:
+				Number number = obj.getNumber(field);
+				obj.put(field, (number != null ? number.longValue() : 0) + update.by);
+				break;
+			default:
+				if (fresh.containsKey(field)) {
+					obj.put(field, fresh.get(field));
+				} else {
+					obj.removeKey(field);
+				}
+			}
+		}
+		return obj;
+	}
+
+	/**
+	 * The changes of updateJsonObject, except that a set always gives an optional
+	 * field a value: removing it would fail on docs without it.
+	 */
+	@Override
+	public List<MutateInSpec> updateSpecs(Faker faker, List<String> fieldsToUpdate) {
+		List<Update> updated = updates(fieldsToUpdate);
+		if (updated.isEmpty()) {
+			return null;
+		}
+		JsonObject fresh = values(faker, updated, true);
+		List<MutateInSpec> specs = new ArrayList<>(updated.size());
+		for (Update update : updated) {
+			String field = update.member.name.getValue();
+			switch (update.op) {
+			case Update.APPEND:
+				specs.add(MutateInSpec.arrayAppend(field, Collections.singletonList(fresh.get(field))).createPath());
+				break;
+			case Update.INCREMENT:
+				specs.add(MutateInSpec.increment(field, update.by));
+				break;
+			default:
+				specs.add(MutateInSpec.upsert(field, fresh.get(field)));
+			}
+		}
+		return specs;
+	}
+
+	/**
+	 * The --fields_to_update that are top level fields, set, else the schema's updates.
+	 */
+	private List<Update> updates(List<String> fieldsToUpdate) {
+		List<Update> updated = new ArrayList<>();
+		for (Member member : members) {
+			if (fieldsToUpdate != null && fieldsToUpdate.contains(member.name.getValue())) {
+				updated.add(new Update(member, Update.SET, null, 0));
+			}
+		}
+		return updated.isEmpty() ? updates : updated;
+	}
+
+	/**
+	 * New values of the set fields and new items of the appended ones, by field name.
+	 *
+	 * @param present whether set fields are never left out, even when optional
+	 */
+	private JsonObject values(Faker faker, List<Update> updated, boolean present) {
+		Context context = new Context(faker, -1);
+		return JsonBytes.object(gen -> {
+			gen.writeStartObject();
+			for (Update update : updated) {
+				if (Update.SET.equals(update.op) && present) {
+					update.member.writePresent(gen, context);
+				} else if (Update.SET.equals(update.op)) {
+					update.member.write(gen, context);
+				} else if (Update.APPEND.equals(update.op)) {
+					update.item.write(gen, context);
+				}
+			}
+			gen.writeEndObject();
+		});
+	}
+
+	/**
+	 * The templates of a schema file, one schema or an array of them, by name.
+	 */
+	public static Map<String, SchemaTemplate> load(String path) {
+		JsonNode root;
+		try {
+			root = mapper.readTree(new File(path));
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Can't read template file " + path + ": " + e.getMessage(), e);
+		}
+		Map<String, SchemaTemplate> templates = new LinkedHashMap<>();
+		for (JsonNode schema : root.isArray() ? root : Collections.singletonList(root)) {
+			SchemaTemplate template = compile(schema, path);
+			templates.put(template.name(), template);
+		}
+		return templates;
+	}
+
+	static SchemaTemplate compile(JsonNode schema, String source) {
+		String name = schema.path("name").asText("");
+		if (name.isEmpty()) {
+			throw new IllegalArgumentException("Template in " + source + " has no name");
+		}
+		JsonNode fields = schema.path("fields");
+		if (!fields.isObject() || fields.size() == 0) {
+			throw new IllegalArgumentException("Template " + name + " has no fields");
+		}
+		List<Member> members = new ArrayList<>();
+		Member filler = null;
+		int fillerSize = 0;
+		Iterator<Map.Entry<String, JsonNode>> it = fields.fields();
+		while (it.hasNext()) {
+			Map.Entry<String, JsonNode> field = it.next();
+			JsonNode spec = spec(field.getValue(), name + "." + field.getKey());
+			if ("filler".equals(spec.path("type").asText())) {
+				if (it.hasNext()) {
+					throw new IllegalArgumentException(name + "." + field.getKey() + ": filler must be the last field");
+				}
+				filler = new Member(field.getKey(), null, 0, 0);
+				fillerSize = spec.path("size").asInt(0);
+			} else {
+				members.add(member(field.getKey(), spec, name + "." + field.getKey()));
+			}
+		}
+		List<Update> updates = new ArrayList<>();
+		for (JsonNode update : schema.path("update")) {
+			updates.add(update(update, fields, members, name));
+		}
+		return new SchemaTemplate(name, members.toArray(new Member[0]), filler, fillerSize, updates, null);
+	}
+
+	private static Update update(JsonNode update, JsonNode fields, List<Member> members, String name) {
+		String field = update.isObject() ? update.path("field").asText() : update.asText();
+		String path = name + "." + field;
+		if (!fields.has(field)) {
+			throw new IllegalArgumentException("Template " + name + " updates unknown field " + field);
+		}
+		Member member = null;
+		for (Member m : members) {
+			if (m.name.getValue().equals(field)) {
+				member = m;
+			}
+		}
+		JsonNode spec = spec(fields.get(field), path);
+		String type = spec.path("type").asText();
+		if (member == null || "id".equals(type)) {
+			throw new IllegalArgumentException("Template " + name + " can't update " + type + " field " + field);
+		}
+		String op = update.path("op").asText(Update.SET);
+		switch (op) {
+		case Update.SET:
+			return new Update(member, op, null, 0);
+		case Update.APPEND:
+			if (!"array".equals(type)) {
+				throw new IllegalArgumentException(path + ": append needs an array field");
+			}
+			return new Update(member, op, new Member(field, field(spec(spec.path("items"), path + "[]"), path + "[]"), 0,
+					0), 0);
+		case Update.INCREMENT:
+			if (!"int".equals(type)) {
+				throw new IllegalArgumentException(path + ": increment needs an int field");
+			}
+			return new Update(member, op, null, update.path("by").asLong(1));
+		default:
+			throw new IllegalArgumentException(path + ": unknown update op " + op);
+		}
+	}
+
+	private static JsonNode spec(JsonNode spec, String path) {
+		if (spec.isTextual()) {
+			return mapper.createObjectNode().put("type", spec.asText());
+		}
+		if (!spec.isObject() || !spec.has("type")) {
+			throw new IllegalArgumentException(path + ": a field is a type name or an object with a type");
+		}
+		return spec;
+	}
+
+	private static Member member(String name, JsonNode spec, String path) {
+		return new Member(name, field(spec, path), spec.path("optional").asDouble(0), spec.path("null").asDouble(0));
+	}
+
+	private static Field field(JsonNode spec, String path) {
+		String type = spec.path("type").asText();
+		switch (type) {
+		case "id": {
+			if (spec.has("prefix")) {
+				String prefix = spec.get("prefix").asText();
+				return (gen, c) -> gen.writeString(prefix + c.id);
+			}
+			return (gen, c) -> gen.writeNumber(c.id);
+		}
+		case "int": {
+			long min = spec.path("min").asLong(0);
+			long bound = range(min, spec.path("max").asLong(100), path);
+			return (gen, c) -> gen.writeNumber(min + c.random.nextLong(bound));
+		}
+		case "double": {
+			double min = spec.path("min").asDouble(0);
+			double width = spec.path("max").asDouble(1) - min;
+			if (width < 0) {
+				throw new IllegalArgumentException(path + ": max is less than min");
+			}
+			double scale = Math.pow(10, spec.path("decimals").asInt(2));
+			return (gen, c) -> gen.writeNumber(Math.round((min + c.random.nextDouble() * width) * scale) / scale);
+		}
+		case "bool": {
+			double p = spec.path("p").asDouble(0.5);
+			return (gen, c) -> gen.writeBoolean(c.random.nextDouble() < p);
+		}
+		case "enum": {
+			JsonNode values = spec.path("values");
+			if (!values.isArray() || values.size() == 0) {
+				throw new IllegalArgumentException(path + ": enum needs values");
+			}
+			String[] raw = new String[values.size()];
+			for (int i = 0; i < raw.length; i++) {
+				raw[i] = values.get(i).toString();
+			}
+			return (gen, c) -> gen.writeRawValue(raw[c.random.nextInt(raw.length)]);
+		}
+		case "const": {
+			String raw = spec.path("value").toString();
+			return (gen, c) -> gen.writeRawValue(raw);
+		}
+		case "string": {
+			int min = spec.path("min").asInt(8);
+			int bound = (int) range(min, spec.path("max").asLong(min), path);
+			char[] prefix = spec.path("prefix").asText("").toCharArray();
+			return (gen, c) -> {
+				int length = prefix.length + min + c.random.nextInt(bound);
+				char[] text = c.scratch(length);
+				System.arraycopy(prefix, 0, text, 0, prefix.length);
+				long bits = 0;
+				for (int i = prefix.length; i < length; i++) {
+					if ((i - prefix.length) % 10 == 0) {
+						bits = c.random.nextLong();
+					}
+					text[i] = CHARS[(int) (bits & 63)];
+					bits >>>= 6;
+				}
+				gen.writeString(text, 0, length);
+			};
+		}
+		case "text": {
+			int min = spec.path("min").asInt(5);
+			int bound = (int) range(min, spec.path("max").asLong(20), path);
+			return (gen, c) -> {
+				int words = min + c.random.nextInt(bound);
+				StringBuilder text = c.text();
+				for (int i = 0; i < words; i++) {
+					if (i > 0) {
+						text.append(' ');
+					}
+					text.append(WORDS[c.random.nextInt(WORDS.length)]);
+				}
+				char[] chars = c.scratch(text.length());
+				text.getChars(0, text.length(), chars, 0);
+				gen.writeString(chars, 0, text.length());
+			};
+		}
+		case "uuid":
+			return (gen, c) -> {
+				char[] text = c.scratch(36);
+				long high = c.random.nextLong();
+				long low = c.random.nextLong();
+				for (int i = 0, digit = 0; i < 36; i++) {
+					if (i == 8 || i == 13 || i == 18 || i == 23) {
+						text[i] = '-';
+						continue;
+					}
+					long bits = digit < 16 ? high >>> (60 - 4 * digit) : low >>> (60 - 4 * (digit - 16));
+					text[i] = HEX[(int) (bits & 15)];
+					digit++;
+				}
+				gen.writeString(text, 0, 36);
+			};
+		case "date": {
+			long from = epochSecond(spec.path("from").asText("2020-01-01"), path);
+			long bound = range(from, epochSecond(spec.path("to").asText("2021-01-01"), path) - 1, path);
+			String format = spec.path("format").asText("iso");
+			switch (format) {
+			case "iso":
+				return (gen, c) -> gen
+						.writeString(DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochSecond(from + c.random.nextLong(bound))));
+			case "epoch":
+				return (gen, c) -> gen.writeNumber(from + c.random.nextLong(bound));
+			case "epoch_millis":
+				return (gen, c) -> gen.writeNumber((from + c.random.nextLong(bound)) * 1000);
+			default:
+				throw new IllegalArgumentException(path + ": unknown date format " + format);
+			}
+		}
+		case "faker": {
+			Method[] chain = fakerChain(spec.path("method").asText(), path);
+			return (gen, c) -> {
+				Object value = c.faker;
+				try {
+					for (Method method : chain) {
+						value = method.invoke(value);
+					}
+				} catch (ReflectiveOperationException e) {
+					throw new IllegalStateException(path + ": Faker call failed", e);
+				}
+				if (value instanceof Number) {
+					gen.writeNumber(value.toString());
+				} else if (value instanceof Boolean) {
+					gen.writeBoolean((Boolean) value);
+				} else {
+					gen.writeString(String.valueOf(value));
+				}
+			};
+		}
+		case "object": {
+			JsonNode fields = spec.path("fields");
+			if (!fields.isObject()) {
+				throw new IllegalArgumentException(path + ": object needs fields");
+			}
+			List<Member> members = new ArrayList<>();
+			Iterator<Map.Entry<String, JsonNode>> it = fields.fields();
+			while (it.hasNext()) {
+				Map.Entry<String, JsonNode> field = it.next();
+				String fieldPath = path + "." + field.getKey();
+				members.add(member(field.getKey(), spec(field.getValue(), fieldPath), fieldPath));
+			}
+			Member[] all = members.toArray(new Member[0]);
+			return (gen, c) -> {
+				gen.writeStartObject();
+				for (Member member : all) {
+					member.write(gen, c);
+				}
+				gen.writeEndObject();
+			};
+		}
+		case "array": {
+			int min = spec.path("min").asInt(1);
+			int bound = (int) range(min, spec.path("max").asLong(min), path);
+			if (!spec.has("items")) {
+				throw new IllegalArgumentException(path + ": array needs items");
+			}
+			Field items = field(spec(spec.get("items"), path + "[]"), path + "[]");
+			return (gen, c) -> {
+				int count = min + c.random.nextInt(bound);
+				gen.writeStartArray();
+				for (int i = 0; i < count; i++) {
+					items.write(gen, c);
+				}
+				gen.writeEndArray();
+			};
+		}
+		case "filler":
+			throw new IllegalArgumentException(path + ": filler must be the last top level field");
+		default:
+			throw new IllegalArgumentException(path + ": unknown type '" + type + "'");
+		}
+	}
+
+	/**
+	 * Values in [min, max] as min plus a bound for nextInt or nextLong.
+	 */
+	private static long range(long min, long max, String path) {
+		if (max < min) {
+			throw new IllegalArgumentException(path + ": max " + max + " is less than min " + min);
+		}
+		return max - min + 1;
+	}
+
+	private static long epochSecond(String date, String path) {
+		try {
+			return LocalDate.parse(date).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException(path + ": dates are yyyy-MM-dd, not " + date);
+		}
+	}
+
+	private static Method[] fakerChain(String calls, String path) {
+		if (calls.isEmpty()) {
+			throw new IllegalArgumentException(path + ": faker needs a method such as name.firstName");
+		}
+		String[] names = calls.split("\\.");
+		Method[] chain = new Method[names.length];
+		Class<?> owner = Faker.class;
+		for (int i = 0; i < names.length; i++) {
+			try {
+				chain[i] = owner.getMethod(names[i]);
+			} catch (NoSuchMethodException e) {
+				throw new IllegalArgumentException(path + ": " + owner.getSimpleName() + " has no method " + names[i] + "()");
+			}
+			owner = chain[i].getReturnType();
+		}
+		return chain;
+	}
+
+	private interface Field {
+		void write(JsonGenerator gen, Context c) throws IOException;
+	}
+
+	private static final class Member {
+		final SerializedString name;
+		final Field value;
+		final double optional;
+		final double nulls;
+
+		Member(String name, Field value, double optional, double nulls) {
+			this.name = new SerializedString(name);
+			this.value = value;
+			this.optional = optional;
+			this.nulls = nulls;
+		}
+
+		void write(JsonGenerator gen, Context c) throws IOException {
+			if (optional > 0 && c.random.nextDouble() < optional) {
+				return;
+			}
+			writePresent(gen, c);
+		}
+
+		void writePresent(JsonGenerator gen, Context c) throws IOException {
+			gen.writeFieldName((SerializableString) name);
+			if (nulls > 0 && c.random.nextDouble() < nulls) {
+				gen.writeNull();
+			} else {
+				value.write(gen, c);
+			}
+		}
+	}
+
+	/**
+	 * A field changed by updates.
+	 */
+	private static final class Update {
+		static final String SET = "set";
+		static final String APPEND = "append";
+		static final String INCREMENT = "increment";
+
+		final Member member;
+		final String op;
+		// Writes a new item of an appended array under the field name
+		final Member item;
+		final long by;
+
+		Update(Member member, String op, Member item, long by) {
+			this.member = member;
+			this.op = op;
+			this.item = item;
+			this.by = by;
+		}
+	}
+
+	/**
+	 * State of the doc being written.
+	 */
+	private static final class Context {
+		final Faker faker;
+		final RandomService random;
+		final int id;
+		private StringBuilder text;
+
+		Context(Faker faker, int id) {
+			this.faker = faker;
+			this.random = faker.random();
+			this.id = id;
+		}
+
+		/**
+		 * This thread's char buffer, of at least length chars.
+		 */
+		char[] scratch(int length) {
+			char[] chars = scratch.get();
+			if (chars.length < length) {
+				chars = new char[Math.max(length, 2 * chars.length)];
+				scratch.set(chars);
+			}
+			return chars;
+		}
+
+		StringBuilder text() {
+			if (text == null) {
+				text = new StringBuilder(256);
+			}
+			text.setLength(0);
+			return text;
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package com.couchbase.javaclient.engine;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import com.couchbase.client.core.error.TemporaryFailureException;
+import com.couchbase.client.core.error.TimeoutException;
+import com.couchbase.javaclient.doc.DocSpec;
+import org.apache.log4j.Logger;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * AIMD in-flight limit for one operation stream, enabled with --adaptive.
+ *
+ * Every op takes a permit before it starts. While ops complete under
+ * --latency_target the limit grows by about one per window of completed ops;
+ * a timeout or temporary failure halves it. Ops started before a cut do not
+ * cut it again, so a burst of timeouts from one window only counts once.
+ * The limit stays between 1 and --inflight_window.
+ *
+ * Without --adaptive ops run straight through.
+ */
+public class AdaptiveLimiter {
+
+	private final static Logger log = Logger.getLogger(AdaptiveLimiter.class);
+
+	private static final double BACKOFF = 0.5;
+
+	private final String name;
+	private final boolean adaptive;
+	private final int maxLimit;
+	private final long targetNanos;
+	// All below guarded by this
+	private double limit;
+	private int inFlight;
+	private long generation;
+	private final Deque<Permit> waiting = new ArrayDeque<>();
+
+	public AdaptiveLimiter(String _name, boolean _adaptive, int _maxLimit, Duration latencyTarget) {
+		name = _name;
+		adaptive = _adaptive;
+		maxLimit = Math.max(1, _maxLimit);
+		targetNanos = latencyTarget.toNanos();
+		limit = Math.max(1, maxLimit / 4);
+	}
+
+	public static AdaptiveLimiter of(DocSpec ds, String name) {
+		return new AdaptiveLimiter(name, ds.get_adaptive(), ds.get_inflight_window(),
+				Duration.ofMillis(ds.get_latency_target()));
+	}
+
+	public boolean isAdaptive() {
+		return adaptive;
+	}
+
+	/**
+	 * @return the flatMap concurrency to use in front of the limiter, the fixed window when not adaptive
+	 */
+	public int window(int fixedWindow) {
+		return adaptive ? maxLimit : fixedWindow;
+	}
+
+	public synchronized int limit() {
+		return (int) limit;
+	}
+
+	/**
+	 * @param op subscribed to once a permit is free
+	 */
+	public <T> Mono<T> run(Mono<T> op) {
+		if (!adaptive) {
+			return op;
+		}
+		return Mono.defer(() -> {
+			Permit permit = new Permit();
+			return Mono.<Void>create(sink -> acquire(permit, sink))
+					.then(Mono.<T>defer(() -> {
+						long start = System.nanoTime();
+						return op.doOnSuccess(r -> onSuccess(System.nanoTime() - start))
+								.doOnError(e -> onError(permit, e));
+					}))
+					.doFinally(signal -> release(permit));
+		});
+	}
+
+	/**
+	 * Logs the limit every interval, e.g. for the phases that have no interval stats.
+	 */
+	public Disposable logEvery(Duration interval) {
+		if (!adaptive || interval.isZero()) {
+			return Disposables.disposed();
+		}
+		return Flux.interval(interval, interval).subscribe(t -> log.info(this));
+	}
+
+	private void acquire(Permit permit, MonoSink<Void> sink) {
+		synchronized (this) {
+			if (inFlight < (int) limit) {
+				grant(permit);
+			} else {
+				permit.sink = sink;
+				waiting.add(permit);
+				return;
+			}
+		}
+		sink.success();
+	}
+
+	private void grant(Permit permit) {
+		inFlight++;
+		permit.granted = true;
+		permit.generation = generation;
+	}
+
+	private void release(Permit permit) {
+		Deque<MonoSink<Void>> ready = new ArrayDeque<>();
+		synchronized (this) {
+			if (permit.granted) {
+				inFlight--;
+				permit.granted = false;
+			} else {
+				waiting.remove(permit);
+			}
+			wakeUp(ready);
+		}
+		ready.forEach(MonoSink::success);
+	}
+
+	private void wakeUp(Deque<MonoSink<Void>> ready) {
+		while (inFlight < (int) limit && !waiting.isEmpty()) {
+			Permit next = waiting.poll();
+			grant(next);
+			ready.add(next.sink);
+		}
+	}
+
+	private void onSuccess(long latencyNanos) {
+		Deque<MonoSink<Void>> ready = new ArrayDeque<>();
+		synchronized (this) {
+			if (latencyNanos <= targetNanos && limit < maxLimit) {
+				limit = Math.min(maxLimit, limit + 1 / limit);
+				wakeUp(ready);
+			}
+		}
+		ready.forEach(MonoSink::success);
+	}
+
+	private void onError(Permit permit, Throwable e) {
+		if (!(e instanceof TimeoutException || e instanceof TemporaryFailureException)) {
+			return;
+		}
+		int before;
+		int after;
+		synchronized (this) {
+			if (permit.generation != generation) {
+				return;
+			}
+			generation++;
+			before = (int) limit;
+			limit = Math.max(1, limit * BACKOFF);
+			after = (int) limit;
+		}
+		log.info(name + " in-flight limit cut from " + before + " to " + after + " after "
+				+ e.getClass().getSimpleName());
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%s in-flight limit=%d (max %d, target %dms), in flight %d, waiting %d", name,
+				(int) limit, maxLimit, TimeUnit.NANOSECONDS.toMillis(targetNanos), inFlight, waiting.size());
+	}
+
+	private static final class Permit {
+		MonoSink<Void> sink;
+		boolean granted;
+		long generation;
+	}
+}
@@ -0,0 +1,96 @@
+package com.couchbase.javaclient.engine;
+
+import static com.couchbase.client.java.kv.ReplaceOptions.replaceOptions;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+import com.couchbase.client.core.error.CasMismatchException;
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.ReactiveCollection;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.GetResult;
+import com.couchbase.client.java.kv.ReplaceOptions;
+import com.couchbase.javaclient.doc.DocSpec;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+/**
+ * Read-modify-write of one doc: get it, change it, and replace it with the CAS
+ * read, so an update never overwrites a concurrent one. When another writer
+ * got in between, the doc is read and changed again, at most --cas_retries
+ * times, then the op fails with the CasMismatchException. Every mismatch is
+ * counted, to measure the contention of a load.
+ */
+public class CasUpdate {
+
+	private final int casRetries;
+	private final Retry retry;
+	private final Duration expiry;
+	private final LongAdder conflicts = new LongAdder();
+
+	public CasUpdate(int casRetries, Duration expiry) {
+		this.casRetries = casRetries;
+		this.expiry = expiry;
+		retry = Retry.max(casRetries)
+				.filter(e -> e instanceof CasMismatchException)
+				// Fail with the op's own error rather than a RetryExhaustedException
+				.onRetryExhaustedThrow((spec, signal) -> signal.failure());
+	}
+
+	public static CasUpdate of(DocSpec ds) {
+		return new CasUpdate(ds.get_cas_retries(), Duration.ofSeconds(ds.get_expiry()));
+	}
+
+	/**
+	 * Without blocking: the get, the change and the replace are chained,
+	 * resubscribed whole on a CAS mismatch. The doc read is decoded and changed
+	 * on the given scheduler, off the SDK's IO threads.
+	 *
+	 * @param change called with the doc read on every attempt, may change it in place
+	 * @param scheduler where the change runs, the engine's threads
+	 * @return the replace that succeeded, with the doc it wrote
+	 */
+	public Mono<Written> update(ReactiveCollection collection, String key, UnaryOperator<JsonObject> change,
+			Scheduler scheduler) {
+		return collection.get(key)
+				.publishOn(scheduler)
+				.flatMap(found -> {
+					JsonObject doc = change.apply(found.contentAsObject());
+					return collection.replace(key, doc, options(found)).map(r -> new Written(r, doc));
+				})
+				.doOnError(CasMismatchException.class, e -> conflicts.increment())
+				.retryWhen(retry);
+	}
+
+	/**
+	 * The same on a blocking collection, for the thread pool engines.
+	 */
+	public Written update(Collection collection, String key, UnaryOperator<JsonObject> change) {
+		for (int attempt = 0;; attempt++) {
+			GetResult found = collection.get(key);
+			JsonObject doc = change.apply(found.contentAsObject());
+			try {
+				return new Written(collection.replace(key, doc, options(found)), doc);
+			} catch (CasMismatchException e) {
+				conflicts.increment();
+				if (attempt >= casRetries) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	private ReplaceOptions options(GetResult found) {
+		return replaceOptions().cas(found.cas()).expiry(expiry);
+	}
+
+	/**
+	 * Replaces that found the doc changed since it was read.
+	 */
+	public long conflicts() {
+		return conflicts.sum();
+	}
+}
@@ -0,0 +1,139 @@
+package com.couchbase.javaclient.engine;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.couchbase.javaclient.doc.DocSpec;
+import org.apache.log4j.Logger;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ops that failed for good, after their retries. Each is counted and, with
+ * --dead_letter_file, appended to the file as: workload op key error message,
+ * tab separated, so the rest of the stream can carry on.
+ *
+ * Workloads running at the same time with the same file share one writer, so
+ * their lines never interleave mid-line. The file is closed by the last of
+ * them to close its log.
+ */
+public class DeadLetterLog implements AutoCloseable {
+
+	private final static Logger log = Logger.getLogger(DeadLetterLog.class);
+
+	// Absolute path to the writer shared by the open logs of that file, guarded by itself
+	private static final Map<String, SharedWriter> WRITERS = new HashMap<>();
+
+	private final String name;
+	private final String file;
+	private final SharedWriter writer;
+	private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+	public DeadLetterLog(String _name, String _file) {
+		name = _name;
+		file = _file;
+		writer = file != null && !file.isEmpty() ? SharedWriter.acquire(file) : null;
+	}
+
+	public static DeadLetterLog open(DocSpec ds, String name) {
+		return new DeadLetterLog(name, ds.get_dead_letter_file());
+	}
+
+	public void record(String op, String key, Throwable e) {
+		counts.computeIfAbsent(op, o -> new LongAdder()).increment();
+		log.debug(name + " " + op + " " + key + " failed: " + e);
+		if (writer != null) {
+			String message = String.valueOf(e.getMessage()).replaceAll("\\s+", " ");
+			writer.writeLine(name + '\t' + op + '\t' + key + '\t' + e.getClass().getSimpleName() + '\t' + message);
+		}
+	}
+
+	/**
+	 * Records the failed op and completes empty, for use in onErrorResume.
+	 */
+	public <T> Mono<T> skip(String op, String key, Throwable e) {
+		record(op, key, e);
+		return Mono.empty();
+	}
+
+	public long count() {
+		long total = 0;
+		for (LongAdder count : counts.values()) {
+			total += count.sum();
+		}
+		return total;
+	}
+
+	@Override
+	public void close() {
+		for (Map.Entry<String, LongAdder> entry : counts.entrySet()) {
+			log.warn(name + ": " + entry.getValue().sum() + " " + entry.getKey() + " ops failed after retries"
+					+ (writer != null && writer.out != null ? ", see " + file : ""));
+		}
+		if (writer != null) {
+			writer.release();
+		}
+	}
+
+	private static final class SharedWriter {
+		private final String path;
+		// Null when the file could not be opened, the failed ops are then only counted
+		private final BufferedWriter out;
+		private int users;
+
+		private SharedWriter(String _path) {
+			path = _path;
+			BufferedWriter opened = null;
+			try {
+				opened = new BufferedWriter(new FileWriter(path, true));
+			} catch (IOException e) {
+				log.error("Cannot open dead letter file " + path + ", failed ops are only counted", e);
+			}
+			out = opened;
+		}
+
+		static SharedWriter acquire(String file) {
+			String path = new File(file).getAbsolutePath();
+			synchronized (WRITERS) {
+				SharedWriter writer = WRITERS.computeIfAbsent(path, SharedWriter::new);
+				writer.users++;
+				return writer;
+			}
+		}
+
+		void release() {
+			synchronized (WRITERS) {
+				if (--users > 0) {
+					return;
+				}
+				WRITERS.remove(path);
+			}
+			if (out != null) {
+				synchronized (this) {
+					try {
+						out.close();
+					} catch (IOException e) {
+						log.warn("Cannot close dead letter file " + path + ": " + e);
+					}
+				}
+			}
+		}
+
+		synchronized void writeLine(String line) {
+			if (out == null) {
+				return;
+			}
+			try {
+				out.write(line);
+				out.newLine();
+			} catch (IOException e) {
+				log.warn("Cannot write to dead letter file " + path + ": " + e);
+			}
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.couchbase.javaclient.engine;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Where the doc generation and KV calls of one workload run, picked with --engine:
+ * <ul>
+ * <li>reactive: the reactive Collection API, on a bounded elastic scheduler</li>
+ * <li>platform: the blocking Collection API, on a fixed pool of num_threads platform threads</li>
+ * <li>virtual: the blocking Collection API, one virtual thread per op (Java 21 or newer)</li>
+ * </ul>
+ * Every op is given in both forms and the engine runs the one it is built for,
+ * so the workloads stay the same whatever the engine.
+ */
+public interface ExecutionEngine extends Disposable {
+
+	String REACTIVE = "reactive";
+	String PLATFORM = "platform";
+	String VIRTUAL = "virtual";
+
+	/**
+	 * @param reactive the op on the reactive API, called on the engine's threads
+	 * @param blocking the same op on the blocking API
+	 */
+	<T> Mono<T> execute(Supplier<? extends Mono<? extends T>> reactive, Callable<? extends T> blocking);
+
+	/**
+	 * The engine's threads, for a reactive op to return to after a KV call
+	 * when it has more doc work to do, rather than doing it on the SDK's IO
+	 * threads that every in-flight op shares.
+	 */
+	Scheduler scheduler();
+
+	/**
+	 * @param name thread name prefix
+	 */
+	static ExecutionEngine of(String engine, int nThreads, String name) {
+		switch (engine) {
+		case REACTIVE:
+			return new ReactiveEngine(nThreads, name);
+		case PLATFORM:
+			return ThreadPoolEngine.platform(nThreads, name);
+		case VIRTUAL:
+			return ThreadPoolEngine.virtual(name);
+		default:
+			throw new IllegalArgumentException("Unknown engine " + engine);
+		}
+	}
+}
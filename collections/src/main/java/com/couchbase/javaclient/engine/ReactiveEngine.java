@@ -0,0 +1,42 @@
+package com.couchbase.javaclient.engine;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Subscribes to the reactive form of every op on a bounded elastic scheduler,
+ * the KV calls themselves complete on the SDK's IO threads.
+ */
+class ReactiveEngine implements ExecutionEngine {
+
+	private final Scheduler scheduler;
+
+	ReactiveEngine(int nThreads, String name) {
+		// Num threads, items in queue, thread name prefix
+		scheduler = Schedulers.newBoundedElastic(nThreads, 100, name);
+	}
+
+	@Override
+	public <T> Mono<T> execute(Supplier<? extends Mono<? extends T>> reactive, Callable<? extends T> blocking) {
+		return Mono.<T>defer(reactive).subscribeOn(scheduler);
+	}
+
+	@Override
+	public Scheduler scheduler() {
+		return scheduler;
+	}
+
+	@Override
+	public void dispose() {
+		scheduler.dispose();
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return scheduler.isDisposed();
+	}
+}
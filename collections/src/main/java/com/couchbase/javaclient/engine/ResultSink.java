@@ -0,0 +1,55 @@
+package com.couchbase.javaclient.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import org.apache.log4j.Logger;
+
+/**
+ * End of an operation stream: counts the results, logs a sample of them at
+ * debug level and hands each one to the registered consumers, without
+ * keeping any, so memory stays flat however many docs a run loads.
+ */
+public class ResultSink<T> {
+
+	private final static Logger log = Logger.getLogger(ResultSink.class);
+
+	private static final long SAMPLE_EVERY = 100_000;
+
+	private final String name;
+	private final LongAdder count = new LongAdder();
+	private final List<BiConsumer<String, ? super T>> consumers = new ArrayList<>();
+
+	public ResultSink(String _name) {
+		name = _name;
+	}
+
+	/**
+	 * @param consumer called with the key and result of every successful op, from the op threads
+	 */
+	public ResultSink<T> handOff(BiConsumer<String, ? super T> consumer) {
+		consumers.add(consumer);
+		return this;
+	}
+
+	public void accept(String key, T result) {
+		count.increment();
+		if (log.isDebugEnabled() && count.sum() % SAMPLE_EVERY == 1) {
+			log.debug(name + " sample " + key + ": " + result);
+		}
+		for (BiConsumer<String, ? super T> consumer : consumers) {
+			consumer.accept(key, result);
+		}
+	}
+
+	public long count() {
+		return count.sum();
+	}
+
+	@Override
+	public String toString() {
+		return name + ": " + count.sum() + " results";
+	}
+}
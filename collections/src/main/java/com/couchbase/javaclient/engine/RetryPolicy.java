@@ -0,0 +1,59 @@
+package com.couchbase.javaclient.engine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.couchbase.client.core.error.DocumentLockedException;
+import com.couchbase.client.core.error.ServerOutOfMemoryException;
+import com.couchbase.client.core.error.TemporaryFailureException;
+import com.couchbase.client.core.error.TimeoutException;
+import com.couchbase.javaclient.doc.DocSpec;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Retries one op, not the stream it is part of, with exponential backoff and
+ * jitter: --retry_backoff ms doubling up to MAX_BACKOFF, at most --max_retries
+ * times. Only retriable errors are retried, anything else fails the op at once.
+ */
+public class RetryPolicy {
+
+	private static final Duration MAX_BACKOFF = Duration.ofSeconds(2);
+
+	private final Retry retry;
+	private final LongAdder retries = new LongAdder();
+
+	public RetryPolicy(int maxRetries, Duration minBackoff) {
+		retry = Retry.backoff(maxRetries, minBackoff)
+				.maxBackoff(MAX_BACKOFF.compareTo(minBackoff) > 0 ? MAX_BACKOFF : minBackoff)
+				.jitter(0.5)
+				.filter(RetryPolicy::isRetriable)
+				.doBeforeRetry(signal -> retries.increment())
+				// Fail with the op's own error rather than a RetryExhaustedException
+				.onRetryExhaustedThrow((spec, signal) -> signal.failure());
+	}
+
+	public static RetryPolicy of(DocSpec ds) {
+		return new RetryPolicy(ds.get_max_retries(), Duration.ofMillis(ds.get_retry_backoff()));
+	}
+
+	/**
+	 * Errors the server or the SDK expect to clear up: temporary failures,
+	 * server out of memory, timeouts and locked documents.
+	 */
+	public static boolean isRetriable(Throwable e) {
+		return e instanceof TemporaryFailureException || e instanceof ServerOutOfMemoryException
+				|| e instanceof TimeoutException || e instanceof DocumentLockedException;
+	}
+
+	/**
+	 * @param op resubscribed on every attempt, so it must be lazy
+	 */
+	public <T> Mono<T> retrying(Mono<T> op) {
+		return op.retryWhen(retry);
+	}
+
+	public long retries() {
+		return retries.sum();
+	}
+}
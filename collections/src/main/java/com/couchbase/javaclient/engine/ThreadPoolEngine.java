@@ -0,0 +1,72 @@
+package com.couchbase.javaclient.engine;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs the blocking form of every op on an executor, each op holding its
+ * thread for the whole KV round trip.
+ */
+class ThreadPoolEngine implements ExecutionEngine {
+
+	private final ExecutorService executor;
+	private final Scheduler scheduler;
+
+	private ThreadPoolEngine(ExecutorService _executor, String name) {
+		executor = _executor;
+		scheduler = Schedulers.fromExecutorService(executor, name);
+	}
+
+	static ThreadPoolEngine platform(int nThreads, String name) {
+		AtomicInteger count = new AtomicInteger();
+		return new ThreadPoolEngine(Executors.newFixedThreadPool(nThreads, r -> {
+			Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}), name);
+	}
+
+	/**
+	 * Looked up at run time so the client still builds for and runs on Java 8.
+	 */
+	static ThreadPoolEngine virtual(String name) {
+		try {
+			return new ThreadPoolEngine(
+					(ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null), name);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(
+					"The virtual engine needs Java 21 or newer, running on " + System.getProperty("java.version"));
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException("Could not create a virtual thread executor", e);
+		}
+	}
+
+	@Override
+	public <T> Mono<T> execute(Supplier<? extends Mono<? extends T>> reactive, Callable<? extends T> blocking) {
+		return Mono.<T>fromCallable(blocking).subscribeOn(scheduler);
+	}
+
+	@Override
+	public Scheduler scheduler() {
+		return scheduler;
+	}
+
+	@Override
+	public void dispose() {
+		scheduler.dispose();
+		executor.shutdownNow();
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return executor.isShutdown();
+	}
+}
@@ -0,0 +1,44 @@
+package com.couchbase.javaclient.engine;
+
+import java.nio.charset.StandardCharsets;
+
+import com.couchbase.client.java.kv.MutationResult;
+
+/**
+ * Result of a mutation along with the doc it wrote, for the {@link ResultSink}
+ * consumers that need the content, such as elastic sync. Built only once the
+ * mutation succeeded, so they never see the docs of failed or retried attempts.
+ */
+public final class Written {
+
+	private final MutationResult result;
+	private final Object content;
+
+	/**
+	 * @param _content the JsonObject or raw JSON bytes written, null when the op wrote no whole JSON doc
+	 */
+	public Written(MutationResult _result, Object _content) {
+		result = _result;
+		content = _content;
+	}
+
+	public MutationResult result() {
+		return result;
+	}
+
+	public boolean hasContent() {
+		return content != null;
+	}
+
+	/**
+	 * @return the doc written as JSON text
+	 */
+	public String json() {
+		return content instanceof byte[] ? new String((byte[]) content, StandardCharsets.UTF_8) : content.toString();
+	}
+
+	@Override
+	public String toString() {
+		return result.toString();
+	}
+}
@@ -0,0 +1,45 @@
+package com.couchbase.javaclient.keys;
+
+import com.couchbase.javaclient.doc.DocSpec;
+import reactor.core.publisher.Flux;
+
+public final class DocKeys {
+
+	public static String key(DocSpec ds, long id) {
+		return ds.get_prefix() + id + ds.get_suffix();
+	}
+
+	/**
+	 * Doc id of a key made by {@link #key(DocSpec, long)}.
+	 */
+	public static int id(DocSpec ds, String key) {
+		return Integer.parseInt(key.substring(ds.get_prefix().length(), key.length() - ds.get_suffix().length()));
+	}
+
+	/**
+	 * Keys of the positions of range, a slice of a run of n docs. In order, or
+	 * in the --shuffle_docs order of the whole run so that slices stay disjoint.
+	 */
+	public static Flux<String> of(DocSpec ds, KeyRange range, long n) {
+		Flux<Long> positions = Flux.range(0, (int) range.count()).map(i -> range.from() + i);
+		if (ds.get_shuffle_docs() && n > 0) {
+			// Streaming permutation of the same ids, nothing is collected up front
+			KeyPermutation permutation = new KeyPermutation(n, ds.get_shuffle_seed());
+			return positions.map(p -> key(ds, ds.get_startSeqNum() + permutation.apply(p)));
+		}
+		return positions.map(p -> key(ds, ds.get_startSeqNum() + p));
+	}
+
+	/**
+	 * Keys of the positions of range, in order or shuffled among themselves
+	 * with --shuffle_docs.
+	 */
+	public static Flux<String> within(DocSpec ds, KeyRange range) {
+		Flux<Long> offsets = Flux.range(0, (int) range.count()).map(i -> (long) i);
+		if (ds.get_shuffle_docs() && range.count() > 0) {
+			KeyPermutation permutation = new KeyPermutation(range.count(), ds.get_shuffle_seed());
+			offsets = offsets.map(permutation::apply);
+		}
+		return offsets.map(o -> key(ds, ds.get_startSeqNum() + range.from() + o));
+	}
+}
@@ -0,0 +1,32 @@
+package com.couchbase.javaclient.keys;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * hotOpFraction of the ops go uniformly to the first hotSetFraction of the
+ * live ids, the rest go uniformly to the other ids.
+ */
+public class HotspotKeyGenerator implements KeyGenerator {
+
+	private final double hotSetFraction;
+	private final double hotOpFraction;
+
+	public HotspotKeyGenerator(double hotSetFraction, double hotOpFraction) {
+		if (hotSetFraction <= 0 || hotSetFraction > 1 || hotOpFraction < 0 || hotOpFraction > 1) {
+			throw new IllegalArgumentException(
+					"Hot set and hot op fractions must be in (0, 1]: " + hotSetFraction + ", " + hotOpFraction);
+		}
+		this.hotSetFraction = hotSetFraction;
+		this.hotOpFraction = hotOpFraction;
+	}
+
+	@Override
+	public long next(long low, long high) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long hotEnd = low + Math.max(1, (long) ((high - low) * hotSetFraction));
+		if (hotEnd >= high || random.nextDouble() < hotOpFraction) {
+			return random.nextLong(low, hotEnd);
+		}
+		return random.nextLong(hotEnd, high);
+	}
+}
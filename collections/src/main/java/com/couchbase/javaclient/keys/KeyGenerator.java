@@ -0,0 +1,46 @@
+package com.couchbase.javaclient.keys;
+
+import com.couchbase.javaclient.doc.DocSpec;
+
+/**
+ * Chooses the id of the next key to read or update out of the live ids
+ * [low, high). Implementations are thread-safe and don't allocate per call.
+ */
+public interface KeyGenerator {
+
+	long next(long low, long high);
+
+	/**
+	 * Builds the generator for --load_pattern. uniform, sparse and dense keep
+	 * their historical meaning (every key once, in order, for the sequential
+	 * update path) and pick uniformly at random in the mixed load.
+	 */
+	static KeyGenerator of(DocSpec ds) {
+		switch (ds.get_load_pattern()) {
+		case "zipfian":
+			return new ZipfianKeyGenerator();
+		case "latest":
+			return new LatestKeyGenerator();
+		case "hotspot":
+			return new HotspotKeyGenerator(ds.get_hot_set_fraction(), ds.get_hot_op_fraction());
+		case "sequential":
+			return new SequentialKeyGenerator();
+		default:
+			return new UniformKeyGenerator();
+		}
+	}
+
+	/**
+	 * @return true if --load_pattern asks for a key access distribution rather than the historical ordered pass
+	 */
+	static boolean isDistribution(DocSpec ds) {
+		switch (ds.get_load_pattern()) {
+		case "uniform":
+		case "sparse":
+		case "dense":
+			return false;
+		default:
+			return true;
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.couchbase.javaclient.keys;
+
+/**
+ * Pseudo-random permutation of [0, size), computed on demand in constant
+ * memory. A keyed balanced Feistel network permutes the smallest power-of-4
+ * domain that holds size, and cycle-walking maps values that fall outside
+ * back into range (less than 4 rounds on average). The same seed always
+ * gives the same order, so disjoint index ranges [from, to) of the shuffled
+ * order can be handed to different workers.
+ */
+public class KeyPermutation {
+
+	private static final int ROUNDS = 4;
+
+	private final long size;
+	private final int halfBits;
+	private final long halfMask;
+	private final long[] roundKeys = new long[ROUNDS];
+
+	public KeyPermutation(long size, long seed) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Permutation size must be positive: " + size);
+		}
+		this.size = size;
+		int bits = 64 - Long.numberOfLeadingZeros(Math.max(1, size - 1));
+		this.halfBits = Math.max(1, (bits + 1) / 2);
+		this.halfMask = (1L << halfBits) - 1;
+		long k = seed;
+		for (int r = 0; r < ROUNDS; r++) {
+			k = mix(k + 0x9E3779B97F4A7C15L);
+			roundKeys[r] = k;
+		}
+	}
+
+	/**
+	 * @return the position-th value of the shuffled order, in [0, size)
+	 */
+	public long apply(long position) {
+		if (position < 0 || position >= size) {
+			throw new IndexOutOfBoundsException(position + " not in [0, " + size + ")");
+		}
+		long x = position;
+		do {
+			x = encrypt(x);
+		} while (x >= size);
+		return x;
+	}
+
+	public long size() {
+		return size;
+	}
+
+	private long encrypt(long x) {
+		long left = x >>> halfBits;
+		long right = x & halfMask;
+		for (int r = 0; r < ROUNDS; r++) {
+			long next = left ^ (mix(right ^ roundKeys[r]) & halfMask);
+			left = right;
+			right = next;
+		}
+		return (left << halfBits) | right;
+	}
+
+	// SplitMix64 finalizer
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,71 @@
+package com.couchbase.javaclient.keys;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.couchbase.javaclient.doc.DocSpec;
+
+/**
+ * Slice [from, to) of the op positions [0, n) of a run. Position p maps to
+ * doc id startSeqNum + p, or startSeqNum + permutation(p) when docs are
+ * shuffled, so disjoint slices never touch the same key.
+ */
+public class KeyRange {
+
+	private final long from;
+	private final long to;
+
+	public KeyRange(long from, long to) {
+		if (from < 0 || to < from) {
+			throw new IllegalArgumentException("Invalid key range [" + from + ", " + to + ")");
+		}
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Slice of [0, n) owned by this process: --start/--end if set (end 0 means
+	 * up to n), then shard --shard_index of --num_shards of that.
+	 */
+	public static KeyRange of(DocSpec ds, long n) {
+		long from = Math.min(Math.max(0, ds.get_start()), n);
+		long to = ds.get_end() > 0 ? Math.min(Math.max(from, ds.get_end()), n) : n;
+		KeyRange range = new KeyRange(from, to);
+		if (ds.get_num_shards() > 1) {
+			range = range.split(ds.get_num_shards()).get(ds.get_shard_index());
+		}
+		return range;
+	}
+
+	/**
+	 * Splits this range into shards contiguous, disjoint slices whose sizes differ by at most one.
+	 */
+	public List<KeyRange> split(int shards) {
+		if (shards <= 0) {
+			throw new IllegalArgumentException("Number of shards must be positive: " + shards);
+		}
+		List<KeyRange> ranges = new ArrayList<>(shards);
+		long size = count();
+		for (int i = 0; i < shards; i++) {
+			ranges.add(new KeyRange(from + size * i / shards, from + size * (i + 1) / shards));
+		}
+		return ranges;
+	}
+
+	public long from() {
+		return from;
+	}
+
+	public long to() {
+		return to;
+	}
+
+	public long count() {
+		return to - from;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + from + ", " + to + ")";
+	}
+}
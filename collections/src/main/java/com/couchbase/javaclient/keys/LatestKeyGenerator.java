@@ -0,0 +1,19 @@
+package com.couchbase.javaclient.keys;
+
+/**
+ * Zipfian biased towards the most recently created ids: the newest id is the
+ * most popular, then the one before it, and so on. Ranks are drawn over the
+ * live ids only, so the bias holds however small the live range is.
+ */
+public class LatestKeyGenerator implements KeyGenerator {
+
+	// One zipfian per thread, resized by the few ids the live count moved since its last draw
+	private final ThreadLocal<Zipfian> ranks = ThreadLocal.withInitial(() -> new Zipfian(1));
+
+	@Override
+	public long next(long low, long high) {
+		Zipfian zipfian = ranks.get();
+		zipfian.resize(high - low);
+		return high - 1 - zipfian.nextRank();
+	}
+}
@@ -0,0 +1,16 @@
+package com.couchbase.javaclient.keys;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Walks the live ids in order, wrapping around at the end.
+ */
+public class SequentialKeyGenerator implements KeyGenerator {
+
+	private final AtomicLong counter = new AtomicLong();
+
+	@Override
+	public long next(long low, long high) {
+		return low + Math.floorMod(counter.getAndIncrement(), high - low);
+	}
+}
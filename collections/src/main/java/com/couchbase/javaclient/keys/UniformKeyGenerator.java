@@ -0,0 +1,14 @@
+package com.couchbase.javaclient.keys;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Uniform random with replacement.
+ */
+public class UniformKeyGenerator implements KeyGenerator {
+
+	@Override
+	public long next(long low, long high) {
+		return ThreadLocalRandom.current().nextLong(low, high);
+	}
+}
@@ -0,0 +1,108 @@
+package com.couchbase.javaclient.keys;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipfian ranks in [0, items), rank 0 being the most popular, drawn as YCSB's
+ * ZipfianGenerator does. zeta(items) is summed exactly over the first ranks and
+ * by Euler-Maclaurin over the rest, so a generator is built in constant time
+ * whatever the item count. A generator can follow a live key range that keeps
+ * moving: resize adds or removes the terms between the old and new counts, as
+ * YCSB does with its countforzeta, so the usual step of a few ids costs a few
+ * Math.pow and no allocation. Resized generators are not thread-safe.
+ */
+final class Zipfian {
+
+	static final double ZIPFIAN_CONSTANT = 0.99;
+	// Terms of zeta summed exactly, the tail estimate is then exact to ~1e-12
+	private static final int EXACT_TERMS = 1000;
+	private static final double EXACT_ZETA = exactZeta(EXACT_TERMS);
+	private static final double ZETA2 = 1 + Math.pow(0.5, ZIPFIAN_CONSTANT);
+	private static final double ALPHA = 1.0 / (1.0 - ZIPFIAN_CONSTANT);
+
+	private long items;
+	private double zetan;
+	private double eta;
+
+	Zipfian(long items) {
+		if (items <= 0) {
+			throw new IllegalArgumentException("A zipfian needs at least one item: " + items);
+		}
+		this.items = items;
+		zetan = zeta(items);
+		eta = eta(items, zetan);
+	}
+
+	double zetan() {
+		return zetan;
+	}
+
+	/**
+	 * Draws ranks in [0, items) from now on. Steps up to EXACT_TERMS update
+	 * zeta term by term, larger ones recompute it.
+	 */
+	void resize(long items) {
+		if (items == this.items) {
+			return;
+		}
+		if (items <= 0) {
+			throw new IllegalArgumentException("A zipfian needs at least one item: " + items);
+		}
+		if (Math.abs(items - this.items) > EXACT_TERMS) {
+			zetan = zeta(items);
+		} else if (items > this.items) {
+			zetan += zeta(this.items + 1, items);
+		} else {
+			zetan -= zeta(items + 1, this.items);
+		}
+		this.items = items;
+		eta = eta(items, zetan);
+	}
+
+	long nextRank() {
+		double u = ThreadLocalRandom.current().nextDouble();
+		double uz = u * zetan;
+		if (uz < 1.0) {
+			return 0;
+		}
+		if (uz < ZETA2) {
+			return Math.min(1, items - 1);
+		}
+		return Math.min(items - 1, (long) (items * Math.pow(eta * u - eta + 1, ALPHA)));
+	}
+
+	private static double eta(long items, double zetan) {
+		return (1 - Math.pow(2.0 / items, 1 - ZIPFIAN_CONSTANT)) / (1 - ZETA2 / zetan);
+	}
+
+	/**
+	 * Sum of 1 / i^ZIPFIAN_CONSTANT for i in [1, n].
+	 */
+	static double zeta(long n) {
+		if (n <= EXACT_TERMS) {
+			return exactZeta(n);
+		}
+		double theta = ZIPFIAN_CONSTANT;
+		double k = EXACT_TERMS;
+		// Integral of the tail from k to n, plus the end point and first derivative corrections
+		double integral = (Math.pow(n, 1 - theta) - Math.pow(k, 1 - theta)) / (1 - theta);
+		double ends = (Math.pow(n, -theta) - Math.pow(k, -theta)) / 2;
+		double slopes = theta / 12 * (Math.pow(k, -theta - 1) - Math.pow(n, -theta - 1));
+		return EXACT_ZETA + integral + ends + slopes;
+	}
+
+	private static double exactZeta(long n) {
+		return zeta(1, n);
+	}
+
+	/**
+	 * Sum of 1 / i^ZIPFIAN_CONSTANT for i in [from, to].
+	 */
+	private static double zeta(long from, long to) {
+		double sum = 0;
+		for (long i = from; i <= to; i++) {
+			sum += 1 / Math.pow(i, ZIPFIAN_CONSTANT);
+		}
+		return sum;
+	}
+}
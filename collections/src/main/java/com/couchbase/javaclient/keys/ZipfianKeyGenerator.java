@@ -0,0 +1,28 @@
+package com.couchbase.javaclient.keys;
+
+/**
+ * Scrambled zipfian, as in YCSB: ranks are drawn from a zipfian over a fixed,
+ * very large item space (so the zeta constant is computed once, whatever the
+ * key range), then hashed onto the live ids. Popular keys are spread over the
+ * whole range instead of being clustered at its start.
+ */
+public class ZipfianKeyGenerator implements KeyGenerator {
+
+	static final long ITEM_COUNT = 10_000_000_000L;
+	private static final Zipfian RANKS = new Zipfian(ITEM_COUNT);
+
+	@Override
+	public long next(long low, long high) {
+		return low + Math.floorMod(fnvHash64(RANKS.nextRank()), high - low);
+	}
+
+	static long fnvHash64(long val) {
+		long hash = 0xCBF29CE484222325L;
+		for (int i = 0; i < 8; i++) {
+			hash ^= val & 0xff;
+			hash *= 1099511628211L;
+			val >>>= 8;
+		}
+		return hash;
+	}
+}
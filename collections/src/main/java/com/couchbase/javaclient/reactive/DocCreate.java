@@ -10,34 +10,45 @@ import com.couchbase.client.java.Cluster;
 import com.couchbase.client.java.Collection;
 import com.couchbase.client.java.ReactiveCollection;
 import com.couchbase.client.java.codec.RawBinaryTranscoder;
-import com.couchbase.client.java.json.JsonObject;
-import com.couchbase.client.java.kv.MutationResult;
+import com.couchbase.client.java.codec.RawJsonTranscoder;
+import com.couchbase.client.java.kv.UpsertOptions;
 import com.couchbase.client.java.manager.collection.CollectionSpec;
 import com.couchbase.client.java.manager.collection.ScopeSpec;
 
 import com.couchbase.javaclient.doc.*;
-import com.couchbase.javaclient.utils.FileUtils;
+import com.couchbase.javaclient.engine.AdaptiveLimiter;
+import com.couchbase.javaclient.engine.DeadLetterLog;
+import com.couchbase.javaclient.engine.ExecutionEngine;
+import com.couchbase.javaclient.engine.ResultSink;
+import com.couchbase.javaclient.engine.RetryPolicy;
+import com.couchbase.javaclient.engine.Written;
+import com.couchbase.javaclient.keys.DocKeys;
+import com.couchbase.javaclient.keys.KeyRange;
+import com.couchbase.javaclient.utils.ElasticBulkWriter;
 
 import com.couchbase.javaclient.utils.TransactionsUtil;
 import com.couchbase.transactions.Transactions;
-import reactor.core.publisher.Mono;
+import reactor.util.concurrent.Queues;
 import reactor.util.Logger;
 import reactor.util.Loggers;
 import java.util.logging.Level;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.publisher.Mono;
 import static com.couchbase.client.java.kv.UpsertOptions.upsertOptions;
 
 public class DocCreate implements Callable<String> {
 
 	private final static Logger log = Loggers.getLogger(DocCreate.class);
-	private static DocSpec ds;
-	private static Cluster cluster;
-	private static Bucket bucket;
-	private static Collection collection;
-	private static int nThreads;
-	private static int num_docs = 0;
-	private Map<String, String> elasticMap = new HashMap<>();
+	private final DocSpec ds;
+	private final Cluster cluster;
+	private Bucket bucket;
+	private Collection collection;
+	private final int nThreads;
+	// Written from the parallel bucket collection streams
+	private volatile int num_docs = 0;
+	// Only with --elastic_sync, written from the engine threads
+	private ElasticBulkWriter elastic;
 
 	public DocCreate(DocSpec _ds, Cluster _cluster, Bucket _bucket, int _nThreads) {
 		cluster= _cluster;
@@ -73,15 +84,26 @@ public class DocCreate implements Callable<String> {
 
 	public void upsert(Collection collection) {
 		ReactiveCollection rcollection = collection.reactive();
-		num_docs = (int) (ds.get_num_ops() * ((float) ds.get_percent_create() / 100));
-		Flux<String> docsToUpsert = Flux.range(ds.get_startSeqNum(), num_docs)
-				.map(id -> (ds.get_prefix() + id + ds.get_suffix()));
-		if(ds.get_shuffle_docs()){
-			List<String> docs = docsToUpsert.collectList().block();
-			java.util.Collections.shuffle(docs);
-			docsToUpsert = Flux.fromIterable(docs);
+		int total_docs = (int) (ds.get_num_ops() * ((float) ds.get_percent_create() / 100));
+		KeyRange range = KeyRange.of(ds, total_docs);
+		num_docs = (int) range.count();
+		log.info("Create key range " + range + " of " + total_docs);
+		Flux<String> docsToUpsert = DocKeys.of(ds, range, total_docs);
+
+		ExecutionEngine engine = ExecutionEngine.of(ds.get_engine(), nThreads, "catapult-create");
+		AdaptiveLimiter limiter = AdaptiveLimiter.of(ds, ds.label("Create"));
+		Disposable limitLog = limiter.logEvery(Duration.ofSeconds(ds.get_report_interval()));
+		RetryPolicy retry = RetryPolicy.of(ds);
+		DeadLetterLog deadLetters = DeadLetterLog.open(ds, ds.label("Create"));
+		ResultSink<Written> sink = new ResultSink<>(ds.label("Create"));
+		if (elastic != null) {
+			// Only the docs of the upserts that succeeded, once each
+			sink.handOff((id, written) -> {
+				if (written.hasContent()) {
+					elastic.add(id, written.json());
+				}
+			});
 		}
-
 		try {
 			if(ds.getUseTransactions()){
 				log.info("Using Transactions for DocCreate");
@@ -102,27 +124,27 @@ public class DocCreate implements Callable<String> {
 				transactions.close();
 			}
 			else if ("Binary".equals(ds.get_template())) {
-					docsToUpsert.publishOn(Schedulers
-							// Num threads, items in queue, thread name prefix
-							.newBoundedElastic(nThreads, 100, "catapult-create"))
-							.flatMap(
-									key -> rcollection.upsert(key, new Binary().createBinaryObject(ds.faker, ds.get_size()),
+					docsToUpsert
+							.flatMap(key -> retry.retrying(limiter.run(engine.execute(
+									() -> rcollection.upsert(key, Binary.payload(ds),
 											upsertOptions().transcoder(RawBinaryTranscoder.INSTANCE)
-													.expiry(Duration.ofSeconds(ds.get_expiry()))))
+													.expiry(Duration.ofSeconds(ds.get_expiry()))),
+									() -> collection.upsert(key, Binary.payload(ds),
+											upsertOptions().transcoder(RawBinaryTranscoder.INSTANCE)
+													.expiry(Duration.ofSeconds(ds.get_expiry()))))))
+								.doOnNext(r -> sink.accept(key, new Written(r, null)))
+								.onErrorResume(e -> deadLetters.skip("create", key, e)), limiter.window(Queues.SMALL_BUFFER_SIZE))
 							.log("", ds.getNewLogLevel())
-							.buffer(1000)
-							.retry(20)
 							.blockLast(Duration.ofSeconds(7200));
 				} else {
 					DocTemplate docTemplate = DocTemplateFactory.getDocTemplate(ds);
-					docsToUpsert.publishOn(Schedulers
-							.newBoundedElastic(nThreads, 100, "catapult-create"))
-							.flatMap(key -> rcollection.upsert(key, getObject(key, docTemplate, elasticMap),
-									upsertOptions().expiry(Duration.ofSeconds(ds.get_expiry()))))
+					docsToUpsert
+							.flatMap(key -> retry.retrying(limiter.run(engine.execute(
+									() -> upsert(rcollection, key, getObject(key, docTemplate)),
+									() -> upsert(collection, key, getObject(key, docTemplate)))))
+								.doOnNext(r -> sink.accept(key, r))
+								.onErrorResume(e -> deadLetters.skip("create", key, e)), limiter.window(Queues.SMALL_BUFFER_SIZE))
 							.log("", ds.getNewLogLevel())
-							.buffer(1000)
-							// Num retries
-							.retry(20)
 							// Block until last value, complete or timeout expiry (increased for large batches)
 							.blockLast(Duration.ofSeconds(7200));
 				}
@@ -130,19 +152,41 @@ public class DocCreate implements Callable<String> {
 			err.printStackTrace();
 			System.out.println("Error "+err.toString());
 			log.error(err.toString());
+		} finally {
+			engine.dispose();
+			limitLog.dispose();
+			deadLetters.close();
 		}
-		log.info("Completed upsert");
+		log.info("Completed upsert, " + sink);
+		Compression.report(ds);
 	}
 
-	private JsonObject getObject(String key, DocTemplate docTemplate, Map<String, String> elasticMap) {
+	private Mono<Written> upsert(ReactiveCollection rcollection, String key, Object doc) {
+		return rcollection.upsert(key, doc, jsonOptions()).map(r -> new Written(r, doc));
+	}
 
-		JsonObject obj = docTemplate.createJsonObject(ds.faker, ds.get_size(), extractId(key));
-		elasticMap.put(key, obj.toString());
-		return obj;
+	private Written upsert(Collection collection, String key, Object doc) {
+		return new Written(collection.upsert(key, doc, jsonOptions()), doc);
+	}
+
+	/**
+	 * JSON bytes streamed by the template with --raw_json, else a JsonObject for the SDK to encode.
+	 */
+	private Object getObject(String key, DocTemplate docTemplate) {
+		if (ds.get_raw_json()) {
+			return DocGenerator.createBytes(docTemplate, ds, DocKeys.id(ds, key));
+		}
+		return DocGenerator.create(docTemplate, ds, DocKeys.id(ds, key));
+	}
+
+	private UpsertOptions jsonOptions() {
+		UpsertOptions options = upsertOptions().expiry(Duration.ofSeconds(ds.get_expiry()));
+		return ds.get_raw_json() ? options.transcoder(RawJsonTranscoder.INSTANCE) : options;
 	}
 
 	@Override
 	public String call() throws Error {
+		elastic = ds.isElasticSync() ? new ElasticBulkWriter(ds.get_template(), "create", ds.getElasticIndex()) : null;
 		if (collection != null) {
 			log.info("Upsert collection " + collection.bucketName() + "." + collection.scopeName() + "."
 					+ collection.name());
@@ -151,20 +195,11 @@ public class DocCreate implements Callable<String> {
 			log.info("Upsert bucket collections");
 			upsertBucketCollections();
 		}
-		if (ds.isElasticSync() && !elasticMap.isEmpty()) {
-			List<File> elasticFiles = FileUtils.writeForElastic(elasticMap, ds.get_template(), "create", ds.getElasticIndex());
+		List<File> elasticFiles = elastic != null ? elastic.finish() : Collections.emptyList();
+		if (!elasticFiles.isEmpty()) {
 			ElasticSync.syncFiles(ds.getElasticIP(), ds.getElasticPort(), ds.getElasticLogin(),
 					ds.getElasticPassword(), elasticFiles, 5);
 		}
 		return num_docs + " DOCS CREATED!";
 	}
-
-	private int extractId(String key) {
-		return Integer.parseInt(key.replace(ds.get_prefix(), "").replace(ds.get_suffix(), ""));
-	}
-
-	private Mono<MutationResult> wrap(ReactiveCollection rcollection, String id, final Map<String, String> elasticMap) {
-		elasticMap.put(id, null);
-		return rcollection.remove(id);
-	}
 }
\ No newline at end of file
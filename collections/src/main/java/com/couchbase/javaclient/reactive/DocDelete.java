@@ -3,9 +3,8 @@ package com.couchbase.javaclient.reactive;
 import java.io.File;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.Callable;
 
 import com.couchbase.client.java.Bucket;
@@ -16,30 +15,40 @@ import com.couchbase.client.java.kv.MutationResult;
 import com.couchbase.client.java.manager.collection.CollectionSpec;
 import com.couchbase.client.java.manager.collection.ScopeSpec;
 import com.couchbase.javaclient.doc.DocSpec;
+import com.couchbase.javaclient.engine.AdaptiveLimiter;
+import com.couchbase.javaclient.engine.DeadLetterLog;
+import com.couchbase.javaclient.engine.ExecutionEngine;
+import com.couchbase.javaclient.engine.ResultSink;
+import com.couchbase.javaclient.engine.RetryPolicy;
+import com.couchbase.javaclient.keys.DocKeys;
+import com.couchbase.javaclient.keys.KeyRange;
 
-import com.couchbase.javaclient.utils.FileUtils;
+import com.couchbase.javaclient.utils.ElasticBulkWriter;
 import com.couchbase.javaclient.utils.TransactionsUtil;
 import com.couchbase.transactions.TransactionGetResult;
 import com.couchbase.transactions.Transactions;
 import reactor.util.Logger;
 import reactor.util.Loggers;
 import java.util.logging.Level;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
 
 public class DocDelete implements Callable<String> {
 
 	private final static Logger log = Loggers.getLogger(DocDelete.class);
 
-	private static DocSpec ds;
-	private static Cluster cluster;
-	private static Bucket bucket;
-	private static Collection collection;
-	private static int nThreads;
-	private static int num_docs = 0;
+	private final DocSpec ds;
+	private final Cluster cluster;
+	private Bucket bucket;
+	private Collection collection;
+	private final int nThreads;
+	// Written from the parallel bucket collection streams
+	private volatile int num_docs = 0;
 	private boolean done = false;
-	private Map<String, String> elasticMap = new HashMap<>();
+	// Only with --elastic_sync, written from the engine threads
+	private ElasticBulkWriter elastic;
 
 	public DocDelete(DocSpec _ds, Cluster _cluster , Bucket _bucket, int _nThreads) {
 		cluster= _cluster;
@@ -57,6 +66,7 @@ public class DocDelete implements Callable<String> {
 
 	@Override
 	public String call() throws Exception {
+		elastic = ds.isElasticSync() ? new ElasticBulkWriter(ds.get_template(), "delete", ds.getElasticIndex()) : null;
 		if (collection != null) {
 			log.info("Delete collection " + collection.bucketName() + "." + collection.scopeName() + "." + collection.name());
 			deleteCollection(collection);
@@ -65,8 +75,8 @@ public class DocDelete implements Callable<String> {
 			deleteBucketCollections();
 		}
 		// delete from elastic
-		if (ds.isElasticSync() && !elasticMap.isEmpty()) {
-			List<File> elasticFiles = FileUtils.writeForElastic(elasticMap, ds.get_template(), "delete", ds.getElasticIndex());
+		List<File> elasticFiles = elastic != null ? elastic.finish() : Collections.emptyList();
+		if (!elasticFiles.isEmpty()) {
 			ElasticSync.syncFiles(ds.getElasticIP(), ds.getElasticPort(), ds.getElasticLogin(), ds.getElasticPassword(), elasticFiles, 5);
 		}
 		done = true;
@@ -93,15 +103,20 @@ public class DocDelete implements Callable<String> {
 
 	public void delete(Collection collection) {
 		ReactiveCollection rcollection = collection.reactive();
-		num_docs = (int) (ds.get_num_ops() * ((float) ds.get_percent_delete() / 100));
-		Flux<String> docsToDelete = Flux.range(ds.get_startSeqNum(), num_docs)
-				.map(id -> ds.get_prefix() + id + ds.get_suffix());
-		if(ds.get_shuffle_docs()){
-			List<String> docs = docsToDelete.collectList().block();
-			java.util.Collections.shuffle(docs);
-			docsToDelete = Flux.fromIterable(docs);
+		int total_docs = (int) (ds.get_num_ops() * ((float) ds.get_percent_delete() / 100));
+		KeyRange range = KeyRange.of(ds, total_docs);
+		num_docs = (int) range.count();
+		log.info("Delete key range " + range + " of " + total_docs);
+		Flux<String> docsToDelete = DocKeys.of(ds, range, total_docs);
+		ExecutionEngine engine = ExecutionEngine.of(ds.get_engine(), nThreads, "catapult-delete");
+		AdaptiveLimiter limiter = AdaptiveLimiter.of(ds, ds.label("Delete"));
+		Disposable limitLog = limiter.logEvery(Duration.ofSeconds(ds.get_report_interval()));
+		RetryPolicy retry = RetryPolicy.of(ds);
+		DeadLetterLog deadLetters = DeadLetterLog.open(ds, ds.label("Delete"));
+		ResultSink<MutationResult> sink = new ResultSink<>(ds.label("Delete"));
+		if (elastic != null) {
+			sink.handOff((id, result) -> elastic.add(id, null));
 		}
-		List<MutationResult> results;
 		try {
 			if(ds.getUseTransactions()){
 				log.info("Using Transactions for DocDelete");
@@ -117,25 +132,27 @@ public class DocDelete implements Callable<String> {
 				transactions.close();
 			}else
 			{
-				results = docsToDelete.publishOn(Schedulers
-						.newBoundedElastic(nThreads, 100, "catapult-delete"))
-						.flatMap(id -> wrap(rcollection, id, elasticMap))
+				docsToDelete
+						.flatMap(id -> retry.retrying(limiter.run(wrap(engine, rcollection, collection, id)))
+								.doOnNext(r -> sink.accept(id, r))
+								.onErrorResume(e -> deadLetters.skip("delete", id, e)), limiter.window(Queues.SMALL_BUFFER_SIZE))
 						.log("", ds.getNewLogLevel())
-						.buffer(1000)
-						// Num retries
-						.retry(20)
 						// Block until last value, complete or timeout expiry
 						.blockLast(Duration.ofSeconds(7200));
 			}
 		} catch (Exception err) {
 			log.error(err.toString());
+		} finally {
+			engine.dispose();
+			limitLog.dispose();
+			deadLetters.close();
 		}
 
-		log.info("Completed delete");
+		log.info("Completed delete, " + sink);
 	}
 
-	private Mono<MutationResult> wrap(ReactiveCollection rcollection, String id, final Map<String, String> elasticMap) {
-		elasticMap.put(id, null);
-		return rcollection.remove(id);
+	private Mono<MutationResult> wrap(ExecutionEngine engine, ReactiveCollection rcollection, Collection collection,
+			String id) {
+		return engine.execute(() -> rcollection.remove(id), () -> collection.remove(id));
 	}
 }
\ No newline at end of file
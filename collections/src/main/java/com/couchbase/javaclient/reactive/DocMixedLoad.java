@@ -0,0 +1,549 @@
+package com.couchbase.javaclient.reactive;
+
+import static com.couchbase.client.java.kv.MutateInOptions.mutateInOptions;
+import static com.couchbase.client.java.kv.UpsertOptions.upsertOptions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.couchbase.client.java.Bucket;
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.ReactiveCollection;
+import com.couchbase.client.java.codec.RawBinaryTranscoder;
+import com.couchbase.client.java.codec.RawJsonTranscoder;
+import com.couchbase.client.java.kv.MutationResult;
+import com.couchbase.client.java.kv.MutateInOptions;
+import com.couchbase.client.java.kv.UpsertOptions;
+import com.couchbase.client.java.manager.collection.CollectionSpec;
+import com.couchbase.client.java.manager.collection.ScopeSpec;
+import com.couchbase.javaclient.doc.Binary;
+import com.couchbase.javaclient.doc.Compression;
+import com.couchbase.javaclient.doc.DocSpec;
+import com.couchbase.javaclient.doc.DocTemplate;
+import com.couchbase.javaclient.doc.DocTemplateFactory;
+import com.couchbase.javaclient.doc.DocGenerator;
+import com.couchbase.javaclient.engine.AdaptiveLimiter;
+import com.couchbase.javaclient.engine.CasUpdate;
+import com.couchbase.javaclient.engine.DeadLetterLog;
+import com.couchbase.javaclient.engine.ExecutionEngine;
+import com.couchbase.javaclient.engine.RetryPolicy;
+import com.couchbase.javaclient.engine.Written;
+import com.couchbase.javaclient.keys.KeyGenerator;
+import com.couchbase.javaclient.utils.OpStats;
+import com.couchbase.javaclient.utils.RatePacer;
+import com.couchbase.javaclient.utils.StatsListener;
+import com.couchbase.javaclient.utils.StatsSnapshot;
+import org.apache.log4j.Logger;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs creates, reads, updates and deletes interleaved per operation according
+ * to the DocSpec percentages, over one shared in-flight window.
+ *
+ * Key space: ids [startSeqNum, startSeqNum + existing_docs) are assumed to be
+ * loaded already. Creates append new ids after them, deletes remove the oldest
+ * live id, and reads/updates pick a live id with the --load_pattern
+ * distribution. An id is live once its create succeeded. A read, update or
+ * delete that finds no live id falls back to a create.
+ *
+ * With --ops_per_sec or per op type rates the load is open loop: ops are
+ * issued on a fixed schedule and latency is measured from the intended send
+ * time, so a slow cluster shows up as tail latency rather than a lower rate.
+ *
+ * Ops run on the --engine backend, reactive or blocking API. With --adaptive
+ * the in-flight window adapts to latency and timeouts, up to --inflight_window.
+ * Failed ops are retried one by one, those still failing go to the dead
+ * letters and the load carries on.
+ *
+ * With --duration the load is kept up for a fixed time instead of num_ops,
+ * on one set of executors, reporting interval stats every --report_interval
+ * seconds. Nothing grows with the number of ops, so soaks stay flat.
+ */
+public class DocMixedLoad implements Callable<String> {
+
+	private final static Logger log = Logger.getLogger(DocMixedLoad.class);
+
+	private final DocSpec ds;
+	private final Cluster cluster;
+	private Bucket bucket;
+	private Collection collection;
+	private final int nThreads;
+	private final OpStats stats = new OpStats();
+	private StatsListener listener;
+	private final AdaptiveLimiter limiter;
+	private final RetryPolicy retry;
+	private final CasUpdate cas;
+	private final DeadLetterLog deadLetters;
+	// Live keys per collection, handed on from phase to phase of a timeline
+	private Map<String, KeySpace> keySpaces = new ConcurrentHashMap<>();
+	private DocMixedLoad previous;
+	// Updates send only the changed fields, set by run before the first op
+	private volatile boolean subdocUpdates;
+
+	public DocMixedLoad(DocSpec _ds, Cluster _cluster, Bucket _bucket, int _nThreads) {
+		ds = _ds;
+		cluster = _cluster;
+		bucket = _bucket;
+		nThreads = _nThreads;
+		limiter = AdaptiveLimiter.of(ds, ds.label("Mixed load"));
+		retry = RetryPolicy.of(ds);
+		cas = CasUpdate.of(ds);
+		deadLetters = DeadLetterLog.open(ds, ds.label("Mixed load"));
+	}
+
+	public DocMixedLoad(DocSpec _ds, Cluster _cluster, Collection _collection, int _nThreads) {
+		ds = _ds;
+		cluster = _cluster;
+		collection = _collection;
+		nThreads = _nThreads;
+		limiter = AdaptiveLimiter.of(ds, ds.label("Mixed load"));
+		retry = RetryPolicy.of(ds);
+		cas = CasUpdate.of(ds);
+		deadLetters = DeadLetterLog.open(ds, ds.label("Mixed load"));
+	}
+
+	@Override
+	public String call() throws Exception {
+		Disposable reporter = Disposables.disposed();
+		if (ds.get_report_interval() > 0) {
+			Duration interval = Duration.ofSeconds(ds.get_report_interval());
+			reporter = Flux.interval(interval, interval).subscribe(t -> {
+				StatsSnapshot snapshot = stats.reportInterval(ds.label("Mixed load"), log,
+						limiter.isAdaptive() ? "in-flight limit=" + limiter.limit() : null);
+				if (listener != null) {
+					listener.interval(t, snapshot);
+				}
+			});
+		}
+		try {
+			if (collection != null) {
+				log.info("Mixed load on collection " + collection.bucketName() + "." + collection.scopeName() + "."
+						+ collection.name());
+				run(collection);
+			} else {
+				log.info("Mixed load on bucket collections");
+				runBucketCollections();
+			}
+		} finally {
+			reporter.dispose();
+			deadLetters.close();
+		}
+		stats.report(ds.label("Mixed load"), log);
+		log.info(ds.label("Mixed load") + " retries: " + retry.retries() + ", CAS conflicts: " + cas.conflicts());
+		Compression.report(ds);
+		if (listener != null) {
+			listener.total(stats.totalSnapshot());
+		}
+		return "MIXED LOAD DONE!";
+	}
+
+	public void runBucketCollections() {
+		List<Collection> bucketCollections = new ArrayList<>();
+		List<ScopeSpec> bucketScopes = bucket.collections().getAllScopes();
+		for (ScopeSpec scope : bucketScopes) {
+			for (CollectionSpec scopeCollection : scope.collections()) {
+				Collection collection = bucket.scope(scope.name()).collection(scopeCollection.name());
+				if (collection != null) {
+					bucketCollections.add(collection);
+				}
+			}
+		}
+		bucketCollections.parallelStream().forEach(c -> run(c));
+	}
+
+	public void run(Collection collection) {
+		OpMix mix = OpMix.of(ds);
+		KeyGenerator keyGenerator = KeyGenerator.of(ds);
+		KeySpace keys = keySpaces.computeIfAbsent(
+				collection.bucketName() + "." + collection.scopeName() + "." + collection.name(),
+				name -> KeySpace.of(ds));
+		DocTemplate docTemplate = "Binary".equals(ds.get_template()) ? null : DocTemplateFactory.getDocTemplate(ds);
+		subdocUpdates = docTemplate != null && DocGenerator.subdocUpdates(docTemplate, ds);
+		ExecutionEngine engine = ExecutionEngine.of(ds.get_engine(), nThreads, "catapult-mixed");
+		Scheduler pacers = Schedulers.newParallel("catapult-pacer", OpType.values().length);
+		log.info("Mixed load " + mix + ", " + (ds.get_duration() > 0 ? ds.get_duration() + " sec"
+				: ds.get_num_ops() + " ops") + ", in-flight window " + ds.get_inflight_window() + ", "
+				+ ds.get_engine() + " engine");
+		try {
+			planOps(pacers)
+					// Doc generation runs on the engine threads, the KV ops share one in-flight window
+					.flatMap(planned -> Mono.defer(() -> execute(engine, collection, docTemplate, keys, keyGenerator,
+							planned.type != null ? planned.type : mix.next(), planned.intendedNanos)),
+							ds.get_inflight_window())
+					.blockLast(Duration.ofSeconds(Math.max(7200, ds.get_duration() + 600)));
+		} catch (Throwable err) {
+			log.error(err.toString());
+		} finally {
+			engine.dispose();
+			pacers.dispose();
+		}
+		log.info("Completed mixed load");
+	}
+
+	/**
+	 * Closed loop: ops are issued as fast as the in-flight window allows.
+	 * Open loop (--ops_per_sec): one paced stream using the op mix.
+	 * Per op type rates (--create_rate etc.): one paced stream per op type.
+	 * With --duration the streams are unbounded and stop when the time is up.
+	 */
+	private Flux<PlannedOp> planOps(Scheduler pacers) {
+		if (ds.get_duration() > 0) {
+			return planStreams(pacers, Long.MAX_VALUE).take(Duration.ofSeconds(ds.get_duration()));
+		}
+		return planStreams(pacers, ds.get_num_ops());
+	}
+
+	private Flux<PlannedOp> planStreams(Scheduler pacers, long numOps) {
+		if (!ds.isRateTargeted()) {
+			return Flux.<PlannedOp>generate(sink -> sink.next(PlannedOp.ANY_NOW)).take(numOps);
+		}
+		if (ds.get_ops_per_sec() > 0) {
+			log.info("Open loop at " + ds.get_ops_per_sec() + " ops/sec");
+			return paced(null, ds.get_ops_per_sec(), numOps, pacers);
+		}
+		int totalRate = ds.get_create_rate() + ds.get_read_rate() + ds.get_update_rate() + ds.get_delete_rate();
+		List<Flux<PlannedOp>> streams = new ArrayList<>();
+		for (OpType type : OpType.values()) {
+			int rate = rateOf(type);
+			if (rate > 0) {
+				log.info("Open loop " + type + " at " + rate + " ops/sec");
+				// Split num_ops by rate so every stream ends at the same time
+				long count = numOps == Long.MAX_VALUE ? numOps : numOps * rate / totalRate;
+				streams.add(paced(type, rate, count, pacers));
+			}
+		}
+		return Flux.merge(streams);
+	}
+
+	/**
+	 * With --ramp the rate starts from the final rate of the previous phase, 0 for the first phase.
+	 */
+	private Flux<PlannedOp> paced(OpType type, int opsPerSec, long count, Scheduler pacers) {
+		double fromRate = previous != null ? previous.finalRate(type) : 0;
+		RatePacer pacer = ds.get_ramp() > 0 ? new RatePacer(fromRate, opsPerSec, ds.get_ramp())
+				: new RatePacer(opsPerSec);
+		if (ds.get_ramp() > 0) {
+			log.info(ds.label("Ramp") + " " + (type != null ? type + " " : "") + String.format("%.0f", fromRate)
+					+ " to " + opsPerSec + " ops/sec over " + ds.get_ramp() + " sec");
+		}
+		return Flux.<PlannedOp, Long>generate(() -> 0L, (i, sink) -> {
+			sink.next(new PlannedOp(type, pacer.awaitSlot(i)));
+			return i + 1;
+		}).take(count).subscribeOn(pacers);
+	}
+
+	private int rateOf(OpType type) {
+		switch (type) {
+		case CREATE:
+			return ds.get_create_rate();
+		case READ:
+			return ds.get_read_rate();
+		case UPDATE:
+			return ds.get_update_rate();
+		default:
+			return ds.get_delete_rate();
+		}
+	}
+
+	/**
+	 * Rate this load ended at, the target rate when open loop and the achieved
+	 * rate when closed loop.
+	 *
+	 * @param type op type, null for all of them
+	 */
+	double finalRate(OpType type) {
+		if (ds.get_ops_per_sec() > 0) {
+			return type == null ? ds.get_ops_per_sec() : ds.get_ops_per_sec() * OpMix.of(ds).share(type);
+		}
+		if (ds.isRateTargeted()) {
+			return type == null ? ds.get_create_rate() + ds.get_read_rate() + ds.get_update_rate()
+					+ ds.get_delete_rate() : rateOf(type);
+		}
+		StatsSnapshot total = stats.totalSnapshot();
+		long ops = 0;
+		for (OpType t : OpType.values()) {
+			if (type == null || type == t) {
+				ops += total.count(t);
+			}
+		}
+		return total.seconds() > 0 ? ops / total.seconds() : 0;
+	}
+
+	/**
+	 * Makes this load the next phase of a timeline: it carries on with the live
+	 * keys of the previous phase, and ramps from its rate.
+	 */
+	DocMixedLoad after(DocMixedLoad previousPhase) {
+		previous = previousPhase;
+		keySpaces = previousPhase.keySpaces;
+		return this;
+	}
+
+	/**
+	 * @param intendedNanos scheduled start of an open-loop op, latency is measured from it; 0 when closed loop
+	 */
+	private Mono<?> execute(ExecutionEngine engine, Collection collection, DocTemplate docTemplate, KeySpace keys,
+			KeyGenerator keyGenerator, OpType type, long intendedNanos) {
+		long local = -1;
+		if (type == OpType.DELETE) {
+			local = keys.nextDelete();
+		} else if (type != OpType.CREATE) {
+			local = keys.randomLive(keyGenerator);
+		}
+		if (local < 0) {
+			type = OpType.CREATE;
+			local = keys.nextCreate();
+		}
+		final OpType opType = type;
+		final long created = opType == OpType.CREATE ? local : -1;
+		final long id = keys.id(local);
+		final int docId = (int) id;
+		final String key = ds.get_prefix() + id + ds.get_suffix();
+		final long start = intendedNanos != 0 ? intendedNanos : System.nanoTime();
+		ReactiveCollection rcollection = collection.reactive();
+		Mono<?> op;
+		switch (opType) {
+		case CREATE:
+			op = engine.execute(() -> create(rcollection, docTemplate, key, docId),
+					() -> create(collection, docTemplate, key, docId));
+			break;
+		case READ:
+			op = engine.execute(() -> rcollection.get(key), () -> collection.get(key));
+			break;
+		case UPDATE:
+			op = engine.execute(() -> update(rcollection, docTemplate, key, docId, engine.scheduler()),
+					() -> update(collection, docTemplate, key, docId));
+			break;
+		default:
+			op = engine.execute(() -> rcollection.remove(key), () -> collection.remove(key));
+		}
+		return retry.retrying(limiter.run(op))
+				.doOnSuccess(r -> {
+					stats.success(opType, System.nanoTime() - start);
+					if (created >= 0) {
+						keys.created(created);
+					}
+				})
+				.onErrorResume(e -> {
+					stats.error(opType);
+					if (created >= 0) {
+						keys.createFailed(created);
+					}
+					return deadLetters.skip(opType.name().toLowerCase(), key, e);
+				});
+	}
+
+	private Mono<MutationResult> create(ReactiveCollection rcollection, DocTemplate docTemplate, String key, int id) {
+		if (docTemplate == null) {
+			return rcollection.upsert(key, Binary.payload(ds), binaryOptions());
+		}
+		return rcollection.upsert(key, newDoc(docTemplate, id), createOptions());
+	}
+
+	private MutationResult create(Collection collection, DocTemplate docTemplate, String key, int id) {
+		if (docTemplate == null) {
+			return collection.upsert(key, Binary.payload(ds), binaryOptions());
+		}
+		return collection.upsert(key, newDoc(docTemplate, id), createOptions());
+	}
+
+	private Mono<MutationResult> update(ReactiveCollection rcollection, DocTemplate docTemplate, String key, int id,
+			Scheduler scheduler) {
+		if (docTemplate == null) {
+			return rcollection.upsert(key, Binary.payload(ds), binaryOptions());
+		}
+		if (subdocUpdates) {
+			return rcollection.mutateIn(key, DocGenerator.updateSpecs(docTemplate, ds), subdocOptions())
+					.map(r -> (MutationResult) r);
+		}
+		return cas.update(rcollection, key, current -> DocGenerator.update(docTemplate, ds, id, current), scheduler)
+				.map(Written::result);
+	}
+
+	private MutationResult update(Collection collection, DocTemplate docTemplate, String key, int id) {
+		if (docTemplate == null) {
+			return collection.upsert(key, Binary.payload(ds), binaryOptions());
+		}
+		if (subdocUpdates) {
+			return collection.mutateIn(key, DocGenerator.updateSpecs(docTemplate, ds), subdocOptions());
+		}
+		return cas.update(collection, key, current -> DocGenerator.update(docTemplate, ds, id, current)).result();
+	}
+
+	/**
+	 * JSON bytes streamed by the template with --raw_json, else a JsonObject for the SDK to encode.
+	 */
+	private Object newDoc(DocTemplate docTemplate, int id) {
+		return ds.get_raw_json() ? DocGenerator.createBytes(docTemplate, ds, id)
+				: DocGenerator.create(docTemplate, ds, id);
+	}
+
+	private UpsertOptions createOptions() {
+		return ds.get_raw_json() ? jsonOptions().transcoder(RawJsonTranscoder.INSTANCE) : jsonOptions();
+	}
+
+	private UpsertOptions jsonOptions() {
+		return upsertOptions().expiry(Duration.ofSeconds(ds.get_expiry()));
+	}
+
+	private MutateInOptions subdocOptions() {
+		return mutateInOptions().expiry(Duration.ofSeconds(ds.get_expiry()));
+	}
+
+	private UpsertOptions binaryOptions() {
+		return upsertOptions().transcoder(RawBinaryTranscoder.INSTANCE).expiry(Duration.ofSeconds(ds.get_expiry()));
+	}
+
+	public OpStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Also hands the interval and final stats to the listener, e.g. a coordinator.
+	 */
+	public DocMixedLoad setStatsListener(StatsListener _listener) {
+		listener = _listener;
+		return this;
+	}
+
+	static final class PlannedOp {
+		static final PlannedOp ANY_NOW = new PlannedOp(null, 0);
+
+		/** null picks the type from the op mix */
+		final OpType type;
+		final long intendedNanos;
+
+		PlannedOp(OpType type, long intendedNanos) {
+			this.type = type;
+			this.intendedNanos = intendedNanos;
+		}
+	}
+
+	/**
+	 * Live ids of one collection. Ids are numbered locally, local index i being
+	 * doc id firstId + (i % capacity) * stride, and the live ones are the window
+	 * [oldest, committed), at most capacity wide. committed only moves past
+	 * creates that succeeded, so reads, updates and deletes never target a doc
+	 * still being created or whose create failed; a failed create's index is
+	 * handed to the next create. Reads and updates pick from the window with
+	 * the --load_pattern key generator of the current phase.
+	 */
+	static class KeySpace {
+		private final long firstId;
+		private final long stride;
+		private final long capacity;
+		private final AtomicLong oldest = new AtomicLong();
+		private final AtomicLong next;
+		private volatile long committed;
+		// Creates that succeeded above committed, waiting for the ones before them
+		private final Set<Long> ahead = new HashSet<>();
+		private final Queue<Long> failed = new ConcurrentLinkedQueue<>();
+
+		KeySpace(long firstId, long stride, long existing, long capacity) {
+			this.firstId = firstId;
+			this.stride = stride;
+			this.capacity = capacity;
+			this.next = new AtomicLong(existing);
+			this.committed = existing;
+		}
+
+		/**
+		 * Ids this process owns: the --start/--end slice of the id space (creates
+		 * wrap around and overwrite once an --end bounded slice is full), and
+		 * within it every num_shards-th id starting at shard_index, so shards
+		 * never collide however many docs they create.
+		 */
+		static KeySpace of(DocSpec ds) {
+			long sliceFrom = Math.max(0, ds.get_start());
+			long sliceSize = ds.get_end() > 0 ? Math.max(0, ds.get_end() - sliceFrom) : Long.MAX_VALUE;
+			long existing = Math.min(Math.max(0, ds.get_existing_docs() - sliceFrom), sliceSize);
+			long shards = ds.get_num_shards();
+			long shard = ds.get_shard_index();
+			long capacity = sliceSize == Long.MAX_VALUE ? sliceSize : ceilDiv(sliceSize - shard, shards);
+			if (capacity == 0) {
+				throw new IllegalArgumentException("Empty key slice for start " + ds.get_start() + ", end "
+						+ ds.get_end() + ", shard " + shard + " of " + shards);
+			}
+			return new KeySpace(ds.get_startSeqNum() + sliceFrom + shard, shards, ceilDiv(existing - shard, shards),
+					capacity);
+		}
+
+		private static long ceilDiv(long a, long b) {
+			return a <= 0 ? 0 : (a + b - 1) / b;
+		}
+
+		/**
+		 * Oldest live local index: a wrapped create overwrote the docs of the
+		 * indexes more than capacity behind it.
+		 */
+		private long low(long committed) {
+			return Math.max(oldest.get(), committed - capacity);
+		}
+
+		long id(long local) {
+			return firstId + local % capacity * stride;
+		}
+
+		/**
+		 * @return the local index to create, acknowledged with created or createFailed
+		 */
+		long nextCreate() {
+			Long again = failed.poll();
+			return again != null ? again : next.getAndIncrement();
+		}
+
+		synchronized void created(long local) {
+			if (local != committed) {
+				ahead.add(local);
+				return;
+			}
+			long mark = local + 1;
+			while (ahead.remove(mark)) {
+				mark++;
+			}
+			committed = mark;
+		}
+
+		void createFailed(long local) {
+			failed.add(local);
+		}
+
+		long nextDelete() {
+			while (true) {
+				long mark = committed;
+				long local = oldest.get();
+				long from = Math.max(local, mark - capacity);
+				if (from >= mark) {
+					return -1;
+				}
+				if (oldest.compareAndSet(local, from + 1)) {
+					return from;
+				}
+			}
+		}
+
+		long randomLive(KeyGenerator keyGenerator) {
+			long hi = committed;
+			long lo = low(hi);
+			if (hi <= lo) {
+				return -1;
+			}
+			return keyGenerator.next(lo, hi);
+		}
+	}
+}
@@ -15,25 +15,34 @@ import com.couchbase.client.java.manager.collection.CollectionSpec;
 import com.couchbase.client.java.manager.collection.ScopeSpec;
 import com.couchbase.javaclient.doc.DocSpec;
 import com.couchbase.javaclient.doc.Person;
+import com.couchbase.javaclient.engine.AdaptiveLimiter;
+import com.couchbase.javaclient.engine.DeadLetterLog;
+import com.couchbase.javaclient.engine.ExecutionEngine;
+import com.couchbase.javaclient.engine.ResultSink;
+import com.couchbase.javaclient.engine.RetryPolicy;
+import com.couchbase.javaclient.keys.DocKeys;
+import com.couchbase.javaclient.keys.KeyRange;
 
 import com.couchbase.javaclient.utils.TransactionsUtil;
 import com.couchbase.transactions.TransactionGetResult;
 import com.couchbase.transactions.Transactions;
 import com.couchbase.transactions.error.TransactionFailed;
 import org.apache.log4j.Logger;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
-import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
 
 public class DocRetrieve implements Callable<String> {
 
 	private final static Logger log = Logger.getLogger(DocRetrieve.class);
 
-	private static DocSpec ds;
-	private static Cluster cluster;
-	private static Bucket bucket;
-	private static Collection collection;
-	private static int nThreads; 
-	private static int num_docs = 0;
+	private final DocSpec ds;
+	private final Cluster cluster;
+	private Bucket bucket;
+	private Collection collection;
+	private final int nThreads;
+	// Written from the parallel bucket collection streams
+	private volatile int num_docs = 0;
 	private boolean done = false;
 
 	public DocRetrieve(DocSpec _ds, Cluster _cluster , Bucket _bucket, int _nThreads) {
@@ -64,7 +73,7 @@ public class DocRetrieve implements Callable<String> {
 		return num_docs + " DOCS PRESENT!";
 	}
 
-	public static void printBucketCollections() {
+	public void printBucketCollections() {
 		List<Collection> bucketCollections = new ArrayList<>();
 		List<ScopeSpec> bucketScopes = bucket.collections().getAllScopes();
 		for (ScopeSpec scope : bucketScopes) {
@@ -79,11 +88,14 @@ public class DocRetrieve implements Callable<String> {
 		bucketCollections.parallelStream().forEach(c -> printCollection(c));
 	}
 
-	public static void printCollection(Collection collection) {
+	public void printCollection(Collection collection) {
 		ReactiveCollection rcollection = collection.reactive();
 		int created_docs = (int) (ds.get_num_ops() * ((float) ds.get_percent_create() / 100));
 		int deleted_docs = (int) (ds.get_num_ops() * ((float) ds.get_percent_delete() / 100));
-		int expected_docs = created_docs - deleted_docs;
+		// Only the docs of this process's slice of the created keys are checked
+		KeyRange range = KeyRange.of(ds, created_docs);
+		long firstLive = Math.max(range.from(), deleted_docs);
+		int expected_docs = (int) Math.max(0, range.to() - firstLive);
 
 		log.info("deleted docs " + deleted_docs);
 		log.info("expected docs " + expected_docs);
@@ -100,15 +112,8 @@ public class DocRetrieve implements Callable<String> {
 			log.error(key + " not found. Skipping delete");
 		}
 		Flux<String> docsToDelete = Flux.fromIterable(docsToDeleteList);
-		List<String> docsToFetchList = new ArrayList<>();
-
-		for (int id = ds.get_startSeqNum() + deleted_docs; id <= created_docs; id++) {
-			key = ds.get_prefix() + id + ds.get_suffix();
-			docsToFetchList.add(key);
-		}
-		if(ds.get_shuffle_docs()){
-			java.util.Collections.shuffle(docsToFetchList);
-		}
+		// Streamed, shuffled among themselves with --shuffle_docs
+		Flux<String> docsToFetch = DocKeys.within(ds, new KeyRange(firstLive, Math.max(firstLive, range.to())));
 		if(ds.getUseTransactions()){
 			log.info("Using Transactions for DocRetrieve");
 
@@ -116,7 +121,7 @@ public class DocRetrieve implements Callable<String> {
 			try{
 				List<TransactionGetResult> getResultList = new ArrayList<>();
 				transactions.run(ctx->{
-					docsToFetchList.forEach(docId -> {
+					docsToFetch.toIterable().forEach(docId -> {
 							TransactionGetResult getResult = ctx.get(collection, docId);
 							getResultList.add(getResult);
 					});
@@ -129,17 +134,27 @@ public class DocRetrieve implements Callable<String> {
 				System.out.println("Transaction failed with Exception:"+e);
 			}
 		}else{
-			List<GetResult> actual_docs = Flux.fromIterable(docsToFetchList)
-					.publishOn(Schedulers
-							.newBoundedElastic(nThreads, 100, "catapult-read"))
-					.flatMap(id -> rcollection.get(id))
-					// Num retries
-					.retry(20)
-					.collectList()
-					// Block until last value, complete or timeout expiry
-					.block(Duration.ofMinutes(10));
-			log.info(
-					expected_docs + " keys expected, " + actual_docs.size() + " keys present in collection");
+			ExecutionEngine engine = ExecutionEngine.of(ds.get_engine(), nThreads, "catapult-read");
+			AdaptiveLimiter limiter = AdaptiveLimiter.of(ds, ds.label("Retrieve"));
+			Disposable limitLog = limiter.logEvery(Duration.ofSeconds(ds.get_report_interval()));
+			RetryPolicy retry = RetryPolicy.of(ds);
+			DeadLetterLog deadLetters = DeadLetterLog.open(ds, ds.label("Retrieve"));
+			ResultSink<GetResult> sink = new ResultSink<>(ds.label("Retrieve"));
+			try {
+				docsToFetch
+						.flatMap(id -> retry.retrying(
+								limiter.run(engine.execute(() -> rcollection.get(id), () -> collection.get(id))))
+								.doOnNext(r -> sink.accept(id, r))
+								.onErrorResume(e -> deadLetters.skip("read", id, e)),
+								limiter.window(Queues.SMALL_BUFFER_SIZE))
+						// Block until last value, complete or timeout expiry
+						.blockLast(Duration.ofMinutes(10));
+				log.info(expected_docs + " keys expected, " + sink.count() + " keys present in collection");
+			} finally {
+				engine.dispose();
+				limitLog.dispose();
+				deadLetters.close();
+			}
 		}
 
 	}
@@ -0,0 +1,69 @@
+package com.couchbase.javaclient.reactive;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.couchbase.client.java.Bucket;
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.Collection;
+import com.couchbase.javaclient.doc.DocSpec;
+import com.couchbase.javaclient.utils.StatsSnapshot;
+import org.apache.log4j.Logger;
+
+/**
+ * Runs the phases of a workload one after the other, e.g. warm-up, ramp,
+ * steady, spike and cool-down. Every phase is a mixed load with its own
+ * duration or num_ops, rate or in-flight window, op mix and key distribution,
+ * and reports its own stats. A phase carries on with the live keys of the one
+ * before and, with --ramp, moves smoothly from its rate.
+ */
+public class DocTimeline implements Callable<String> {
+
+	private final static Logger log = Logger.getLogger(DocTimeline.class);
+
+	private final String name;
+	private final List<DocSpec> phases;
+	private final Cluster cluster;
+	private Bucket bucket;
+	private Collection collection;
+	private final int nThreads;
+
+	public DocTimeline(String _name, List<DocSpec> _phases, Cluster _cluster, Bucket _bucket, int _nThreads) {
+		name = _name;
+		phases = _phases;
+		cluster = _cluster;
+		bucket = _bucket;
+		nThreads = _nThreads;
+	}
+
+	public DocTimeline(String _name, List<DocSpec> _phases, Cluster _cluster, Collection _collection, int _nThreads) {
+		name = _name;
+		phases = _phases;
+		cluster = _cluster;
+		collection = _collection;
+		nThreads = _nThreads;
+	}
+
+	@Override
+	public String call() throws Exception {
+		DocMixedLoad previous = null;
+		StatsSnapshot total = null;
+		for (int i = 0; i < phases.size(); i++) {
+			DocSpec phase = phases.get(i);
+			DocMixedLoad load = collection != null ? new DocMixedLoad(phase, cluster, collection, nThreads)
+					: new DocMixedLoad(phase, cluster, bucket, nThreads);
+			if (previous != null) {
+				load.after(previous);
+			}
+			log.info("Phase " + (i + 1) + "/" + phases.size() + " " + phase.get_workload());
+			load.call();
+			StatsSnapshot phaseTotal = load.getStats().totalSnapshot();
+			total = total == null ? phaseTotal : total.then(phaseTotal);
+			previous = load;
+		}
+		if (total != null) {
+			total.report(name + " all phases", log);
+		}
+		return "TIMELINE DONE!";
+	}
+}
@@ -1,5 +1,6 @@
 package com.couchbase.javaclient.reactive;
 
+import static com.couchbase.client.java.kv.MutateInOptions.mutateInOptions;
 import static com.couchbase.client.java.kv.UpsertOptions.upsertOptions;
 
 import java.io.File;
@@ -7,8 +8,7 @@ import java.time.Duration;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
 
 import com.couchbase.client.java.Bucket;
 import com.couchbase.client.java.Cluster;
@@ -16,11 +16,20 @@ import com.couchbase.client.java.Collection;
 import com.couchbase.client.java.ReactiveCollection;
 import com.couchbase.client.java.codec.RawBinaryTranscoder;
 import com.couchbase.client.java.json.JsonObject;
-import com.couchbase.client.java.kv.MutationResult;
 import com.couchbase.client.java.manager.collection.CollectionSpec;
 import com.couchbase.client.java.manager.collection.ScopeSpec;
 import com.couchbase.javaclient.doc.*;
-import com.couchbase.javaclient.utils.FileUtils;
+import com.couchbase.javaclient.engine.AdaptiveLimiter;
+import com.couchbase.javaclient.engine.CasUpdate;
+import com.couchbase.javaclient.engine.DeadLetterLog;
+import com.couchbase.javaclient.engine.ExecutionEngine;
+import com.couchbase.javaclient.engine.ResultSink;
+import com.couchbase.javaclient.engine.RetryPolicy;
+import com.couchbase.javaclient.engine.Written;
+import com.couchbase.javaclient.keys.DocKeys;
+import com.couchbase.javaclient.keys.KeyGenerator;
+import com.couchbase.javaclient.keys.KeyRange;
+import com.couchbase.javaclient.utils.ElasticBulkWriter;
 
 import com.couchbase.javaclient.utils.TransactionsUtil;
 import com.couchbase.transactions.TransactionGetResult;
@@ -28,21 +37,24 @@ import com.couchbase.transactions.Transactions;
 import reactor.util.Logger;
 import reactor.util.Loggers;
 import java.util.logging.Level;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
-import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
 
 public class DocUpdate implements Callable<String> {
 
 	private final static Logger log = Loggers.getLogger(DocUpdate.class);
 
-	private static DocSpec ds;
-	private static Cluster cluster;
-	private static Bucket bucket;
-	private static Collection collection;
-	private static int nThreads;
-	private static int num_docs = 0;
+	private final DocSpec ds;
+	private final Cluster cluster;
+	private Bucket bucket;
+	private Collection collection;
+	private final int nThreads;
+	// Written from the parallel bucket collection streams
+	private volatile int num_docs = 0;
 	private boolean done = false;
-	private Map<String, String> elasticMap = new HashMap<>();
+	// Only with --elastic_sync, written from the engine threads
+	private ElasticBulkWriter elastic;
 
 	public DocUpdate(DocSpec _ds, Cluster _cluster , Bucket _bucket, int _nThreads) {
 		cluster= _cluster;
@@ -60,6 +72,7 @@ public class DocUpdate implements Callable<String> {
 
 	@Override
 	public String call() throws Exception {
+		elastic = ds.isElasticSync() ? new ElasticBulkWriter(ds.get_template(), "update", ds.getElasticIndex()) : null;
 		if (collection != null) {
 			log.info("Update collection " + collection.bucketName() + "." + collection.scopeName() + "." + collection.name());
 			updateCollection(collection);
@@ -68,8 +81,8 @@ public class DocUpdate implements Callable<String> {
 			updateBucketCollections();
 		}
 		// upsert to elastic
-		if (ds.isElasticSync() && !elasticMap.isEmpty()) {
-			final List<File> elasticFiles = FileUtils.writeForElastic(elasticMap, ds.get_template(), "update", ds.getElasticIndex());
+		final List<File> elasticFiles = elastic != null ? elastic.finish() : Collections.emptyList();
+		if (!elasticFiles.isEmpty()) {
 			ElasticSync.syncFiles(ds.getElasticIP(), ds.getElasticPort(), ds.getElasticLogin(), ds.getElasticPassword(), elasticFiles, 5);
 		}
 		done = true;
@@ -96,15 +109,34 @@ public class DocUpdate implements Callable<String> {
 
 	public void update(Collection collection) {
 		ReactiveCollection rcollection = collection.reactive();
-		num_docs = (int) (ds.get_num_ops() * ((float) ds.get_percent_update() / 100));
-		Flux<String> docsToUpdate = Flux.range(ds.get_startSeqNum(), num_docs)
-				.map(id -> ds.get_prefix() + id + ds.get_suffix());
-		if(ds.get_shuffle_docs()){
-			List<String> docs = docsToUpdate.collectList().block();
-			java.util.Collections.shuffle(docs);
-			docsToUpdate = Flux.fromIterable(docs);
+		int total_docs = (int) (ds.get_num_ops() * ((float) ds.get_percent_update() / 100));
+		KeyRange range = KeyRange.of(ds, total_docs);
+		num_docs = (int) range.count();
+		log.info("Update key range " + range + " of " + total_docs);
+		Flux<String> docsToUpdate = DocKeys.of(ds, range, total_docs);
+		if (KeyGenerator.isDistribution(ds)) {
+			// num_docs updates drawn with replacement from this process's slice of the loaded keys
+			KeyGenerator keyGenerator = KeyGenerator.of(ds);
+			KeyRange keySpace = KeyRange.of(ds, Math.max(total_docs, ds.get_existing_docs()));
+			long low = ds.get_startSeqNum() + keySpace.from();
+			long high = ds.get_startSeqNum() + keySpace.to();
+			docsToUpdate = Flux.range(0, num_docs).map(i -> DocKeys.key(ds, keyGenerator.next(low, high)));
 		}
-		List<MutationResult> results;
+		ExecutionEngine engine = ExecutionEngine.of(ds.get_engine(), nThreads, "catapult-update");
+		AdaptiveLimiter limiter = AdaptiveLimiter.of(ds, ds.label("Update"));
+		Disposable limitLog = limiter.logEvery(Duration.ofSeconds(ds.get_report_interval()));
+		RetryPolicy retry = RetryPolicy.of(ds);
+		DeadLetterLog deadLetters = DeadLetterLog.open(ds, ds.label("Update"));
+		ResultSink<Written> sink = new ResultSink<>(ds.label("Update"));
+		if (elastic != null) {
+			// Only the docs of the replaces that succeeded, once each
+			sink.handOff((id, written) -> {
+				if (written.hasContent()) {
+					elastic.add(id, written.json());
+				}
+			});
+		}
+		CasUpdate cas = CasUpdate.of(ds);
 		try {
 			if(ds.getUseTransactions()){
 				log.info("Using Transactions for DocUpdate");
@@ -119,40 +151,69 @@ public class DocUpdate implements Callable<String> {
 				});
 				transactions.close();
 			}else if ("Binary".equals(ds.get_template())) {
-				results = docsToUpdate.publishOn(Schedulers
-						// Num threads, items in queue, thread name prefix
-						.newBoundedElastic(nThreads, 100, "catapult-update"))
-						.flatMap(
-								key -> rcollection.upsert(key, new Binary().createBinaryObject(ds.faker, ds.get_size()),
+				docsToUpdate
+						.flatMap(key -> retry.retrying(limiter.run(engine.execute(
+								() -> rcollection.upsert(key, Binary.payload(ds),
+										upsertOptions().transcoder(RawBinaryTranscoder.INSTANCE)
+												.expiry(Duration.ofSeconds(ds.get_expiry()))),
+								() -> collection.upsert(key, Binary.payload(ds),
 										upsertOptions().transcoder(RawBinaryTranscoder.INSTANCE)
-												.expiry(Duration.ofSeconds(ds.get_expiry()))))
+												.expiry(Duration.ofSeconds(ds.get_expiry()))))))
+								.doOnNext(r -> sink.accept(key, new Written(r, null)))
+								.onErrorResume(e -> deadLetters.skip("update", key, e)), limiter.window(Queues.SMALL_BUFFER_SIZE))
 						.log("", ds.getNewLogLevel())
-						.buffer(1000)
-						.retry(20)
 						.blockLast(Duration.ofSeconds(7200));
 			} else {
 				DocTemplate docTemplate = DocTemplateFactory.getDocTemplate(ds);
-				results = docsToUpdate.publishOn(Schedulers
-						.newBoundedElastic(nThreads, 100, "catapult-update"))
-						.flatMap(key -> rcollection.upsert(key, getObject(key, docTemplate, elasticMap, collection),
-								upsertOptions().expiry(Duration.ofSeconds(ds.get_expiry()))))
-						.log("", ds.getNewLogLevel())
-						.buffer(1000)
-						// Num retries
-						.retry(20)
-						// Block until last value, complete or timeout expiry
-						.blockLast(Duration.ofSeconds(7200));
+				if (subdocUpdates(docTemplate)) {
+					docsToUpdate
+							// Only the changed fields, no read
+							.flatMap(key -> retry.retrying(limiter.run(engine.execute(
+									() -> rcollection.mutateIn(key, DocGenerator.updateSpecs(docTemplate, ds),
+											mutateInOptions().expiry(Duration.ofSeconds(ds.get_expiry()))),
+									() -> collection.mutateIn(key, DocGenerator.updateSpecs(docTemplate, ds),
+											mutateInOptions().expiry(Duration.ofSeconds(ds.get_expiry()))))))
+									.doOnNext(r -> sink.accept(key, new Written(r, null)))
+									.onErrorResume(e -> deadLetters.skip("update", key, e)), limiter.window(Queues.SMALL_BUFFER_SIZE))
+							.log("", ds.getNewLogLevel())
+							.blockLast(Duration.ofSeconds(7200));
+				} else {
+					docsToUpdate
+							// The reactive engine reads and replaces the doc without blocking its thread, and
+							// changes it back on its threads
+							.flatMap(key -> retry.retrying(limiter.run(engine.execute(
+									() -> cas.update(rcollection, key, current -> getObject(key, docTemplate, current),
+											engine.scheduler()),
+									() -> cas.update(collection, key, current -> getObject(key, docTemplate, current)))))
+									.doOnNext(r -> sink.accept(key, r))
+									.onErrorResume(e -> deadLetters.skip("update", key, e)), limiter.window(Queues.SMALL_BUFFER_SIZE))
+							.log("", ds.getNewLogLevel())
+							// Block until last value, complete or timeout expiry
+							.blockLast(Duration.ofSeconds(7200));
+				}
 			}
 		} catch (Throwable e) {
 			log.error(e.toString());
+		} finally {
+			engine.dispose();
+			limitLog.dispose();
+			deadLetters.close();
+		}
+		log.info("Completed update, " + sink + ", " + cas.conflicts() + " CAS conflicts");
+	}
+
+	/**
+	 * Sub-document updates, unless elastic sync needs the whole updated docs.
+	 */
+	private boolean subdocUpdates(DocTemplate docTemplate) {
+		if (elastic != null && DocGenerator.UPDATE_SUBDOC.equals(ds.get_update_mode())) {
+			log.warn("Elastic sync needs whole docs, updating whole docs");
+			return false;
 		}
-		log.info("Completed update");
+		return DocGenerator.subdocUpdates(docTemplate, ds);
 	}
 
-	private JsonObject getObject(String key, DocTemplate docTemplate, Map<String, String> elasticMap, Collection collection) {
-		JsonObject obj = docTemplate.updateJsonObject(ds.faker, collection.get(key).contentAsObject(),
-				ds.get_fieldsToUpdate());
-		elasticMap.put(key, obj.toString());
-		return obj;
+	private JsonObject getObject(String key, DocTemplate docTemplate, JsonObject current) {
+		return DocGenerator.update(docTemplate, ds, DocKeys.id(ds, key), current);
 	}
 }
@@ -0,0 +1,66 @@
+package com.couchbase.javaclient.reactive;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.couchbase.javaclient.doc.DocSpec;
+
+/**
+ * Picks the type of the next operation of a mixed workload, weighted by the
+ * create/read/update/delete percentages. Weights don't need to add up to 100.
+ */
+public class OpMix {
+
+	private final int createUpTo;
+	private final int readUpTo;
+	private final int updateUpTo;
+	private final int total;
+
+	public OpMix(int percentCreate, int percentRead, int percentUpdate, int percentDelete) {
+		createUpTo = Math.max(0, percentCreate);
+		readUpTo = createUpTo + Math.max(0, percentRead);
+		updateUpTo = readUpTo + Math.max(0, percentUpdate);
+		total = updateUpTo + Math.max(0, percentDelete);
+		if (total == 0) {
+			throw new IllegalArgumentException("At least one of create/read/update/delete percentages must be set");
+		}
+	}
+
+	public static OpMix of(DocSpec ds) {
+		return new OpMix(ds.get_percent_create(), ds.get_percent_read(), ds.get_percent_update(),
+				ds.get_percent_delete());
+	}
+
+	public OpType next() {
+		int roll = ThreadLocalRandom.current().nextInt(total);
+		if (roll < createUpTo) {
+			return OpType.CREATE;
+		} else if (roll < readUpTo) {
+			return OpType.READ;
+		} else if (roll < updateUpTo) {
+			return OpType.UPDATE;
+		}
+		return OpType.DELETE;
+	}
+
+	/**
+	 * Fraction of the ops that are of the given type.
+	 */
+	public double share(OpType type) {
+		switch (type) {
+		case CREATE:
+			return (double) createUpTo / total;
+		case READ:
+			return (double) (readUpTo - createUpTo) / total;
+		case UPDATE:
+			return (double) (updateUpTo - readUpTo) / total;
+		default:
+			return (double) (total - updateUpTo) / total;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "create=" + createUpTo + " read=" + (readUpTo - createUpTo) + " update=" + (updateUpTo - readUpTo)
+				+ " delete=" + (total - updateUpTo);
+	}
+}
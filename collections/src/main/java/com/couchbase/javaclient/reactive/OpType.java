@@ -0,0 +1,5 @@
+package com.couchbase.javaclient.reactive;
+
+public enum OpType {
+	CREATE, READ, UPDATE, DELETE
+}
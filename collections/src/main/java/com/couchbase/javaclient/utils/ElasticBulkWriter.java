@@ -0,0 +1,81 @@
+package com.couchbase.javaclient.utils;
+
+import static com.couchbase.javaclient.reactive.ElasticSync.createElasticObject;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.couchbase.javaclient.reactive.ElasticSync;
+
+/**
+ * Writes the Elastic bulk files of one operation as the docs are generated,
+ * 1000 docs per file, so no doc is kept in memory until the sync.
+ */
+public class ElasticBulkWriter {
+
+    private static final int DOCS_PER_FILE = 1000;
+
+    private final String dataset;
+    private final String operation;
+    private final String indexName;
+    private final List<File> files = new ArrayList<>();
+    private File file;
+    private FileWriter writer;
+    private int rowCount;
+
+    public ElasticBulkWriter(String dataset, String operation, String indexName) {
+        this.dataset = dataset;
+        this.operation = operation;
+        this.indexName = indexName;
+    }
+
+    /**
+     * @param json the doc for creates, the changed fields for updates, null for deletes
+     */
+    public synchronized void add(String id, String json) {
+        try {
+            if (rowCount % DOCS_PER_FILE == 0) {
+                closeFile();
+                file = FileUtils.getNewFile(ElasticSync.filePrefix, operation, rowCount);
+                writer = new FileWriter(file);
+            }
+            writer.write(createElasticObject(dataset, id, operation, indexName));
+            if ("update".equals(operation)) {
+                writer.write("{ \"doc\" : " + json + " }\n");
+            } else if ("create".equals(operation)) {
+                writer.write(json + "\n");
+            }
+            rowCount++;
+        } catch (IOException ioe) {
+            System.err.println("Cannot write data file for Elastic - " + ioe.getMessage());
+            ioe.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return the files written, ready for {@link ElasticSync#syncFiles}
+     */
+    public synchronized List<File> finish() {
+        try {
+            closeFile();
+        } catch (IOException ioe) {
+            System.err.println("Cannot write data file for Elastic - " + ioe.getMessage());
+            ioe.printStackTrace();
+            System.exit(1);
+        }
+        return new ArrayList<>(files);
+    }
+
+    private void closeFile() throws IOException {
+        if (writer != null) {
+            writer.flush();
+            writer.close();
+            files.add(file);
+            writer = null;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.couchbase.javaclient.utils;
 
 import com.couchbase.client.java.kv.MutationResult;
 import com.couchbase.javaclient.DataTransformer;
-import com.couchbase.javaclient.reactive.ElasticSync;
 import org.apache.log4j.Logger;
 
 import java.io.*;
@@ -10,13 +9,9 @@ import java.net.URL;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.zip.GZIPInputStream;
 
-import static com.couchbase.javaclient.reactive.ElasticSync.createElasticObject;
-
 public final class FileUtils {
 
     final static String NAPA_URL = "https://s3-us-west-1.amazonaws.com/qebucket/testrunner/data/napa_dataset.txt.gz";
@@ -103,47 +98,6 @@ public final class FileUtils {
         return localFileName;
     }
 
-    public static List<File> writeForElastic(Map<String, String> objects, String dataset, String operation, String indexName) {
-        final List<File> filesList = new ArrayList<>();
-        try {
-            File elasticFile = null;
-            FileWriter writer = null;
-            int rowCount = 0;
-            for (String id: objects.keySet()) {
-                if (rowCount % 1000 == 0) {
-                    if (writer != null) {
-                        writer.flush();
-                        writer.close();
-                        filesList.add(elasticFile);
-                    }
-                    elasticFile = getNewFile(ElasticSync.filePrefix, operation, rowCount);
-                    writer = new FileWriter(elasticFile);
-                }
-
-                writer.write(createElasticObject(dataset, id, operation, indexName));
-                if ("update".equals(operation)){
-                    writer.write("{ \"doc\" : "+objects.get(id)+" }\n");
-                }
-                else if ("create".equals(operation)){
-                    writer.write(objects.get(id) + "\n");
-                }
-                rowCount++;
-            }
-            if (writer != null) {
-                writer.flush();
-                writer.close();
-                filesList.add(elasticFile);
-            }
-
-            return filesList;
-        }catch(IOException ioe){
-            System.err.println("Cannot write data file for Elastic - " + ioe.getMessage());
-            ioe.printStackTrace();
-            System.exit(1);
-            return null;
-        }
-    }
-
     public static File getNewFile(String filePrefix, String fileType, int filePostfix) {
         File f = new File(filePrefix + fileType + filePostfix + ".txt");
         if (f.exists()) {
@@ -0,0 +1,156 @@
+package com.couchbase.javaclient.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free latency histogram with ~3% precision.
+ * Values are kept in microseconds: exact below 64us, then 32 linear
+ * sub-buckets per power of two, up to ~19 hours. Memory use is constant
+ * no matter how many values are recorded, so it is safe for long runs.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXP = 30;
+    static final int BUCKETS = (MAX_EXP + 1) * SUB_COUNT + SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, nanos));
+        counts.incrementAndGet(indexOf(micros));
+        total.incrementAndGet();
+        sum.addAndGet(micros);
+        long current;
+        while (micros > (current = max.get()) && !max.compareAndSet(current, micros)) {
+            // retry
+        }
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long maxMicros() {
+        return max.get();
+    }
+
+    public double meanMicros() {
+        long n = total.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * @param percentile value between 0 and 100
+     * @return upper bound in microseconds of the bucket holding the percentile
+     */
+    public long percentileMicros(double percentile) {
+        long n = total.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        total.addAndGet(other.total.get());
+        sum.addAndGet(other.sum.get());
+        long otherMax = other.max.get();
+        long current;
+        while (otherMax > (current = max.get()) && !max.compareAndSet(current, otherMax)) {
+            // retry
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Compact text form, sum|max|index:count,index:count... of the non empty buckets.
+     */
+    public String encode() {
+        StringBuilder sb = new StringBuilder().append(sum.get()).append('|').append(max.get()).append('|');
+        boolean first = true;
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = counts.get(i);
+            if (c != 0) {
+                if (!first) {
+                    sb.append(',');
+                }
+                sb.append(i).append(':').append(c);
+                first = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    public static LatencyHistogram decode(String encoded) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        String[] parts = encoded.split("\\|", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed histogram: " + encoded);
+        }
+        histogram.sum.set(Long.parseLong(parts[0]));
+        histogram.max.set(Long.parseLong(parts[1]));
+        if (!parts[2].isEmpty()) {
+            for (String bucket : parts[2].split(",")) {
+                int colon = bucket.indexOf(':');
+                long c = Long.parseLong(bucket.substring(colon + 1));
+                histogram.counts.set(Integer.parseInt(bucket.substring(0, colon)), c);
+                histogram.total.addAndGet(c);
+            }
+        }
+        return histogram;
+    }
+
+    public String summary() {
+        return String.format("p50=%dus p95=%dus p99=%dus p99.9=%dus max=%dus", percentileMicros(50),
+                percentileMicros(95), percentileMicros(99), percentileMicros(99.9), maxMicros());
+    }
+
+    static int indexOf(long micros) {
+        if (micros < 2 * SUB_COUNT) {
+            return (int) micros;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS;
+        if (exp > MAX_EXP) {
+            return BUCKETS - 1;
+        }
+        return exp * SUB_COUNT + (int) (micros >>> exp);
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < 2 * SUB_COUNT) {
+            return index;
+        }
+        int exp = index / SUB_COUNT - 1;
+        long mantissa = index % SUB_COUNT + SUB_COUNT;
+        return ((mantissa + 1) << exp) - 1;
+    }
+}
@@ -0,0 +1,114 @@
+package com.couchbase.javaclient.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.couchbase.javaclient.reactive.OpType;
+import org.apache.log4j.Logger;
+
+/**
+ * Per operation type throughput, error and latency counters shared by all
+ * the operations of one workload. Keeps both run totals and the current
+ * reporting interval, in constant memory.
+ */
+public class OpStats {
+
+    private final Map<OpType, LongAdder> errors = new EnumMap<>(OpType.class);
+    private final Map<OpType, LongAdder> intervalErrors = new EnumMap<>(OpType.class);
+    private final Map<OpType, LatencyHistogram> latencies = new EnumMap<>(OpType.class);
+    private final Map<OpType, AtomicReference<LatencyHistogram>> intervalLatencies = new EnumMap<>(OpType.class);
+    private final long startNanos = System.nanoTime();
+    private volatile long intervalStartNanos = startNanos;
+
+    public OpStats() {
+        for (OpType type : OpType.values()) {
+            errors.put(type, new LongAdder());
+            intervalErrors.put(type, new LongAdder());
+            latencies.put(type, new LatencyHistogram());
+            intervalLatencies.put(type, new AtomicReference<>(new LatencyHistogram()));
+        }
+    }
+
+    public void success(OpType type, long latencyNanos) {
+        latencies.get(type).record(latencyNanos);
+        intervalLatencies.get(type).get().record(latencyNanos);
+    }
+
+    public void error(OpType type) {
+        errors.get(type).increment();
+        intervalErrors.get(type).increment();
+    }
+
+    public long count(OpType type) {
+        return latencies.get(type).count();
+    }
+
+    public long errors(OpType type) {
+        return errors.get(type).sum();
+    }
+
+    public LatencyHistogram latency(OpType type) {
+        return latencies.get(type);
+    }
+
+    public void report(String name, Logger log) {
+        totalSnapshot().report(name, log);
+    }
+
+    /**
+     * Copy of the run totals so far.
+     */
+    public StatsSnapshot totalSnapshot() {
+        StatsSnapshot snapshot = new StatsSnapshot(secondsSince(startNanos));
+        for (OpType type : OpType.values()) {
+            LatencyHistogram latency = new LatencyHistogram();
+            latency.add(latencies.get(type));
+            snapshot.put(type, latency, errors(type));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Takes the stats of the interval since the previous call, then starts a new interval.
+     */
+    public StatsSnapshot intervalSnapshot() {
+        long now = System.nanoTime();
+        StatsSnapshot snapshot = new StatsSnapshot(secondsSince(intervalStartNanos));
+        intervalStartNanos = now;
+        for (OpType type : OpType.values()) {
+            snapshot.put(type, intervalLatencies.get(type).getAndSet(new LatencyHistogram()),
+                    intervalErrors.get(type).sumThenReset());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Logs the stats of the interval since the previous call, then starts a new interval.
+     *
+     * @return the interval that was logged
+     */
+    public StatsSnapshot reportInterval(String name, Logger log) {
+        return reportInterval(name, log, null);
+    }
+
+    /**
+     * @param detail extra workload state for the line, e.g. the in-flight limit, or null
+     */
+    public StatsSnapshot reportInterval(String name, Logger log, String detail) {
+        StatsSnapshot snapshot = intervalSnapshot();
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        log.info(String.format("%s [%.0fs]%s%s | threads=%d heapUsedMB=%d", name, secondsSince(startNanos),
+                snapshot.describe(), detail == null ? "" : " | " + detail,
+                ManagementFactory.getThreadMXBean().getThreadCount(), heap.getUsed() >> 20));
+        return snapshot;
+    }
+
+    private static double secondsSince(long nanos) {
+        return Math.max(1, System.nanoTime() - nanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,75 @@
+package com.couchbase.javaclient.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed schedule for open-loop load: op number i is due at start + i / rate,
+ * no matter how long earlier ops took. Callers measure latency from the due
+ * time, so a stalled cluster shows up as latency instead of a lower rate
+ * (no coordinated omission). Meant to be driven by one thread.
+ *
+ * With a ramp the rate moves linearly from a start rate to the target rate
+ * over the ramp period, then stays at the target rate.
+ */
+public class RatePacer {
+
+    private final double intervalNanos;
+    private final double fromRate;
+    private final double toRate;
+    private final double rampSeconds;
+    /** ops issued by the end of the ramp */
+    private final double rampOps;
+    private long startNanos = -1;
+
+    public RatePacer(double opsPerSec) {
+        this(opsPerSec, opsPerSec, 0);
+    }
+
+    /**
+     * @param fromRate ops/sec at the start of the ramp, may be 0
+     * @param toRate ops/sec at the end of the ramp and after it
+     * @param rampSeconds length of the ramp, 0 for none
+     */
+    public RatePacer(double fromRate, double toRate, double rampSeconds) {
+        if (toRate <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + toRate);
+        }
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / toRate;
+        this.fromRate = Math.max(0, fromRate);
+        this.toRate = toRate;
+        this.rampSeconds = Math.max(0, rampSeconds);
+        this.rampOps = (this.fromRate + toRate) * this.rampSeconds / 2;
+    }
+
+    /**
+     * Parks the calling thread until op number i is due.
+     *
+     * @return intended start time of the op, in System.nanoTime() units
+     */
+    public long awaitSlot(long i) {
+        if (startNanos < 0) {
+            startNanos = System.nanoTime();
+        }
+        long due = startNanos + offsetNanos(i);
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        return due;
+    }
+
+    /**
+     * Time from the start at which op number i is due. During the ramp the ops
+     * issued by time t are fromRate * t + a * t^2 with a = (toRate - fromRate) / (2 * rampSeconds),
+     * solved for t in a form that is stable for ramps up and down.
+     */
+    long offsetNanos(long i) {
+        if (i < rampOps) {
+            double a = (toRate - fromRate) / (2 * rampSeconds);
+            double seconds = i == 0 ? 0 : 2 * i / (fromRate + Math.sqrt(fromRate * fromRate + 4 * a * i));
+            return (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+        }
+        return (long) (rampSeconds * TimeUnit.SECONDS.toNanos(1) + (i - rampOps) * intervalNanos);
+    }
+}
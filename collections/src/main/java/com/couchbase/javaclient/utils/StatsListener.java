@@ -0,0 +1,14 @@
+package com.couchbase.javaclient.utils;
+
+/**
+ * Receives the stats of a workload as it runs, in addition to the local log.
+ */
+public interface StatsListener {
+
+    /**
+     * @param index 0 based number of the reporting interval
+     */
+    void interval(long index, StatsSnapshot snapshot);
+
+    void total(StatsSnapshot snapshot);
+}
@@ -0,0 +1,138 @@
+package com.couchbase.javaclient.utils;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.couchbase.javaclient.reactive.OpType;
+import org.apache.log4j.Logger;
+
+/**
+ * Immutable copy of the per operation type counters over some period, either
+ * a reporting interval or a whole run. Snapshots from several processes can be
+ * merged with {@link #add(StatsSnapshot)} and shipped as one line of text.
+ */
+public class StatsSnapshot {
+
+    private final double seconds;
+    private final Map<OpType, LatencyHistogram> latencies = new EnumMap<>(OpType.class);
+    private final Map<OpType, Long> errors = new EnumMap<>(OpType.class);
+
+    public StatsSnapshot(double seconds) {
+        this.seconds = seconds;
+        for (OpType type : OpType.values()) {
+            latencies.put(type, new LatencyHistogram());
+            errors.put(type, 0L);
+        }
+    }
+
+    void put(OpType type, LatencyHistogram latency, long failed) {
+        latencies.put(type, latency);
+        errors.put(type, failed);
+    }
+
+    public double seconds() {
+        return seconds;
+    }
+
+    public long count(OpType type) {
+        return latencies.get(type).count();
+    }
+
+    public long errors(OpType type) {
+        return errors.get(type);
+    }
+
+    public LatencyHistogram latency(OpType type) {
+        return latencies.get(type);
+    }
+
+    /**
+     * Merges another process' snapshot of the same period into a new snapshot.
+     * Counts and histograms are summed, the period is the longest of the two.
+     */
+    public StatsSnapshot add(StatsSnapshot other) {
+        return merge(other, Math.max(seconds, other.seconds));
+    }
+
+    /**
+     * Appends the snapshot of the period that followed this one, e.g. the next
+     * phase of a timeline. Counts and histograms are summed, the periods too.
+     */
+    public StatsSnapshot then(StatsSnapshot next) {
+        return merge(next, seconds + next.seconds);
+    }
+
+    private StatsSnapshot merge(StatsSnapshot other, double mergedSeconds) {
+        StatsSnapshot merged = new StatsSnapshot(mergedSeconds);
+        for (OpType type : OpType.values()) {
+            LatencyHistogram latency = new LatencyHistogram();
+            latency.add(latencies.get(type));
+            latency.add(other.latencies.get(type));
+            merged.put(type, latency, errors.get(type) + other.errors.get(type));
+        }
+        return merged;
+    }
+
+    /**
+     * One line per active operation type with its rate and latency percentiles,
+     * as used for interval reports.
+     */
+    public String describe() {
+        StringBuilder line = new StringBuilder();
+        for (OpType type : OpType.values()) {
+            LatencyHistogram latency = latencies.get(type);
+            long failed = errors.get(type);
+            if (latency.count() == 0 && failed == 0) {
+                continue;
+            }
+            line.append(String.format(" | %s %.1f ops/sec, %d errors, %s", type, latency.count() / seconds, failed,
+                    latency.summary()));
+        }
+        return line.toString();
+    }
+
+    public void report(String name, Logger log) {
+        long totalOps = 0;
+        for (OpType type : OpType.values()) {
+            long ops = count(type);
+            long failed = errors(type);
+            if (ops == 0 && failed == 0) {
+                continue;
+            }
+            totalOps += ops;
+            log.info(String.format("%s %s: %d ops, %d errors, %.1f ops/sec, %s", name, type, ops, failed,
+                    ops / seconds, latencies.get(type).summary()));
+        }
+        log.info(String.format("%s total: %d ops in %.1f sec, %.1f ops/sec", name, totalOps, seconds,
+                totalOps / seconds));
+    }
+
+    /**
+     * Single line form: the period in seconds followed by TYPE=errors|histogram
+     * for every operation type, separated by spaces.
+     */
+    public String encode() {
+        StringBuilder sb = new StringBuilder().append(seconds);
+        for (OpType type : OpType.values()) {
+            sb.append(' ').append(type).append('=').append(errors.get(type)).append('|')
+                    .append(latencies.get(type).encode());
+        }
+        return sb.toString();
+    }
+
+    public static StatsSnapshot decode(String encoded) {
+        String[] fields = encoded.trim().split(" ");
+        StatsSnapshot snapshot = new StatsSnapshot(Double.parseDouble(fields[0]));
+        for (int i = 1; i < fields.length; i++) {
+            int eq = fields[i].indexOf('=');
+            int bar = fields[i].indexOf('|', eq);
+            if (eq < 0 || bar < 0) {
+                throw new IllegalArgumentException("Malformed stats: " + fields[i]);
+            }
+            snapshot.put(OpType.valueOf(fields[i].substring(0, eq)),
+                    LatencyHistogram.decode(fields[i].substring(bar + 1)),
+                    Long.parseLong(fields[i].substring(eq + 1, bar)));
+        }
+        return snapshot;
+    }
+}
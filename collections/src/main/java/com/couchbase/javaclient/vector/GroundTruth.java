@@ -0,0 +1,191 @@
+package com.couchbase.javaclient.vector;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.couchbase.javaclient.doc.HierarchicalVector;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+import org.apache.log4j.Logger;
+
+/**
+ * Offline exact k-NN ground truth for a HierarchicalVector load, to measure the
+ * recall of a vector index over it. The data vectors are generated again from
+ * the doc ids, so nothing is read from the cluster.
+ *
+ * Writes one JSON line per query:
+ *
+ * <pre>
+ * {"query":0,"vector":"&lt;base64 float32&gt;","neighbors":[{"doc_id":17,"vector":3,"distance":0.52},...]}
+ * </pre>
+ *
+ * Queries come from a file, one per line as a JSON array or a base64 string of
+ * little-endian float32, or are drawn from --query_seed in [-1, 1) like the data.
+ */
+public class GroundTruth {
+
+	private final static Logger log = Logger.getLogger(GroundTruth.class);
+
+	public static void main(String[] args) {
+		ArgumentParser parser = ArgumentParsers.newFor("Vector ground truth").build().defaultHelp(true)
+				.description("Exact k nearest neighbours of queries among the vectors of a HierarchicalVector load");
+		parser.addArgument("-n", "--num_docs").type(Integer.class).setDefault(1000).help("Number of docs loaded");
+		parser.addArgument("-dsn", "--start_seq_num").type(Integer.class).setDefault(1)
+				.help("Doc id of the first doc loaded");
+		parser.addArgument("-vd", "--vector_dimension").type(Integer.class)
+				.setDefault(HierarchicalVector.DEFAULT_DIMENSION).help("Vector dimension of the load");
+		parser.addArgument("-vc", "--vectors_per_doc").type(Integer.class)
+				.setDefault(HierarchicalVector.DEFAULT_VECTORS_PER_DOC).help("Vectors per doc of the load");
+		parser.addArgument("-m", "--metric").choices("l2", "dot", "cosine").setDefault("l2")
+				.help("Distance: euclidean, negated dot product or 1 - cosine similarity");
+		parser.addArgument("-k", "--top_k").type(Integer.class).setDefault(100).help("Neighbours per query");
+		parser.addArgument("-q", "--queries").help("File of query vectors, one per line");
+		parser.addArgument("-nq", "--num_queries").type(Integer.class).setDefault(100)
+				.help("Random queries to draw when there is no query file");
+		parser.addArgument("-qs", "--query_seed").type(Long.class).setDefault(1L).help("Seed of the random queries");
+		parser.addArgument("-o", "--output").setDefault("ground_truth.jsonl").help("Output file");
+		parser.addArgument("-t", "--threads").type(Integer.class)
+				.setDefault(Runtime.getRuntime().availableProcessors()).help("Scanning threads");
+		try {
+			Namespace ns = parser.parseArgs(args);
+			int dim = ns.getInt("vector_dimension");
+			float[][] queries = ns.getString("queries") != null ? readQueries(ns.getString("queries"))
+					: randomQueries(ns.getInt("num_queries"), dim, ns.getLong("query_seed"));
+			run(ns, queries);
+		} catch (ArgumentParserException e) {
+			parser.handleError(e);
+			System.exit(2);
+		} catch (Exception e) {
+			log.error("Ground truth failed", e);
+			System.err.println("Ground truth failed: " + e);
+			System.exit(1);
+		}
+	}
+
+	private static void run(Namespace ns, float[][] queries) throws IOException {
+		int startId = ns.getInt("start_seq_num");
+		int perDoc = ns.getInt("vectors_per_doc");
+		int dim = ns.getInt("vector_dimension");
+		long total = (long) ns.getInt("num_docs") * perDoc;
+		KnnEngine.VectorSource data = new KnnEngine.VectorSource() {
+			@Override
+			public long size() {
+				return total;
+			}
+
+			@Override
+			public int dimension() {
+				return dim;
+			}
+
+			@Override
+			public void fill(long index, float[] into, int offset) {
+				HierarchicalVector.fillVector(startId + (int) (index / perDoc), (int) (index % perDoc), into, offset,
+						dim);
+			}
+		};
+		KnnEngine engine = new KnnEngine(KnnEngine.Metric.valueOf(ns.getString("metric").toUpperCase()),
+				ns.getInt("top_k"), ns.getInt("threads"));
+
+		AtomicLong scanned = new AtomicLong();
+		AtomicInteger reported = new AtomicInteger();
+		long start = System.nanoTime();
+		TopK[] results = engine.search(queries, data, count -> {
+			// Every 10% of the vectors
+			int tenths = (int) (scanned.addAndGet(count) * 10 / total);
+			int last = reported.get();
+			if (tenths > last && reported.compareAndSet(last, tenths)) {
+				log.info(String.format("Scanned %d%% of %d vectors in %d s", tenths * 10, total,
+						TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)));
+			}
+		});
+		long elapsed = Math.max(1, System.nanoTime() - start);
+
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(ns.getString("output")));
+				JsonGenerator gen = new JsonFactory().createGenerator(out)) {
+			for (int q = 0; q < queries.length; q++) {
+				gen.writeStartObject();
+				gen.writeNumberField("query", q);
+				gen.writeStringField("vector", HierarchicalVector.encode(queries[q]));
+				gen.writeArrayFieldStart("neighbors");
+				TopK top = results[q];
+				for (int i = 0; i < top.size(); i++) {
+					gen.writeStartObject();
+					gen.writeNumberField("doc_id", startId + top.index(i) / perDoc);
+					gen.writeNumberField("vector", top.index(i) % perDoc);
+					gen.writeNumberField("distance", top.distance(i));
+					gen.writeEndObject();
+				}
+				gen.writeEndArray();
+				gen.writeEndObject();
+				gen.writeRaw('\n');
+			}
+		}
+		String result = String.format(
+				"Top %d %s neighbours of %d queries among %d vectors of dimension %d in %d ms on %d threads "
+						+ "(%.0f distances/sec), written to %s",
+				ns.getInt("top_k"), ns.getString("metric"), queries.length, total, dim,
+				TimeUnit.NANOSECONDS.toMillis(elapsed), ns.getInt("threads"),
+				(double) total * queries.length / (elapsed / (double) TimeUnit.SECONDS.toNanos(1)),
+				ns.getString("output"));
+		log.info(result);
+		System.out.println(result);
+	}
+
+	static float[][] randomQueries(int n, int dim, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		float[][] queries = new float[n][dim];
+		for (float[] query : queries) {
+			for (int d = 0; d < dim; d++) {
+				query[d] = (float) (random.nextDouble() * 2 - 1);
+			}
+		}
+		return queries;
+	}
+
+	static float[][] readQueries(String file) throws IOException {
+		ObjectMapper mapper = new ObjectMapper();
+		List<float[]> queries = new ArrayList<>();
+		for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+			line = line.trim();
+			if (line.isEmpty()) {
+				continue;
+			}
+			if (!line.startsWith("[") && !line.startsWith("\"")) {
+				queries.add(HierarchicalVector.decode(line));
+				continue;
+			}
+			JsonNode node = mapper.readTree(line);
+			if (node.isTextual()) {
+				queries.add(HierarchicalVector.decode(node.asText()));
+			} else {
+				float[] query = new float[node.size()];
+				for (int d = 0; d < query.length; d++) {
+					query[d] = (float) node.get(d).asDouble();
+				}
+				queries.add(query);
+			}
+		}
+		if (queries.isEmpty()) {
+			throw new IllegalArgumentException("No queries in " + file);
+		}
+		return queries.toArray(new float[0][]);
+	}
+}
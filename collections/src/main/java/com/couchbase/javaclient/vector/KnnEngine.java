@@ -0,0 +1,193 @@
+package com.couchbase.javaclient.vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Exact k nearest neighbours by brute force, on all cores.
+ *
+ * The data vectors are never held all at once: workers take blocks of vectors
+ * in turn, generate a block into one contiguous buffer sized to stay in cache,
+ * and score every query against it before taking the next block. Each worker
+ * keeps its own top k per query, merged at the end, so the scan shares nothing.
+ * Results are ordered by distance then index, the same for any thread count.
+ */
+public class KnnEngine {
+
+	public enum Metric {
+		/** Negated dot product, the larger the product the nearer */
+		DOT,
+		/** Euclidean distance */
+		L2,
+		/** 1 - cosine similarity */
+		COSINE
+	}
+
+	/**
+	 * Data vectors by index, generated on demand.
+	 */
+	public interface VectorSource {
+		long size();
+
+		int dimension();
+
+		/**
+		 * Writes vector index into into[offset, offset + dimension).
+		 */
+		void fill(long index, float[] into, int offset);
+	}
+
+	// Block of data vectors scored at once, small enough for the L2 cache
+	private static final int BLOCK_BYTES = 256 * 1024;
+
+	private final Metric metric;
+	private final int k;
+	private final int threads;
+
+	public KnnEngine(Metric metric, int k, int threads) {
+		if (k <= 0 || threads <= 0) {
+			throw new IllegalArgumentException("k and threads must be positive: " + k + ", " + threads);
+		}
+		this.metric = metric;
+		this.k = k;
+		this.threads = threads;
+	}
+
+	/**
+	 * @param progress called with the number of vectors scanned after each block
+	 * @return per query, its neighbours nearest first
+	 */
+	public TopK[] search(float[][] queries, VectorSource data, LongConsumer progress) {
+		int dim = data.dimension();
+		for (float[] query : queries) {
+			if (query.length != dim) {
+				throw new IllegalArgumentException(
+						"Query dimension " + query.length + " doesn't match the data dimension " + dim);
+			}
+		}
+		int blockSize = Math.max(16, BLOCK_BYTES / (dim * Float.BYTES));
+		long blocks = (data.size() + blockSize - 1) / blockSize;
+		double[] queryNorms = new double[queries.length];
+		for (int q = 0; q < queries.length; q++) {
+			queryNorms[q] = Math.sqrt(dot(queries[q], 0, queries[q], 0, dim));
+		}
+
+		AtomicLong nextBlock = new AtomicLong();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<TopK[]>> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			workers.add(pool.submit(() -> {
+				TopK[] found = new TopK[queries.length];
+				for (int q = 0; q < queries.length; q++) {
+					found[q] = new TopK(k);
+				}
+				float[] block = new float[blockSize * dim];
+				double[] norms = new double[blockSize];
+				for (long b = nextBlock.getAndIncrement(); b < blocks; b = nextBlock.getAndIncrement()) {
+					long first = b * blockSize;
+					int count = (int) Math.min(blockSize, data.size() - first);
+					for (int i = 0; i < count; i++) {
+						data.fill(first + i, block, i * dim);
+						if (metric == Metric.COSINE) {
+							norms[i] = Math.sqrt(dot(block, i * dim, block, i * dim, dim));
+						}
+					}
+					for (int q = 0; q < queries.length; q++) {
+						float[] query = queries[q];
+						TopK top = found[q];
+						for (int i = 0; i < count; i++) {
+							top.offer(distance(query, queryNorms[q], block, i * dim, norms[i], dim), first + i);
+						}
+					}
+					progress.accept(count);
+				}
+				return found;
+			}));
+		}
+		try {
+			TopK[] merged = workers.get(0).get();
+			for (int t = 1; t < workers.size(); t++) {
+				TopK[] found = workers.get(t).get();
+				for (int q = 0; q < queries.length; q++) {
+					merged[q].addAll(found[q]);
+				}
+			}
+			for (TopK top : merged) {
+				top.sort();
+			}
+			return merged;
+		} catch (Exception e) {
+			throw new IllegalStateException("k-NN search failed", e);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private double distance(float[] query, double queryNorm, float[] block, int offset, double norm, int dim) {
+		switch (metric) {
+		case DOT:
+			return -dot(query, 0, block, offset, dim);
+		case L2:
+			return Math.sqrt(squaredL2(query, block, offset, dim));
+		default:
+			if (queryNorm == 0 || norm == 0) {
+				return 1;
+			}
+			return 1 - dot(query, 0, block, offset, dim) / (queryNorm * norm);
+		}
+	}
+
+	/**
+	 * Pairs of float32 products, as the index computes them, added into four
+	 * independent double sums so they pipeline without losing precision at
+	 * high dimensions.
+	 *
+	 * Scalar on purpose: the default build targets Java 8, and the jdk21
+	 * profile only raises the language level. The Vector API is still an
+	 * incubator module there, needing --add-modules jdk.incubator.vector to
+	 * build and run, and a second copy of the kernels the Java 8 build can't
+	 * compile.
+	 */
+	static double dot(float[] a, int aOffset, float[] b, int bOffset, int dim) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (; i + 7 < dim; i += 8) {
+			int x = aOffset + i;
+			int y = bOffset + i;
+			s0 += a[x] * b[y] + a[x + 4] * b[y + 4];
+			s1 += a[x + 1] * b[y + 1] + a[x + 5] * b[y + 5];
+			s2 += a[x + 2] * b[y + 2] + a[x + 6] * b[y + 6];
+			s3 += a[x + 3] * b[y + 3] + a[x + 7] * b[y + 7];
+		}
+		for (; i < dim; i++) {
+			s0 += a[aOffset + i] * b[bOffset + i];
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	static double squaredL2(float[] a, float[] b, int bOffset, int dim) {
+		double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (; i + 7 < dim; i += 8) {
+			int y = bOffset + i;
+			float d0 = a[i] - b[y], d4 = a[i + 4] - b[y + 4];
+			float d1 = a[i + 1] - b[y + 1], d5 = a[i + 5] - b[y + 5];
+			float d2 = a[i + 2] - b[y + 2], d6 = a[i + 6] - b[y + 6];
+			float d3 = a[i + 3] - b[y + 3], d7 = a[i + 7] - b[y + 7];
+			s0 += d0 * d0 + d4 * d4;
+			s1 += d1 * d1 + d5 * d5;
+			s2 += d2 * d2 + d6 * d6;
+			s3 += d3 * d3 + d7 * d7;
+		}
+		for (; i < dim; i++) {
+			float d = a[i] - b[bOffset + i];
+			s0 += d * d;
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+}
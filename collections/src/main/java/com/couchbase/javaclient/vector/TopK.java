@@ -0,0 +1,105 @@
+package com.couchbase.javaclient.vector;
+
+/**
+ * The k smallest (distance, index) pairs seen, in primitive arrays. Kept as a
+ * max heap with the farthest at the root while offering, so a candidate
+ * farther than all k is rejected with one comparison. Ties on distance go to
+ * the smaller index.
+ */
+public class TopK {
+
+	private final int k;
+	private final double[] distances;
+	private final long[] indexes;
+	private int size;
+
+	public TopK(int k) {
+		this.k = k;
+		this.distances = new double[k];
+		this.indexes = new long[k];
+	}
+
+	public void offer(double distance, long index) {
+		if (size < k) {
+			distances[size] = distance;
+			indexes[size] = index;
+			siftUp(size++);
+		} else if (nearer(distance, index, distances[0], indexes[0])) {
+			distances[0] = distance;
+			indexes[0] = index;
+			siftDown(0, size);
+		}
+	}
+
+	public void addAll(TopK other) {
+		for (int i = 0; i < other.size; i++) {
+			offer(other.distances[i], other.indexes[i]);
+		}
+	}
+
+	/**
+	 * Orders the pairs nearest first, no more offers after this.
+	 */
+	void sort() {
+		// Heap sort in place: move the farthest to the end one at a time
+		for (int end = size - 1; end > 0; end--) {
+			swap(0, end);
+			siftDown(0, end);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double distance(int i) {
+		return distances[i];
+	}
+
+	public long index(int i) {
+		return indexes[i];
+	}
+
+	private static boolean nearer(double distance, long index, double than, long thanIndex) {
+		return distance < than || distance == than && index < thanIndex;
+	}
+
+	private void siftUp(int i) {
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (!nearer(distances[parent], indexes[parent], distances[i], indexes[i])) {
+				return;
+			}
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	private void siftDown(int i, int end) {
+		while (true) {
+			int farthest = i;
+			int left = 2 * i + 1;
+			int right = left + 1;
+			if (left < end && nearer(distances[farthest], indexes[farthest], distances[left], indexes[left])) {
+				farthest = left;
+			}
+			if (right < end && nearer(distances[farthest], indexes[farthest], distances[right], indexes[right])) {
+				farthest = right;
+			}
+			if (farthest == i) {
+				return;
+			}
+			swap(i, farthest);
+			i = farthest;
+		}
+	}
+
+	private void swap(int a, int b) {
+		double distance = distances[a];
+		distances[a] = distances[b];
+		distances[b] = distance;
+		long index = indexes[a];
+		indexes[a] = indexes[b];
+		indexes[b] = index;
+	}
+}
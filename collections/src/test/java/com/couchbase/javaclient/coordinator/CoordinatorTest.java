@@ -0,0 +1,114 @@
+package com.couchbase.javaclient.coordinator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs a coordinator against several worker JVMs on this box, each a
+ * {@link FakeWorker} speaking the real protocol through {@link WorkerLink}.
+ */
+public class CoordinatorTest {
+
+	private static final int WORKERS = 3;
+	private static final int OPS_PER_INTERVAL = 100;
+	private static final int INTERVALS = 2;
+
+	private final List<String> logged = new CopyOnWriteArrayList<>();
+	private final AppenderSkeleton capture = new AppenderSkeleton() {
+		@Override
+		protected void append(LoggingEvent event) {
+			logged.add(event.getRenderedMessage());
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public boolean requiresLayout() {
+			return false;
+		}
+	};
+
+	@Before
+	public void captureLog() {
+		Logger.getLogger(Coordinator.class).addAppender(capture);
+	}
+
+	@After
+	public void releaseLog() {
+		Logger.getLogger(Coordinator.class).removeAppender(capture);
+	}
+
+	@Test(timeout = 120_000)
+	public void shardsStartsAndMergesWorkerProcesses() throws Exception {
+		List<Process> workers = new ArrayList<>();
+		List<File> outputs = new ArrayList<>();
+		try (ServerSocket server = new ServerSocket(0)) {
+			String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+			for (int i = 0; i < WORKERS; i++) {
+				File output = File.createTempFile("worker", ".out");
+				output.deleteOnExit();
+				outputs.add(output);
+				workers.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+						FakeWorker.class.getName(), "localhost:" + server.getLocalPort(),
+						Integer.toString(OPS_PER_INTERVAL), Integer.toString(INTERVALS))
+						.redirectErrorStream(true).redirectOutput(output).start());
+			}
+			new Coordinator(WORKERS, 2, 1).run(server);
+			for (Process worker : workers) {
+				assertTrue("worker did not exit", worker.waitFor(30, TimeUnit.SECONDS));
+				assertEquals(0, worker.exitValue());
+			}
+		} finally {
+			for (Process worker : workers) {
+				worker.destroyForcibly();
+			}
+		}
+
+		List<Integer> shards = new ArrayList<>();
+		long firstStart = Long.MAX_VALUE, lastStart = 0;
+		for (File output : outputs) {
+			String start = null;
+			for (String line : Files.readAllLines(output.toPath(), StandardCharsets.UTF_8)) {
+				if (line.startsWith("START ")) {
+					start = line;
+				}
+			}
+			assertTrue("no start in " + output, start != null);
+			String[] fields = start.split(" ");
+			shards.add(Integer.parseInt(fields[1]));
+			assertEquals(WORKERS, Integer.parseInt(fields[2]));
+			firstStart = Math.min(firstStart, Long.parseLong(fields[3]));
+			lastStart = Math.max(lastStart, Long.parseLong(fields[3]));
+		}
+		Collections.sort(shards);
+		assertEquals("every worker gets its own shard", Arrays.asList(0, 1, 2), shards);
+		assertTrue("workers started " + (lastStart - firstStart) + " ms apart", lastStart - firstStart < 1000);
+
+		for (int i = 0; i < INTERVALS; i++) {
+			String prefix = "Cluster [" + (i + 1) + "s] " + WORKERS + " workers | CREATE";
+			assertTrue("no merged interval " + i + " in " + logged, logged.stream().anyMatch(l -> l.startsWith(prefix)));
+		}
+		String total = "Cluster (" + WORKERS + " workers) CREATE: " + WORKERS * OPS_PER_INTERVAL * INTERVALS + " ops";
+		assertTrue("no merged total in " + logged, logged.stream().anyMatch(l -> l.startsWith(total)));
+	}
+}
@@ -0,0 +1,38 @@
+package com.couchbase.javaclient.coordinator;
+
+import com.couchbase.javaclient.doc.DocSpec;
+import com.couchbase.javaclient.doc.DocSpecBuilder;
+import com.couchbase.javaclient.reactive.OpType;
+import com.couchbase.javaclient.utils.OpStats;
+
+/**
+ * Stands in for a DocOperations worker process: joins the coordinator, waits
+ * for the shared start, then reports a fixed number of CREATEs per interval
+ * instead of running a workload against a cluster.
+ *
+ * Prints "START shardIndex numShards startedAtEpochMillis" for the test.
+ */
+public class FakeWorker {
+
+	public static void main(String[] args) throws Exception {
+		String hostPort = args[0];
+		int opsPerInterval = Integer.parseInt(args[1]);
+		int intervals = Integer.parseInt(args[2]);
+		DocSpec ds = new DocSpecBuilder().buildDocSpec();
+		try (WorkerLink link = WorkerLink.connect(hostPort)) {
+			link.awaitStart(ds);
+			System.out.println(String.join(" ", "START", Integer.toString(ds.get_shard_index()),
+					Integer.toString(ds.get_num_shards()), Long.toString(System.currentTimeMillis())));
+			System.out.flush();
+			OpStats stats = new OpStats();
+			for (int i = 0; i < intervals; i++) {
+				for (int op = 0; op < opsPerInterval; op++) {
+					// A latency per shard, so the merged histogram holds every worker's
+					stats.success(OpType.CREATE, (ds.get_shard_index() + 1) * 1_000_000L);
+				}
+				link.interval(i, stats.intervalSnapshot());
+			}
+			link.total(stats.totalSnapshot());
+		}
+	}
+}
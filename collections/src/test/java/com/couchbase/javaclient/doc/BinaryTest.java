@@ -0,0 +1,40 @@
+package com.couchbase.javaclient.doc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BinaryTest {
+
+	@Test
+	public void poolMemorySetsThePayloadCount() {
+		// 124 bytes each with the array overhead
+		assertEquals(8456, new Binary(100, 100, Binary.FILL_TEXT, 1 << 20, 1, null).size());
+		assertEquals(67650, new Binary(100, 100, Binary.FILL_TEXT, 8 << 20, 1, null).size());
+		assertEquals(1, new Binary(1000, 1000, Binary.FILL_TEXT, 0, 1, null).size());
+	}
+
+	@Test
+	public void compressibleFillerReachesTheRatio() {
+		for (double target : new double[] { 1.5, 3.0 }) {
+			Compression compression = new Compression("Binary payloads", target);
+			new Binary(500, 1500, Binary.FILL_TEXT, 4 << 20, 7, compression);
+			assertEquals(target, compression.achieved(), target * 0.1);
+		}
+		// Out of reach of 1000 byte payloads: as compressible as they get, short of the target
+		Compression compression = new Compression("Binary payloads", 6.0);
+		new Binary(500, 1500, Binary.FILL_TEXT, 4 << 20, 7, compression);
+		assertEquals(0, compression.randomShare(), 0);
+		assertTrue(compression.achieved() > 3 && compression.achieved() < 6.0);
+	}
+
+	@Test
+	public void payloadsStayInTheSizeRange() {
+		Binary pool = new Binary(10, 5000, Binary.FILL_RANDOM, 4 << 20, 7, null);
+		for (int i = 0; i < 10_000; i++) {
+			int length = pool.next().length;
+			assertTrue(length >= 10 && length <= 5000);
+		}
+	}
+}
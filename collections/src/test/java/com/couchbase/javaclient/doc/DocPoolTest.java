@@ -0,0 +1,43 @@
+package com.couchbase.javaclient.doc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.couchbase.client.java.json.JsonObject;
+import org.junit.Test;
+
+public class DocPoolTest {
+
+	@Test
+	public void empDocsGetTheirOwnEmpId() {
+		DocPool pool = new DocPool("emp", Emp::new, 2, 0, "", 7);
+		assertEquals("10000005", pool.createJsonObject(null, 0, 5).getString("emp_id"));
+		assertEquals("10000007", pool.createJsonObject(null, 0, 7).getString("emp_id"));
+	}
+
+	@Test
+	public void hierarchicalDocsGetTheirOwnIdsWithoutChangingTheBody() {
+		DocPool pool = new DocPool("Hierarchical", Hierarchical::new, 4, 1024, "", 7);
+		for (int i = 0; i < 4; i++) {
+			int id = i;
+			JsonObject doc = pool.createJsonObject(null, 1024, id);
+			JsonObject again = pool.createJsonObject(null, 1024, id + 4);
+			assertEquals("c" + id, doc.getObject("company").getString("id"));
+			assertEquals("c" + (id + 4), again.getObject("company").getString("id"));
+			assertEquals(doc.getObject("company").getString("name"), again.getObject("company").getString("name"));
+			if (doc.containsKey("id")) {
+				assertEquals("doc" + id, doc.getString("id"));
+				assertEquals("doc" + (id + 4), again.getString("id"));
+			}
+			assertEquals(doc, DocGenerator.generate(7, id, 0, f -> new Hierarchical().createJsonObject(f, 1024, id)));
+		}
+	}
+
+	@Test
+	public void onlyTheExtraFieldsAsked() {
+		DocPool pool = new DocPool("Person", Person::new, 2, 0, "", 7);
+		assertFalse(pool.createJsonObject(null, 0, 3).containsKey("id"));
+		pool = new DocPool("Person", Person::new, 2, 0, "seq:counter", 7);
+		assertEquals(Long.valueOf(1), pool.createJsonObject(null, 0, 3).getLong("seq"));
+	}
+}
@@ -0,0 +1,53 @@
+package com.couchbase.javaclient.doc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import com.couchbase.client.java.json.JsonObject;
+import org.junit.Test;
+
+public class JsonBytesTest {
+
+	@Test
+	public void objectsMatchTheBytesOfTheSameWrite() {
+		Map<String, SchemaTemplate> schemas = SchemaTemplate.load("templates/order.json");
+		for (DocTemplate template : new DocTemplate[] { new Person(), new Hierarchical(), new HierarchicalVector(),
+				new HierarchicalVector(7, 12, 2, "array"), new HierarchicalVector(16, 3, 1, "base64"),
+				schemas.get("Order"), schemas.get("Customer") }) {
+			for (int docsize : new int[] { 10, 300, 500, 4096 }) {
+				for (long seed = 1; seed <= 50; seed++) {
+					int id = (int) seed;
+					byte[] bytes = Fakers.seeded(seed, f -> template.createJsonBytes(f, docsize, id));
+					JsonObject obj = Fakers.seeded(seed, f -> template.createJsonObject(f, docsize, id));
+					assertEquals(JsonObject.fromJson(bytes), obj);
+					assertEquals(bytes.length, obj.toBytes().length);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void rawValuesAndEncodedNumbersBuildTheirTreeValues() {
+		JsonObject obj = JsonBytes.object(gen -> {
+			gen.writeStartObject();
+			gen.writeFieldName("raw");
+			gen.writeRawValue("{\"a\":[1,2.5,\"x\",null,true],\"big\":12345678901,\"huge\":123456789012345678901}");
+			gen.writeFieldName("nothing");
+			gen.writeRawValue("null");
+			gen.writeFieldName("text");
+			gen.writeString("abcdef".toCharArray(), 1, 3);
+			gen.writeFieldName("encoded");
+			gen.writeNumber("42");
+			gen.writeFieldName("long");
+			gen.writeNumber(7L);
+			gen.writeEndObject();
+		});
+		assertEquals(JsonObject.fromJson(obj.toString()), obj);
+		assertEquals("bcd", obj.getString("text"));
+		assertEquals(Integer.valueOf(42), obj.get("encoded"));
+		assertEquals(Integer.valueOf(7), obj.get("long"));
+		assertTrue(obj.containsKey("nothing") && obj.get("nothing") == null);
+	}
+}
@@ -0,0 +1,107 @@
+package com.couchbase.javaclient.doc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.couchbase.client.java.json.JsonObject;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+public class SchemaTemplateTest {
+
+	private static final String SAMPLE = "templates/order.json";
+	private static final ObjectMapper mapper = new ObjectMapper().configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES,
+			true);
+
+	@Test
+	public void sampleFileCompiles() {
+		Map<String, SchemaTemplate> templates = SchemaTemplate.load(SAMPLE);
+		assertEquals(Arrays.asList("Order", "Customer"), new ArrayList<>(templates.keySet()));
+		JsonObject order = Fakers.with(f -> templates.get("Order").createJsonObject(f, 1000, 7));
+		assertEquals("order_7", order.getString("orderId"));
+		assertEquals("filler", templates.get("Order").fillerField());
+	}
+
+	@Test
+	public void schemaErrors() {
+		assertError("{'fields': {'a': 'int'}}", "Template in test has no name");
+		assertError("{'name': 'T'}", "Template T has no fields");
+		assertError("{'name': 'T', 'fields': {}}", "Template T has no fields");
+		assertError("{'name': 'T', 'fields': {'f': 'filler', 'a': 'int'}}", "T.f: filler must be the last field");
+		assertError("{'name': 'T', 'fields': {'o': {'type': 'object', 'fields': {'f': 'filler'}}}}",
+				"T.o.f: filler must be the last top level field");
+	}
+
+	@Test
+	public void fieldErrors() {
+		assertError("{'name': 'T', 'fields': {'a': 5}}", "T.a: a field is a type name or an object with a type");
+		assertError("{'name': 'T', 'fields': {'a': {'min': 1}}}", "T.a: a field is a type name or an object with a type");
+		assertError("{'name': 'T', 'fields': {'a': 'long'}}", "T.a: unknown type 'long'");
+		assertError("{'name': 'T', 'fields': {'a': {'type': 'int', 'min': 5, 'max': 1}}}", "T.a: max 1 is less than min 5");
+		assertError("{'name': 'T', 'fields': {'a': {'type': 'double', 'min': 5, 'max': 1}}}", "T.a: max is less than min");
+		assertError("{'name': 'T', 'fields': {'a': {'type': 'enum', 'values': []}}}", "T.a: enum needs values");
+		assertError("{'name': 'T', 'fields': {'a': {'type': 'date', 'from': '2020/01/01'}}}",
+				"T.a: dates are yyyy-MM-dd, not 2020/01/01");
+		assertError("{'name': 'T', 'fields': {'a': {'type': 'date', 'format': 'rfc'}}}", "T.a: unknown date format rfc");
+		assertError("{'name': 'T', 'fields': {'a': 'faker'}}", "T.a: faker needs a method such as name.firstName");
+		assertError("{'name': 'T', 'fields': {'a': {'type': 'faker', 'method': 'name.nickname'}}}",
+				"T.a: Name has no method nickname()");
+		assertError("{'name': 'T', 'fields': {'a': 'object'}}", "T.a: object needs fields");
+		assertError("{'name': 'T', 'fields': {'a': 'array'}}", "T.a: array needs items");
+		assertError("{'name': 'T', 'fields': {'a': {'type': 'array', 'items': 'nope'}}}", "T.a[]: unknown type 'nope'");
+		assertError("{'name': 'T', 'fields': {'o': {'type': 'object', 'fields': {'b': 'nope'}}}}",
+				"T.o.b: unknown type 'nope'");
+	}
+
+	@Test
+	public void updateErrors() {
+		String fields = "'fields': {'id': 'id', 'n': 'int', 's': 'text', 'l': {'type': 'array', 'items': 'int'}}";
+		assertError("{'name': 'T', 'update': ['x'], " + fields + "}", "Template T updates unknown field x");
+		assertError("{'name': 'T', 'update': ['id'], " + fields + "}", "Template T can't update id field id");
+		assertError("{'name': 'T', 'update': [{'field': 's', 'op': 'append'}], " + fields + "}",
+				"T.s: append needs an array field");
+		assertError("{'name': 'T', 'update': [{'field': 's', 'op': 'increment'}], " + fields + "}",
+				"T.s: increment needs an int field");
+		assertError("{'name': 'T', 'update': [{'field': 'n', 'op': 'decrement'}], " + fields + "}",
+				"T.n: unknown update op decrement");
+	}
+
+	@Test
+	public void unreadableFile() {
+		try {
+			SchemaTemplate.load("templates/missing.json");
+			fail("loaded a missing file");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("Can't read template file templates/missing.json"));
+		}
+	}
+
+	@Test
+	public void unknownTemplateListsBothKinds() {
+		try {
+			DocTemplateFactory.getDocTemplate(new DocSpecBuilder().template("Invoice").templateFile(SAMPLE).buildDocSpec());
+			fail("found template Invoice");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unknown doc template Invoice, built in templates are emp, Employee, Person, Hotel, "
+					+ "Hierarchical, HierarchicalVector, --template_file templates are Customer, Order", e.getMessage());
+		}
+	}
+
+	private static void assertError(String schema, String message) {
+		try {
+			SchemaTemplate.compile(mapper.readTree(schema), "test");
+			fail("compiled " + schema);
+		} catch (IllegalArgumentException e) {
+			assertEquals(message, e.getMessage());
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+}
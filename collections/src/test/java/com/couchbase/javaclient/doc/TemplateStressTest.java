@@ -0,0 +1,273 @@
+package com.couchbase.javaclient.doc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.couchbase.client.java.json.JsonObject;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.Test;
+
+/**
+ * Generates docs from one shared template instance on many threads at once, as
+ * the create threads do, and checks every doc is well formed:
+ * <ul>
+ * <li>generating and encoding it throws nothing</li>
+ * <li>it is a new object, not one handed out to another thread as well</li>
+ * <li>its encoded form parses back and has every field a single threaded
+ * template always sets, and no field it never sets</li>
+ * <li>for the templates that fill docs up to --size, its size is within the
+ * tolerance of --size, unless the template's fixed fields alone are larger</li>
+ * <li>with a run seed, rebuilding it from the seed and its id gives the same doc</li>
+ * </ul>
+ * A template fails its test if any doc fails.
+ */
+public class TemplateStressTest {
+
+	private final static Logger log = Logger.getLogger(TemplateStressTest.class);
+	private static final int REFERENCE_DOCS = 200;
+	// Fewer reference docs for large docs, at least enough to see the optional fields
+	private static final int REFERENCE_BYTES = 8 << 20;
+	private static final int MIN_REFERENCE_DOCS = 20;
+	// Templates that add filler up to the doc size
+	private static final Set<String> SIZED = new HashSet<>(Arrays.asList("Person", "hierarchical", "Hierarchical"));
+	// Smallest filler field a template can add, docs may miss the size by that much
+	private static final int MIN_FILLER_BYTES = 16;
+	// Sampled docs may compress this much off the target ratio, relatively
+	private static final double RATIO_TOLERANCE = 0.1;
+
+	private static final String TEMPLATES = "Person,Hotel,emp,Employee,Hierarchical,HierarchicalVector";
+
+	@Test
+	public void templatesOnManyThreads() {
+		for (String template : TEMPLATES.split(",")) {
+			check(template, 16, 100, 500, 1.0, 0, 0, "");
+		}
+	}
+
+	@Test
+	public void largeDocsLandWithinTolerance() {
+		for (String template : new String[] { "Person", "Hierarchical" }) {
+			check(template, 4, 5, 1_000_000, 1.0, 0, 0, "");
+		}
+	}
+
+	@Test
+	public void seededDocsRebuild() {
+		for (String template : TEMPLATES.split(",")) {
+			check(template, 8, 50, 500, 1.0, 12345, 0, "");
+		}
+	}
+
+	@Test
+	public void schemaTemplates() {
+		for (String template : new String[] { "Order", "Customer" }) {
+			check(template, 8, 50, 1000, 1.0, 0, 0, "templates/order.json");
+			check(template, 8, 50, 1000, 1.0, 12345, 0, "templates/order.json");
+		}
+	}
+
+	@Test
+	public void compressibleDocs() {
+		// Targets within reach of each template: 2000 byte Hierarchical docs compress at 1.9 to 2.75
+		assertRatio(check("Person", 8, 200, 2000, 1.0, 0, 3.0, ""), 3.0);
+		assertRatio(check("Hierarchical", 8, 200, 2000, 1.0, 0, 2.5, ""), 2.5);
+		for (String template : new String[] { "Person", "Hierarchical" }) {
+			assertRatio(check(template, 8, 200, 8000, 1.0, 0, 1.5, ""), 1.5);
+		}
+		assertRatio(check("Order", 8, 200, 2000, 1.0, 0, 3.0, "templates/order.json"), 3.0);
+	}
+
+	@Test
+	public void unreachableRatioClampsAndWarns() {
+		List<String> warnings = new ArrayList<>();
+		AppenderSkeleton capture = new AppenderSkeleton() {
+			@Override
+			protected void append(LoggingEvent event) {
+				if (event.getLevel() == Level.WARN) {
+					warnings.add(event.getRenderedMessage());
+				}
+			}
+
+			@Override
+			public void close() {
+			}
+
+			@Override
+			public boolean requiresLayout() {
+				return false;
+			}
+		};
+		Logger.getLogger(Compression.class).addAppender(capture);
+		try {
+			// Filler compresses no better than its dictionary phrases, the docs are as compressible as they get
+			Compression compression = check("Person", 4, 25, 2000, 1.0, 0, 100, "");
+			assertEquals(0, compression.randomShare(), 0);
+			assertTrue(compression.achieved() > 3 && compression.achieved() < 100);
+		} finally {
+			Logger.getLogger(Compression.class).removeAppender(capture);
+		}
+		assertEquals(warnings.toString(), 1, warnings.size());
+		assertTrue(warnings.get(0), warnings.get(0).contains("can't reach 100.00"));
+	}
+
+	/**
+	 * The target was reached by calibration, not clamped, and the docs compress at it.
+	 */
+	private static void assertRatio(Compression compression, double target) {
+		assertTrue("random filler share " + compression.randomShare(),
+				compression.randomShare() > 0 && compression.randomShare() < 1);
+		assertEquals("compression ratio achieved", target, compression.achieved(), target * RATIO_TOLERANCE);
+	}
+
+	/**
+	 * @return the compression of the docs, null without a compression ratio
+	 */
+	static Compression check(String template, int threads, int docsPerThread, int docsize, double tolerance,
+			long runSeed, double compressionRatio, String templateFile) {
+		DocSpec ds = new DocSpecBuilder().template(template).size(docsize).runSeed(runSeed)
+				.compressionRatio(compressionRatio).templateFile(templateFile).buildDocSpec();
+		DocTemplate shared = DocTemplateFactory.getDocTemplate(ds);
+		Compression compression = Compression.of(ds);
+
+		// Fields of docs made one at a time
+		Set<String> always = null;
+		Set<String> ever = new HashSet<>();
+		DocTemplate reference = DocTemplateFactory.getDocTemplate(ds);
+		int referenceDocs = Math.max(MIN_REFERENCE_DOCS, Math.min(REFERENCE_DOCS, REFERENCE_BYTES / docsize));
+		for (int i = 1; i <= referenceDocs; i++) {
+			int id = i;
+			Set<String> names = new HashSet<>(Fakers.with(f -> reference.createJsonObject(f, docsize, id)).getNames());
+			ever.addAll(names);
+			if (always == null) {
+				always = new HashSet<>(names);
+			} else {
+				always.retainAll(names);
+			}
+		}
+
+		String fillerField = shared instanceof SchemaTemplate ? ((SchemaTemplate) shared).fillerField() : null;
+		boolean sized = SIZED.contains(template) || fillerField != null;
+		int slack = Math.max(MIN_FILLER_BYTES, (int) (docsize * tolerance / 100));
+		AtomicLong missedSize = new AtomicLong();
+		AtomicLong minSize = new AtomicLong(Long.MAX_VALUE);
+		AtomicLong maxSize = new AtomicLong();
+		AtomicLong unreproducible = new AtomicLong();
+
+		Set<JsonObject> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		AtomicLong malformed = new AtomicLong();
+		AtomicLong errors = new AtomicLong();
+		ObjectMapper mapper = new ObjectMapper();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<?>> workers = new ArrayList<>();
+		Set<String> required = always;
+		Set<String> known = normalize(ever);
+		for (int t = 0; t < threads; t++) {
+			int first = t * docsPerThread + 1;
+			workers.add(pool.submit(() -> {
+				start.await();
+				List<JsonObject> docs = new ArrayList<>(docsPerThread);
+				for (int id = first; id < first + docsPerThread; id++) {
+					int docId = id;
+					try {
+						JsonObject doc = DocGenerator.create(shared, ds, docId);
+						byte[] json = doc.toBytes();
+						JsonNode parsed = mapper.readTree(json);
+						Set<String> names = new HashSet<>();
+						parsed.fieldNames().forEachRemaining(names::add);
+						if (!names.containsAll(required) || !known.containsAll(normalize(names))) {
+							if (malformed.incrementAndGet() <= 5) {
+								log.error(template + " malformed doc " + docId + ": " + names);
+							}
+						}
+						minSize.accumulateAndGet(json.length, Math::min);
+						maxSize.accumulateAndGet(json.length, Math::max);
+						// Only docs with filler are held to the size, the fixed fields may be larger
+						boolean filled = fillerField != null ? names.contains(fillerField)
+								: names.stream().anyMatch(name -> name.contains("filler"));
+						if (sized && (json.length < docsize - slack || filled && json.length > docsize + slack)) {
+							if (missedSize.incrementAndGet() <= 5) {
+								log.error(template + " doc " + docId + " is " + json.length + " bytes, wanted " + docsize);
+							}
+						}
+						// Rebuilt on this thread from another template, while the others generate
+						if (runSeed != 0 && !DocGenerator.expected(reference, ds, docId, 0).equals(JsonObject.fromJson(json))) {
+							if (unreproducible.incrementAndGet() <= 5) {
+								log.error(template + " doc " + docId + " differs when rebuilt from the run seed");
+							}
+						}
+						docs.add(doc);
+					} catch (Exception e) {
+						if (errors.incrementAndGet() <= 5) {
+							log.error(template + " doc " + docId + " failed", e);
+						}
+					}
+				}
+				synchronized (seen) {
+					for (JsonObject doc : docs) {
+						if (!seen.add(doc)) {
+							malformed.incrementAndGet();
+						}
+					}
+				}
+				return null;
+			}));
+		}
+		long began = System.nanoTime();
+		start.countDown();
+		try {
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+		} catch (Exception e) {
+			log.error(template + " check failed", e);
+			errors.incrementAndGet();
+		} finally {
+			pool.shutdownNow();
+		}
+		long total = (long) threads * docsPerThread;
+		boolean ok = malformed.get() == 0 && errors.get() == 0 && missedSize.get() == 0 && unreproducible.get() == 0;
+		String result = String.format(
+				"%s %s: %d docs on %d threads in %d ms, %d distinct, %d malformed, %d errors, %d-%d bytes%s%s%s",
+				ok ? "PASS" : "FAIL", template, total, threads,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began), seen.size(), malformed.get(),
+				errors.get(), minSize.get(), maxSize.get(),
+				sized ? String.format(" (%d off size by more than %d)", missedSize.get(), slack) : "",
+				runSeed != 0 ? String.format(", %d not reproducible", unreproducible.get()) : "",
+				compression != null && compression.achieved() > 0 ? String.format(", compression ratio %.2f for %.2f", compression.achieved(),
+						compression.target()) : "");
+		log.info(result);
+		assertTrue(result, ok);
+		return compression;
+	}
+
+	/**
+	 * Numbered fields such as filler1, filler2 count as one field name.
+	 */
+	private static Set<String> normalize(Set<String> names) {
+		Set<String> normalized = new HashSet<>();
+		for (String name : names) {
+			normalized.add(name.replaceAll("\\d+$", "#"));
+		}
+		return normalized;
+	}
+}
@@ -0,0 +1,53 @@
+package com.couchbase.javaclient.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DeadLetterLogTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void workloadsShareTheFileUntilTheLastCloses() throws IOException {
+		File file = folder.newFile("dead.tsv");
+		DeadLetterLog create = new DeadLetterLog("Create", file.getPath());
+		DeadLetterLog update = new DeadLetterLog("Update", file.getPath());
+
+		create.record("create", "doc1", new TimeoutException("timed\nout"));
+		create.close();
+		// Still open for the other workload
+		update.record("update", "doc2", new IllegalStateException("cas"));
+		update.close();
+
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		assertEquals(Arrays.asList("Create\tcreate\tdoc1\tTimeoutException\ttimed out",
+				"Update\tupdate\tdoc2\tIllegalStateException\tcas"), lines);
+		assertEquals(1, create.count());
+		assertEquals(1, update.count());
+	}
+
+	@Test
+	public void reopensAfterTheLastClose() throws IOException {
+		File file = folder.newFile("dead.tsv");
+		DeadLetterLog first = new DeadLetterLog("First", file.getPath());
+		first.record("read", "doc1", new RuntimeException("a"));
+		first.close();
+		DeadLetterLog second = new DeadLetterLog("Second", file.getPath());
+		second.record("read", "doc2", new RuntimeException("b"));
+		second.close();
+
+		assertEquals(2, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+	}
+}
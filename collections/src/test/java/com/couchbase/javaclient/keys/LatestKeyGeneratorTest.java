@@ -0,0 +1,43 @@
+package com.couchbase.javaclient.keys;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatestKeyGeneratorTest {
+
+	@Test
+	public void skewFollowsALiveRangeThatMovesEveryDraw() {
+		KeyGenerator latest = new LatestKeyGenerator();
+		Zipfian still = new Zipfian(1000);
+		long low = 0, high = 1000;
+		int draws = 400_000;
+		// Hits by distance from the newest live id, of the moving range and of one that never moves
+		int[] hits = new int[1001];
+		int[] stillHits = new int[1000];
+		for (int i = 0; i < draws; i++) {
+			// A mixed load: creates move high, deletes move low, 1000 +- 1 ids stay live
+			if (i % 2 == 0) {
+				high++;
+			} else {
+				low++;
+			}
+			long id = latest.next(low, high);
+			assertTrue(id >= low && id < high);
+			hits[(int) (high - 1 - id)]++;
+			stillHits[(int) still.nextRank()]++;
+		}
+		// The newest id is drawn with probability 1 / zeta(1000), about 0.13
+		assertEquals(1 / Zipfian.zeta(1000), hits[0] / (double) draws, 0.005);
+		int newest = 0, stillNewest = 0;
+		for (int rank = 0; rank < 1000; rank++) {
+			newest += hits[rank];
+			stillNewest += stillHits[rank];
+			if (rank == 1 || rank == 9 || rank == 99 || rank == 499) {
+				assertEquals("newest " + (rank + 1), stillNewest / (double) draws, newest / (double) draws, 0.005);
+			}
+		}
+		assertTrue(hits[0] > hits[1] && hits[1] > hits[10] && hits[10] > hits[500]);
+	}
+}
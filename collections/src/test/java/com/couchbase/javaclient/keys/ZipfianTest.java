@@ -0,0 +1,55 @@
+package com.couchbase.javaclient.keys;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ZipfianTest {
+
+	@Test
+	public void tailEstimateMatchesTheExactSum() {
+		for (long n : new long[] { 1001, 5000, 123456 }) {
+			double exact = 0;
+			for (long i = 1; i <= n; i++) {
+				exact += 1 / Math.pow(i, Zipfian.ZIPFIAN_CONSTANT);
+			}
+			assertEquals(exact, Zipfian.zeta(n), 1e-9);
+		}
+		// YCSB's precomputed zeta(10^10, 0.99)
+		assertEquals(26.46902820178302, Zipfian.zeta(10_000_000_000L), 1e-9);
+	}
+
+	@Test
+	public void resizingKeepsZetaExact() {
+		Zipfian zipfian = new Zipfian(1);
+		long items = 1;
+		Random random = new Random(7);
+		for (int i = 0; i < 100_000; i++) {
+			// Mostly creates, some deletes, now and then a jump past the term by term range
+			long step = i % 1000 == 999 ? 5000 - random.nextInt(10_000) : random.nextInt(4) - 1;
+			items = Math.max(1, items + step);
+			zipfian.resize(items);
+		}
+		assertEquals(Zipfian.zeta(items), zipfian.zetan(), 1e-9);
+	}
+
+	@Test
+	public void latestFavoursTheNewestLiveIds() {
+		KeyGenerator latest = new LatestKeyGenerator();
+		long low = 1_000_000, high = low + 100;
+		int[] hits = new int[100];
+		int draws = 200_000;
+		for (int i = 0; i < draws; i++) {
+			long id = latest.next(low, high);
+			assertTrue(id >= low && id < high);
+			hits[(int) (id - low)]++;
+		}
+		// The newest id is drawn with probability 1 / zeta(100), about 0.19
+		double newest = hits[99] / (double) draws;
+		assertEquals(1 / Zipfian.zeta(100), newest, 0.01);
+		assertTrue(hits[99] > hits[98] && hits[98] > hits[90] && hits[90] > hits[0]);
+	}
+}
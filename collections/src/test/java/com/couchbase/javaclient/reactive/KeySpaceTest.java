@@ -0,0 +1,71 @@
+package com.couchbase.javaclient.reactive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.couchbase.javaclient.keys.KeyGenerator;
+import com.couchbase.javaclient.keys.UniformKeyGenerator;
+import org.junit.Test;
+
+public class KeySpaceTest {
+
+	private final KeyGenerator uniform = new UniformKeyGenerator();
+
+	@Test
+	public void idsAreLiveOnceTheirCreateSucceeded() {
+		DocMixedLoad.KeySpace keys = new DocMixedLoad.KeySpace(100, 1, 0, 1000);
+		long first = keys.nextCreate();
+		long second = keys.nextCreate();
+		assertEquals(-1, keys.randomLive(uniform));
+		assertEquals(-1, keys.nextDelete());
+		// Acknowledged out of order: nothing is live until the first create lands
+		keys.created(second);
+		assertEquals(-1, keys.randomLive(uniform));
+		keys.created(first);
+		for (int i = 0; i < 100; i++) {
+			long local = keys.randomLive(uniform);
+			assertTrue(local == first || local == second);
+		}
+		assertEquals(100, keys.id(keys.nextDelete()));
+	}
+
+	@Test
+	public void aFailedCreateIsRetriedBeforeNewIds() {
+		DocMixedLoad.KeySpace keys = new DocMixedLoad.KeySpace(0, 1, 0, 1000);
+		long failed = keys.nextCreate();
+		long later = keys.nextCreate();
+		keys.createFailed(failed);
+		keys.created(later);
+		assertEquals(-1, keys.randomLive(uniform));
+		assertEquals(failed, keys.nextCreate());
+		keys.created(failed);
+		assertEquals(later + 1, keys.nextCreate());
+		assertEquals(failed, keys.nextDelete());
+	}
+
+	@Test
+	public void deletesAndReadsFollowCreatesThatWrapped() {
+		DocMixedLoad.KeySpace keys = new DocMixedLoad.KeySpace(0, 1, 0, 3);
+		for (int i = 0; i < 5; i++) {
+			keys.created(keys.nextCreate());
+		}
+		// Creates 3 and 4 overwrote ids 0 and 1, so the oldest live doc is id 2
+		assertEquals(2, keys.id(keys.nextDelete()));
+		assertEquals(0, keys.id(keys.nextDelete()));
+		assertEquals(1, keys.id(keys.nextDelete()));
+		assertEquals(-1, keys.nextDelete());
+		for (int i = 0; i < 3; i++) {
+			keys.created(keys.nextCreate());
+		}
+		Set<Long> read = new HashSet<>();
+		for (int i = 0; i < 1000; i++) {
+			read.add(keys.id(keys.randomLive(uniform)));
+		}
+		assertEquals(new HashSet<>(Arrays.asList(0L, 1L, 2L)), read);
+		assertEquals(2, keys.id(keys.nextDelete()));
+	}
+}
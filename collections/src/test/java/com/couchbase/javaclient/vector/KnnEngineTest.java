@@ -0,0 +1,129 @@
+package com.couchbase.javaclient.vector;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import com.couchbase.javaclient.vector.KnnEngine.Metric;
+import org.junit.Test;
+
+/**
+ * Compares the engine with a full sort of every distance, for every metric and
+ * thread count. Vector components are small integers, so products and sums
+ * are exact in both and many distances tie: ties must go to the smaller index.
+ */
+public class KnnEngineTest {
+
+	private static final int DIM = 13;
+	private static final int K = 10;
+
+	@Test
+	public void l2MatchesFullSort() {
+		check(Metric.L2);
+	}
+
+	@Test
+	public void dotMatchesFullSort() {
+		check(Metric.DOT);
+	}
+
+	@Test
+	public void cosineMatchesFullSort() {
+		check(Metric.COSINE);
+	}
+
+	private void check(Metric metric) {
+		Random random = new Random(42);
+		// Every vector three times and the zero vector, so each distance ties
+		float[][] data = new float[3001][];
+		for (int i = 0; i < 1000; i++) {
+			data[i] = randomVector(random);
+			data[i + 1000] = data[i].clone();
+			data[i + 2000] = data[i].clone();
+		}
+		data[3000] = new float[DIM];
+		float[][] queries = new float[20][];
+		for (int q = 0; q < queries.length; q++) {
+			queries[q] = randomVector(random);
+		}
+		queries[0] = data[7].clone();
+		queries[1] = new float[DIM];
+
+		for (int threads : new int[] { 1, 4 }) {
+			TopK[] found = new KnnEngine(metric, K, threads).search(queries, source(data), n -> {
+			});
+			for (int q = 0; q < queries.length; q++) {
+				List<long[]> expected = fullSort(metric, queries[q], data);
+				assertEquals(K, found[q].size());
+				for (int i = 0; i < K; i++) {
+					String at = metric + " query " + q + " rank " + i + " on " + threads + " threads";
+					assertEquals(at, expected.get(i)[0], found[q].index(i));
+					assertEquals(at, Double.longBitsToDouble(expected.get(i)[1]), found[q].distance(i), 0);
+				}
+			}
+		}
+	}
+
+	private static float[] randomVector(Random random) {
+		float[] v = new float[DIM];
+		for (int i = 0; i < DIM; i++) {
+			v[i] = random.nextInt(7) - 3;
+		}
+		return v;
+	}
+
+	private static KnnEngine.VectorSource source(float[][] data) {
+		return new KnnEngine.VectorSource() {
+			@Override
+			public long size() {
+				return data.length;
+			}
+
+			@Override
+			public int dimension() {
+				return DIM;
+			}
+
+			@Override
+			public void fill(long index, float[] into, int offset) {
+				System.arraycopy(data[(int) index], 0, into, offset, DIM);
+			}
+		};
+	}
+
+	/**
+	 * (index, distance bits) of every vector, nearest first then smallest index.
+	 */
+	private static List<long[]> fullSort(Metric metric, float[] query, float[][] data) {
+		List<long[]> all = new ArrayList<>();
+		for (int i = 0; i < data.length; i++) {
+			all.add(new long[] { i, Double.doubleToLongBits(distance(metric, query, data[i])) });
+		}
+		all.sort(Comparator.<long[]>comparingDouble(e -> Double.longBitsToDouble(e[1])).thenComparingLong(e -> e[0]));
+		return all;
+	}
+
+	private static double distance(Metric metric, float[] a, float[] b) {
+		double dot = 0, aa = 0, bb = 0, l2 = 0;
+		for (int i = 0; i < DIM; i++) {
+			dot += a[i] * b[i];
+			aa += a[i] * a[i];
+			bb += b[i] * b[i];
+			l2 += (a[i] - b[i]) * (a[i] - b[i]);
+		}
+		switch (metric) {
+		case DOT:
+			return -dot;
+		case L2:
+			return Math.sqrt(l2);
+		default:
+			if (aa == 0 || bb == 0) {
+				return 1;
+			}
+			return 1 - dot / (Math.sqrt(aa) * Math.sqrt(bb));
+		}
+	}
+}